@@ -0,0 +1,86 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.benchmarks.jmh;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.cloud.sleuth.Span;
+
+/**
+ * Compares parsing the trace headers with {@link BigInteger} to {@link Span#fromHex},
+ * and formatting the ids of a span on every use to the hex cached in the span. A span
+ * is formatted three times per hop: MDC, response headers and outgoing request headers.
+ * Run with {@code -prof gc} to see the bytes allocated.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class HexCodecBenchmark {
+
+	String traceIdHeader = "463ac35c9f6413ad";
+
+	String spanIdHeader = "a2fb4a1d1a96d312";
+
+	@Benchmark
+	public void fromHexBigInteger(Blackhole blackhole) {
+		blackhole.consume(new BigInteger(this.traceIdHeader, 16).longValue());
+		blackhole.consume(new BigInteger(this.spanIdHeader, 16).longValue());
+	}
+
+	@Benchmark
+	public void fromHex(Blackhole blackhole) {
+		blackhole.consume(Span.fromHex(this.traceIdHeader));
+		blackhole.consume(Span.fromHex(this.spanIdHeader));
+	}
+
+	@Benchmark
+	public void toHexOnEveryUse(Blackhole blackhole) {
+		Span span = newSpan();
+		for (int i = 0; i < 3; i++) {
+			blackhole.consume(Span.toHex(span.getTraceId()));
+			blackhole.consume(Span.toHex(span.getSpanId()));
+		}
+	}
+
+	@Benchmark
+	public void toHexCachedInSpan(Blackhole blackhole) {
+		Span span = newSpan();
+		for (int i = 0; i < 3; i++) {
+			blackhole.consume(span.traceIdHex());
+			blackhole.consume(span.spanIdHex());
+		}
+	}
+
+	private Span newSpan() {
+		return Span.builder().traceId(0x463ac35c9f6413adL).spanId(0x72485a3953bb6124L)
+				.parent(0xa2fb4a1d1a96d312L).build();
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.benchmarks.jmh;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.sleuth.benchmarks.jmh.ZipkinSpanListenerBenchmark.LastSpanReporter;
+import org.springframework.cloud.sleuth.instrument.TraceKeys;
+import org.springframework.cloud.sleuth.metric.NoOpSpanReporterService;
+import org.springframework.cloud.sleuth.zipkin.HttpZipkinSpanReporter;
+import org.springframework.cloud.sleuth.zipkin.ZipkinSpanListener;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import zipkin.Codec;
+
+/**
+ * Cost of a {@link HttpZipkinSpanReporter#flush() flush}: encoding a batch of client
+ * spans to json on its own, and reporting and flushing the batch to a local collector
+ * that accepts everything. The difference between the two is the HTTP round trip over
+ * the loopback interface.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class HttpZipkinSpanReporterBenchmark {
+
+	@Param({ "1", "100" })
+	int batchSize;
+
+	List<zipkin.Span> spans;
+
+	HttpServer collector;
+
+	HttpZipkinSpanReporter reporter;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		LastSpanReporter converted = new LastSpanReporter();
+		ZipkinSpanListener listener = new ZipkinSpanListener(converted,
+				ZipkinSpanListenerBenchmark.LOCAL);
+		this.spans = new ArrayList<>(this.batchSize);
+		for (int i = 0; i < this.batchSize; i++) {
+			listener.spanReleased(null,
+					ZipkinSpanListenerBenchmark.clientSpan(new TraceKeys()));
+			this.spans.add(converted.last);
+		}
+		this.collector = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		this.collector.createContext("/api/v1/spans", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				try (InputStream body = exchange.getRequestBody()) {
+					while (body.read() != -1)
+						; // skip
+				}
+				exchange.sendResponseHeaders(202, -1);
+				exchange.close();
+			}
+		});
+		this.collector.start();
+		this.reporter = new HttpZipkinSpanReporter(
+				"http://127.0.0.1:" + this.collector.getAddress().getPort(), 0,
+				new NoOpSpanReporterService());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.reporter.close();
+		this.collector.stop(0);
+	}
+
+	@Benchmark
+	public byte[] encode() {
+		return Codec.JSON.writeSpans(this.spans);
+	}
+
+	@Benchmark
+	public HttpZipkinSpanReporter reportAndFlush() {
+		for (zipkin.Span span : this.spans) {
+			this.reporter.report(span);
+		}
+		this.reporter.flush();
+		return this.reporter;
+	}
+}
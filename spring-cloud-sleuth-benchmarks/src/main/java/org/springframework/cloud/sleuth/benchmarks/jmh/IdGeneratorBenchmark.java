@@ -0,0 +1,73 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.cloud.sleuth.benchmarks.jmh;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.sleuth.IdGenerator;
+import org.springframework.cloud.sleuth.id.RandomIdGenerator;
+import org.springframework.cloud.sleuth.id.ThreadLocalRandomIdGenerator;
+
+/**
+ * Throughput of span id generation when many threads start spans at the same time: one
+ * {@link Random} shared by all threads (the former {@code randomForSpanIds} bean) against
+ * the thread local default. Override the thread count with {@code -t}; contention only
+ * shows with as many cores as threads.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class IdGeneratorBenchmark {
+
+	IdGenerator sharedRandom = new RandomIdGenerator(new Random());
+
+	IdGenerator threadLocalRandom = new ThreadLocalRandomIdGenerator();
+
+	IdGenerator threadLocalRandom128 = new ThreadLocalRandomIdGenerator(true);
+
+	@Benchmark
+	public long sharedRandom() {
+		return this.sharedRandom.nextId();
+	}
+
+	@Benchmark
+	public long threadLocalRandom() {
+		return this.threadLocalRandom.nextId();
+	}
+
+	@Benchmark
+	public long threadLocalRandom128BitTraceId() {
+		return this.threadLocalRandom128.nextTraceIdHigh()
+				^ this.threadLocalRandom128.nextId();
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.cloud.sleuth.benchmarks.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.sleuth.Sampler;
+import org.springframework.cloud.sleuth.clock.SystemClock;
+import org.springframework.cloud.sleuth.sampler.AlwaysSampler;
+import org.springframework.cloud.sleuth.sampler.PercentageBasedSampler;
+import org.springframework.cloud.sleuth.sampler.RateLimitingSampler;
+import org.springframework.cloud.sleuth.sampler.SamplerConfiguration;
+
+/**
+ * Throughput of sampling decisions when many threads start traces at the same time. A
+ * rate limit well below the decision rate spends most of the time with an empty bucket,
+ * one close to it keeps taking tokens, which is where threads contend on the bucket.
+ * Compare both with the 50k decisions per second a busy instance makes. Override the
+ * thread count with {@code -t}.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SamplerBenchmark {
+
+	Sampler always = new AlwaysSampler();
+
+	Sampler percentage = new PercentageBasedSampler(percentage(0.001f));
+
+	Sampler rateLimited100 = new RateLimitingSampler(100, SystemClock.INSTANCE);
+
+	Sampler rateLimited50k = new RateLimitingSampler(50000, SystemClock.INSTANCE);
+
+	@Benchmark
+	public boolean always() {
+		return this.always.isSampled();
+	}
+
+	@Benchmark
+	public boolean percentage() {
+		return this.percentage.isSampled();
+	}
+
+	@Benchmark
+	public boolean rateLimited100PerSecond() {
+		return this.rateLimited100.isSampled();
+	}
+
+	@Benchmark
+	public boolean rateLimited50kPerSecond() {
+		return this.rateLimited50k.isSampled();
+	}
+
+	private static SamplerConfiguration percentage(float percentage) {
+		SamplerConfiguration configuration = new SamplerConfiguration();
+		configuration.setPercentage(percentage);
+		return configuration;
+	}
+}
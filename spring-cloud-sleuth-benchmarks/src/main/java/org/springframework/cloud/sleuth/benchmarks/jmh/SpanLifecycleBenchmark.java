@@ -0,0 +1,116 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.benchmarks.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.sleuth.Clock;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.clock.AnchoredClock;
+
+/**
+ * Measures the span end-state transitions: stopping a span, reading its duration and
+ * checking whether it's running. The single threaded benchmarks cover the usual close
+ * and export path, the threaded ones a remote parent span that is shared between
+ * request threads.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SpanLifecycleBenchmark {
+
+	@State(Scope.Thread)
+	public static class ThreadState {
+
+		Clock clock = new AnchoredClock();
+
+		Span stopped;
+
+		@Setup(Level.Iteration)
+		public void setup() {
+			this.stopped = newSpan(this.clock);
+			this.stopped.stop();
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class SharedState {
+
+		Span running;
+
+		Span stopped;
+
+		@Setup(Level.Iteration)
+		public void setup() {
+			Clock clock = new AnchoredClock();
+			this.running = newSpan(clock);
+			this.stopped = newSpan(clock);
+			this.stopped.stop();
+		}
+	}
+
+	@Benchmark
+	public long startStopAndReadDuration(ThreadState state) {
+		Span span = newSpan(state.clock);
+		span.stop();
+		return span.getAccumulatedMicros();
+	}
+
+	@Benchmark
+	public long stopAlreadyStoppedSpan(ThreadState state) {
+		// what the double close in TraceFilter does to the remote parent
+		state.stopped.stop();
+		return state.stopped.getAccumulatedMicros();
+	}
+
+	@Benchmark
+	@Threads(8)
+	public boolean contendedIsRunning(SharedState state) {
+		return state.running.isRunning();
+	}
+
+	@Benchmark
+	@Threads(8)
+	public long contendedStopAndReadDuration(SharedState state) {
+		state.stopped.stop();
+		return state.stopped.getAccumulatedMicros();
+	}
+
+	@Benchmark
+	@Threads(8)
+	public long contendedReadDurationOfRunningSpan(SharedState state) {
+		return state.running.getAccumulatedMicros();
+	}
+
+	static Span newSpan(Clock clock) {
+		return Span.builder().traceId(1L).spanId(2L).name("span").clock(clock).build();
+	}
+}
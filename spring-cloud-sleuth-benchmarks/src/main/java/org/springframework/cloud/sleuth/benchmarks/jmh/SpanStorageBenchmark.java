@@ -0,0 +1,92 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.benchmarks.jmh;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.cloud.sleuth.Clock;
+import org.springframework.cloud.sleuth.Log;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.clock.AnchoredClock;
+import org.springframework.cloud.sleuth.instrument.TraceKeys;
+
+/**
+ * Measures the cost of tagging a span the way the servlet filter does and logging the
+ * RPC events on it. Run with {@code -prof gc} to see the bytes allocated per span.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class SpanStorageBenchmark {
+
+	Clock clock = new AnchoredClock();
+
+	TraceKeys.Http keys = new TraceKeys().getHttp();
+
+	@Benchmark
+	public Span untaggedSpan() {
+		return newSpan();
+	}
+
+	@Benchmark
+	public Span httpTaggedSpan() {
+		Span span = newSpan();
+		tagAndLog(span);
+		return span;
+	}
+
+	@Benchmark
+	public void httpTaggedSpanExported(Blackhole blackhole) {
+		Span span = newSpan();
+		tagAndLog(span);
+		for (Map.Entry<String, String> tag : span.tags().entrySet()) {
+			blackhole.consume(tag.getValue());
+		}
+		for (Log log : span.logs()) {
+			blackhole.consume(log.getTimestampMicros());
+		}
+	}
+
+	private Span newSpan() {
+		return Span.builder().traceId(1L).spanId(2L).name("http/foo").clock(this.clock)
+				.build();
+	}
+
+	private void tagAndLog(Span span) {
+		span.logEvent("sr");
+		span.tag(this.keys.getUrl(), "http://localhost:8080/foo?bar=baz");
+		span.tag(this.keys.getHost(), "localhost");
+		span.tag(this.keys.getPath(), "/foo");
+		span.tag(this.keys.getMethod(), "GET");
+		span.tag(this.keys.getStatusCode(), "200");
+		span.logEvent("ss");
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.benchmarks.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.clock.SystemClock;
+import org.springframework.cloud.sleuth.event.SpanListenerAdapter;
+import org.springframework.cloud.sleuth.id.ThreadLocalRandomIdGenerator;
+import org.springframework.cloud.sleuth.instrument.TraceContextRunnable;
+import org.springframework.cloud.sleuth.instrument.TraceRunnable;
+import org.springframework.cloud.sleuth.sampler.AlwaysSampler;
+import org.springframework.cloud.sleuth.trace.DefaultTracer;
+import org.springframework.cloud.sleuth.trace.SpanContextHolder;
+
+/**
+ * Cost of handing a task over to another thread with a span in scope: wrapping it and
+ * running the wrapper, which is what the executor instrumentation does per task. Both
+ * run on the benchmark thread so that only the tracing work is measured; the
+ * allocated bytes per operation are the memory a queued task costs.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class TaskWrappingBenchmark {
+
+	DefaultTracer tracer;
+
+	Span parent;
+
+	Runnable task;
+
+	@Setup(Level.Iteration)
+	public void setup(Blackhole blackhole) {
+		SpanContextHolder.removeCurrentSpan();
+		this.tracer = new DefaultTracer(new AlwaysSampler(),
+				new ThreadLocalRandomIdGenerator(), new SpanListenerAdapter() {
+				}, SystemClock.INSTANCE, true);
+		this.parent = this.tracer.startTrace("parent");
+		this.task = () -> blackhole.consume(SpanContextHolder.getCurrentSpan());
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown() {
+		SpanContextHolder.removeCurrentSpan();
+	}
+
+	@Benchmark
+	public void traceRunnable() {
+		new TraceRunnable(this.tracer, this.task, "task").run();
+		restoreParent();
+	}
+
+	@Benchmark
+	public void traceContextRunnable() {
+		new TraceContextRunnable(this.tracer.getCurrentTraceContext(), this.task).run();
+		restoreParent();
+	}
+
+	// running a task on the submitting thread clears its context like on a worker thread
+	private void restoreParent() {
+		SpanContextHolder.setCurrentSpan(this.parent);
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.benchmarks.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.clock.SystemClock;
+import org.springframework.cloud.sleuth.event.SpanListenerAdapter;
+import org.springframework.cloud.sleuth.id.ThreadLocalRandomIdGenerator;
+import org.springframework.cloud.sleuth.instrument.TraceKeys;
+import org.springframework.cloud.sleuth.instrument.integration.TraceChannelInterceptor;
+import org.springframework.cloud.sleuth.sampler.AlwaysSampler;
+import org.springframework.cloud.sleuth.trace.DefaultTracer;
+import org.springframework.cloud.sleuth.trace.SpanContextHolder;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+/**
+ * Cost of {@link TraceChannelInterceptor#preSend} followed by
+ * {@link TraceChannelInterceptor#postSend} for a message that starts a new trace, one
+ * sent within a local trace and one that arrives with the span headers of a remote
+ * trace.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class TraceChannelInterceptorBenchmark {
+
+	DefaultTracer tracer = new DefaultTracer(new AlwaysSampler(),
+			new ThreadLocalRandomIdGenerator(), new SpanListenerAdapter() {
+			}, SystemClock.INSTANCE, false);
+
+	TraceChannelInterceptor interceptor = new TraceChannelInterceptor(this.tracer,
+			new TraceKeys(), new ThreadLocalRandomIdGenerator());
+
+	DirectChannel channel = new DirectChannel();
+
+	Message<?> message = MessageBuilder.withPayload("hello").build();
+
+	Message<?> remoteMessage = MessageBuilder.withPayload("hello")
+			.setHeader(Span.TRACE_ID_NAME, Span.toHex(1L))
+			.setHeader(Span.SPAN_ID_NAME, Span.toHex(2L))
+			.setHeader(Span.SPAN_NAME_NAME, "message/orders").build();
+
+	@Setup
+	public void setup() {
+		this.channel.setBeanName("orders");
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown() {
+		SpanContextHolder.removeCurrentSpan();
+	}
+
+	@Benchmark
+	public Message<?> sendNewTrace() {
+		return send(this.message);
+	}
+
+	@Benchmark
+	public Message<?> sendWithinTrace(TracingState state) {
+		return send(this.message);
+	}
+
+	@Benchmark
+	public Message<?> sendContinuingRemoteTrace() {
+		Message<?> sent = send(this.remoteMessage);
+		// the remote parent stays in scope after the child is closed
+		SpanContextHolder.removeCurrentSpan();
+		return sent;
+	}
+
+	private Message<?> send(Message<?> message) {
+		Message<?> sent = this.interceptor.preSend(message, this.channel);
+		this.interceptor.postSend(sent, this.channel, true);
+		return sent;
+	}
+
+	/**
+	 * Keeps a local span in scope so that messages are sent within its trace.
+	 */
+	@State(Scope.Thread)
+	public static class TracingState {
+
+		@Setup(Level.Iteration)
+		public void setup(TraceChannelInterceptorBenchmark benchmark) {
+			benchmark.tracer.startTrace("producer");
+		}
+	}
+}
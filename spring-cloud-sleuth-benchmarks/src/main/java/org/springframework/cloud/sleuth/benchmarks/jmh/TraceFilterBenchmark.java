@@ -0,0 +1,120 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.cloud.sleuth.benchmarks.jmh;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.sleuth.clock.SystemClock;
+import org.springframework.cloud.sleuth.event.SpanListenerAdapter;
+import org.springframework.cloud.sleuth.id.ThreadLocalRandomIdGenerator;
+import org.springframework.cloud.sleuth.instrument.TraceKeys;
+import org.springframework.cloud.sleuth.instrument.web.SkipPatternMatcher;
+import org.springframework.cloud.sleuth.instrument.web.TraceFilter;
+import org.springframework.cloud.sleuth.sampler.AlwaysSampler;
+import org.springframework.cloud.sleuth.trace.DefaultTracer;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Cost of {@link TraceFilter} for a request whose path is skipped and for one that is
+ * traced, and of matching a path against the default skip pattern with the regex and
+ * with the {@link SkipPatternMatcher}. The filter benchmarks include building the mock
+ * request and response.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class TraceFilterBenchmark {
+
+	static final String SKIPPED = "/favicon.ico";
+
+	static final String TRACED = "/api/v1/orders/42";
+
+	static final FilterChain NO_OP_CHAIN = new FilterChain() {
+		@Override
+		public void doFilter(ServletRequest request, ServletResponse response)
+				throws IOException, ServletException {
+		}
+	};
+
+	TraceFilter filter = new TraceFilter(
+			new DefaultTracer(new AlwaysSampler(), new ThreadLocalRandomIdGenerator(),
+					new SpanListenerAdapter() {
+					}, SystemClock.INSTANCE, true), new TraceKeys());
+
+	Pattern skipPattern = TraceFilter.DEFAULT_SKIP_PATTERN;
+
+	SkipPatternMatcher skipPatternMatcher = new SkipPatternMatcher(
+			TraceFilter.DEFAULT_SKIP_PATTERN);
+
+	@Benchmark
+	public MockHttpServletResponse filterSkipped() throws Exception {
+		return filter(SKIPPED);
+	}
+
+	@Benchmark
+	public MockHttpServletResponse filterTraced() throws Exception {
+		return filter(TRACED);
+	}
+
+	@Benchmark
+	public boolean skipRegexSkipped() {
+		return this.skipPattern.matcher(SKIPPED).matches();
+	}
+
+	@Benchmark
+	public boolean skipRegexTraced() {
+		return this.skipPattern.matcher(TRACED).matches();
+	}
+
+	@Benchmark
+	public boolean skipMatcherSkipped() {
+		return this.skipPatternMatcher.matches(SKIPPED);
+	}
+
+	@Benchmark
+	public boolean skipMatcherTraced() {
+		return this.skipPatternMatcher.matches(TRACED);
+	}
+
+	private MockHttpServletResponse filter(String uri) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		this.filter.doFilter(request, response, NO_OP_CHAIN);
+		return response;
+	}
+}
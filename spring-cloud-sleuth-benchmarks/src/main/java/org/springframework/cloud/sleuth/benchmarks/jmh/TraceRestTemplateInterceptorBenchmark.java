@@ -0,0 +1,120 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.benchmarks.jmh;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.sleuth.clock.SystemClock;
+import org.springframework.cloud.sleuth.event.SpanListenerAdapter;
+import org.springframework.cloud.sleuth.id.ThreadLocalRandomIdGenerator;
+import org.springframework.cloud.sleuth.instrument.web.client.TraceRestTemplateInterceptor;
+import org.springframework.cloud.sleuth.sampler.AlwaysSampler;
+import org.springframework.cloud.sleuth.trace.DefaultTracer;
+import org.springframework.cloud.sleuth.trace.SpanContextHolder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+/**
+ * Cost of {@link TraceRestTemplateInterceptor#intercept} and of closing the response it
+ * returns, for a request sent within a trace and for one sent outside of any trace. The
+ * benchmarks include building the mock request and response.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class TraceRestTemplateInterceptorBenchmark {
+
+	static final URI URL = URI.create("http://localhost:8080/api/v1/orders/42");
+
+	static final byte[] BODY = new byte[0];
+
+	static final ClientHttpRequestExecution EXECUTION = new ClientHttpRequestExecution() {
+		@Override
+		public ClientHttpResponse execute(HttpRequest request, byte[] body)
+				throws IOException {
+			return new MockClientHttpResponse(BODY, HttpStatus.OK);
+		}
+	};
+
+	DefaultTracer tracer = new DefaultTracer(new AlwaysSampler(),
+			new ThreadLocalRandomIdGenerator(), new SpanListenerAdapter() {
+			}, SystemClock.INSTANCE, false);
+
+	TraceRestTemplateInterceptor interceptor = new TraceRestTemplateInterceptor(
+			this.tracer);
+
+	@Setup
+	public void setup() {
+		this.interceptor.setSpanListener(new SpanListenerAdapter() {
+		});
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown() {
+		SpanContextHolder.removeCurrentSpan();
+	}
+
+	@Benchmark
+	public MockClientHttpRequest interceptTraced(TracingState state) throws IOException {
+		return intercept();
+	}
+
+	@Benchmark
+	public MockClientHttpRequest interceptNotTracing() throws IOException {
+		return intercept();
+	}
+
+	private MockClientHttpRequest intercept() throws IOException {
+		MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URL);
+		this.interceptor.intercept(request, BODY, EXECUTION).close();
+		return request;
+	}
+
+	/**
+	 * Keeps a span in scope so that requests carry its ids.
+	 */
+	@State(Scope.Thread)
+	public static class TracingState {
+
+		@Setup(Level.Iteration)
+		public void setup(TraceRestTemplateInterceptorBenchmark benchmark) {
+			benchmark.tracer.startTrace("client");
+		}
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.benchmarks.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.clock.SystemClock;
+import org.springframework.cloud.sleuth.event.SpanListenerAdapter;
+import org.springframework.cloud.sleuth.id.ThreadLocalRandomIdGenerator;
+import org.springframework.cloud.sleuth.sampler.AlwaysSampler;
+import org.springframework.cloud.sleuth.trace.DefaultTracer;
+import org.springframework.cloud.sleuth.trace.SpanContextHolder;
+
+/**
+ * Cost of the {@link DefaultTracer} scope operations with a listener that does nothing:
+ * starting and closing a new trace or a local child span, joining a remote parent like
+ * the server side instrumentation does, and continuing and detaching a span like the
+ * executor instrumentation does. Each runs with and without copy-free scoping.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class TracerBenchmark {
+
+	@Param({ "false", "true" })
+	boolean copyFreeScoping;
+
+	DefaultTracer tracer;
+
+	Span remote = Span.builder().traceId(1L).spanId(2L).name("remote").remote(true)
+			.build();
+
+	Span detached;
+
+	@Setup(Level.Iteration)
+	public void setup() {
+		SpanContextHolder.removeCurrentSpan();
+		this.tracer = new DefaultTracer(new AlwaysSampler(),
+				new ThreadLocalRandomIdGenerator(), new SpanListenerAdapter() {
+				}, SystemClock.INSTANCE, this.copyFreeScoping);
+		Span span = this.tracer.startTrace("detached");
+		this.tracer.detach(span);
+		this.detached = span;
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown() {
+		SpanContextHolder.removeCurrentSpan();
+	}
+
+	@Benchmark
+	public Span startAndCloseTrace() {
+		Span span = this.tracer.startTrace("trace");
+		this.tracer.close(span);
+		return span;
+	}
+
+	@Benchmark
+	public Span startAndCloseChild(ChildState state) {
+		Span span = this.tracer.startTrace("child");
+		this.tracer.close(span);
+		return span;
+	}
+
+	@Benchmark
+	public Span joinAndCloseRemoteTrace() {
+		Span span = this.tracer.joinTrace("server", this.remote);
+		// closing the child puts the remote parent back in scope, like in TraceFilter
+		this.tracer.close(this.tracer.close(span));
+		return span;
+	}
+
+	@Benchmark
+	public Span continueAndDetach() {
+		Span span = this.tracer.continueSpan(this.detached);
+		this.tracer.detach(span);
+		return span;
+	}
+
+	/**
+	 * Keeps a local span in scope so that new spans are its children.
+	 */
+	@State(Scope.Thread)
+	public static class ChildState {
+
+		Span root;
+
+		@Setup(Level.Iteration)
+		public void setup(TracerBenchmark benchmark) {
+			this.root = benchmark.tracer.startTrace("root");
+		}
+	}
+}
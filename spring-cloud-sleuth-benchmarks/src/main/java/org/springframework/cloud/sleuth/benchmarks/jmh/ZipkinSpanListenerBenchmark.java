@@ -0,0 +1,103 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.benchmarks.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.instrument.TraceKeys;
+import org.springframework.cloud.sleuth.zipkin.ZipkinSpanListener;
+import org.springframework.cloud.sleuth.zipkin.ZipkinSpanReporter;
+
+import zipkin.Constants;
+import zipkin.Endpoint;
+
+/**
+ * Cost of converting a released span to a Zipkin span in {@link ZipkinSpanListener},
+ * for a local span without tags or logs and for a client span that carries the usual
+ * HTTP tags and the client send and receive events.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ZipkinSpanListenerBenchmark {
+
+	static final Endpoint LOCAL = Endpoint.create("orders", 127 << 24 | 1, 8080);
+
+	LastSpanReporter reporter = new LastSpanReporter();
+
+	ZipkinSpanListener listener = new ZipkinSpanListener(this.reporter, LOCAL);
+
+	Span localSpan = localSpan();
+
+	Span clientSpan = clientSpan(new TraceKeys());
+
+	@Benchmark
+	public zipkin.Span convertLocalSpan() {
+		this.listener.spanReleased(null, this.localSpan);
+		return this.reporter.last;
+	}
+
+	@Benchmark
+	public zipkin.Span convertClientSpan() {
+		this.listener.spanReleased(null, this.clientSpan);
+		return this.reporter.last;
+	}
+
+	static Span localSpan() {
+		Span span = Span.builder().traceId(1L).spanId(2L).parent(1L).name("local")
+				.processId("orders").build();
+		span.stop();
+		return span;
+	}
+
+	static Span clientSpan(TraceKeys keys) {
+		Span span = Span.builder().traceId(1L).spanId(3L).parent(1L)
+				.name("http/api/v1/orders/42").processId("orders").build();
+		span.logEvent(Constants.CLIENT_SEND);
+		span.tag(keys.getHttp().getUrl(), "http://localhost:8080/api/v1/orders/42");
+		span.tag(keys.getHttp().getHost(), "localhost");
+		span.tag(keys.getHttp().getPath(), "/api/v1/orders/42");
+		span.tag(keys.getHttp().getMethod(), "GET");
+		span.tag(keys.getHttp().getPrefix() + "accept", "application/json");
+		span.logEvent(Constants.CLIENT_RECV);
+		span.stop();
+		return span;
+	}
+
+	static final class LastSpanReporter implements ZipkinSpanReporter {
+
+		zipkin.Span last;
+
+		@Override
+		public void report(zipkin.Span span) {
+			this.last = span;
+		}
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.zipkin.stream;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.instrument.TraceKeys;
+import org.springframework.cloud.sleuth.stream.Host;
+import org.springframework.cloud.sleuth.stream.Spans;
+
+import zipkin.Constants;
+import zipkin.Sampler;
+
+/**
+ * Cost of converting and sampling a batch of spans received by the Zipkin stream
+ * collector, with a sampler that keeps every span and one that keeps one in ten. Lives
+ * in the collector's package because the iterator is package private.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class SamplingZipkinSpanIteratorBenchmark {
+
+	@Param({ "1.0", "0.1" })
+	float rate;
+
+	Sampler sampler;
+
+	Spans spans;
+
+	@Setup
+	public void setup() {
+		this.sampler = Sampler.create(this.rate);
+		TraceKeys keys = new TraceKeys();
+		List<Span> spans = new ArrayList<>();
+		for (long id = 1; id <= 100; id++) {
+			Span span = Span.builder().traceId(id * 0x9E3779B97F4A7C15L).spanId(id)
+					.name("http/api/v1/orders/" + id).processId("orders").build();
+			span.logEvent(Constants.SERVER_RECV);
+			span.tag(keys.getHttp().getPath(), "/api/v1/orders/" + id);
+			span.tag(keys.getHttp().getMethod(), "GET");
+			span.logEvent(Constants.SERVER_SEND);
+			span.stop();
+			spans.add(span);
+		}
+		this.spans = new Spans(new Host("orders", "127.0.0.1", 8080), spans);
+	}
+
+	@Benchmark
+	public void convertAndSample(Blackhole blackhole) {
+		Iterator<zipkin.Span> sampled = new SamplingZipkinSpanIterator(this.sampler,
+				this.spans);
+		while (sampled.hasNext()) {
+			blackhole.consume(sampled.next());
+		}
+	}
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth;
+
+/**
+ * Source of time for spans and their logs. Timestamps are epoch microseconds, so that
+ * spans shorter than a millisecond still get a meaningful duration.
+ */
+public interface Clock {
+
+	/**
+	 * The current epoch time in microseconds.
+	 */
+	long currentTimeMicros();
+
+	/**
+	 * A monotonic time reading in nanoseconds. Only meaningful when compared with another
+	 * reading of the same clock.
+	 */
+	long nanoTime();
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.cloud.sleuth;
+
+/**
+ * Source of the ids of new spans and traces. Called for every span that is started, so
+ * implementations should not contend between threads.
+ */
+public interface IdGenerator {
+
+	/**
+	 * A new random span id. A new trace uses the id of its root span as the (low 64 bits
+	 * of the) trace id.
+	 */
+	long nextId();
+
+	/**
+	 * The high 64 bits of the id of a new trace, or 0 when trace ids are 64 bits.
+	 */
+	long nextTraceIdHigh();
+}
@@ -16,20 +16,27 @@
 
 package org.springframework.cloud.sleuth;
 
+import lombok.AccessLevel;
 import lombok.Data;
-import lombok.RequiredArgsConstructor;
+import lombok.Getter;
 
 /**
  * @author Spencer Gibb
  */
 @Data
-@RequiredArgsConstructor
 public class Log {
 	/**
 	 * The epoch timestamp of the log record; often set via {@link System#currentTimeMillis()}.
 	 */
 	private final long timestamp;
 
+	/**
+	 * The epoch timestamp of the log record in microseconds. Logs read from spans of
+	 * older versions only carry a millisecond {@link #timestamp}.
+	 */
+	@Getter(AccessLevel.NONE)
+	private final long timestampMicros;
+
 	/**
 	 * Event (if not null) should be the stable name of some notable moment in the lifetime of a Span.
 	 * For instance, a Span representing a browser page load might add an Event for each of the
@@ -41,9 +48,27 @@ public class Log {
 	 */
 	private final String event;
 
+	public Log(long timestamp, String event) {
+		this(timestamp, timestamp * 1000, event);
+	}
+
+	Log(long timestamp, long timestampMicros, String event) {
+		this.timestamp = timestamp;
+		this.timestampMicros = timestampMicros;
+		this.event = event;
+	}
+
 	@SuppressWarnings("unused")
 	private Log() {
 		this.timestamp = 0;
+		this.timestampMicros = 0;
 		this.event = null;
 	}
+
+	/**
+	 * The epoch timestamp of the log record in microseconds.
+	 */
+	public long getTimestampMicros() {
+		return this.timestampMicros != 0 ? this.timestampMicros : this.timestamp * 1000;
+	}
 }
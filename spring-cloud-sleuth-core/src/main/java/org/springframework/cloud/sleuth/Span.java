@@ -16,19 +16,21 @@
 
 package org.springframework.cloud.sleuth;
 
-import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.Supplier;
 
+import org.springframework.cloud.sleuth.clock.AnchoredClock;
+import org.springframework.cloud.sleuth.clock.SystemClock;
 import org.springframework.util.Assert;
 
-import lombok.Builder;
-import lombok.Getter;
-import lombok.Singular;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 /**
  * Class for gathering and reporting statistics about a block of execution.
@@ -36,6 +38,10 @@ import lombok.Singular;
  * Spans should form a directed acyclic graph structure. It should be possible to keep
  * following the parents of a span until you arrive at a span with no parents.
  * <p/>
+ * A span can be in scope on several threads at once, e.g. on the workers of a fork/join
+ * section, so tags and logs can be added concurrently. They are meant to be read once
+ * the span is stopped.
+ * <p/>
  *
  * @author Spencer Gibb
  * @author Marcin Grzejszczak
@@ -45,8 +51,6 @@ import lombok.Singular;
  * like scoped tracers. Sleuth spans are DTOs, whose sole responsibility is the current
  * span in the trace tree.
  */
-@Builder(toBuilder = true)
-@Getter
 public class Span {
 
 	public static final String NOT_SAMPLED_NAME = "X-Not-Sampled";
@@ -59,38 +63,80 @@ public class Span {
 			SPAN_NAME_NAME, PARENT_ID_NAME, PROCESS_ID_NAME, NOT_SAMPLED_NAME);
 	public static final String SPAN_EXPORT_NAME = "X-Span-Export";
 
-	private final long begin;
-	private long end = 0;
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private static final AtomicLongFieldUpdater<Span> END_MICROS = AtomicLongFieldUpdater
+			.newUpdater(Span.class, "endMicros");
+
+	private long beginMicros;
+	private volatile long endMicros = 0;
 	private final String name;
 	private final long traceId;
-	@Singular
-	private List<Long> parents = new ArrayList<>();
+	private final long traceIdHigh;
+	private long parentId;
+	private boolean hasParent;
+	// only allocated for spans with more than one parent
+	private long[] additionalParents;
 	private final long spanId;
 	private boolean remote = false;
 	private boolean exportable = true;
-	private final Map<String, String> tags = new LinkedHashMap<>();
+	private SpanTags tags;
 	private final String processId;
-	@Singular
-	private final List<Log> logs = new ArrayList<>();
+	private SpanLogs logs;
 	private final Span savedSpan;
+	private final Clock clock;
+	// hex representations of the ids, formatted at most once per span
+	private String traceIdHex;
+	private String spanIdHex;
+	private String parentIdHex;
+
+	public static SpanBuilder builder() {
+		return new SpanBuilder();
+	}
 
-	public static Span.SpanBuilder builder() {
-		return new Span().toBuilder();
+	/**
+	 * Creates a builder pre-populated with the state of this span (tags and logs are not
+	 * copied).
+	 */
+	public SpanBuilder toBuilder() {
+		SpanBuilder builder = new SpanBuilder().beginMicros(this.beginMicros)
+				.endMicros(this.endMicros).name(this.name).traceId(this.traceId)
+				.traceIdHigh(this.traceIdHigh)
+				.spanId(this.spanId).remote(this.remote).exportable(this.exportable)
+				.processId(this.processId).savedSpan(this.savedSpan).clock(this.clock);
+		if (this.hasParent) {
+			builder.parent(this.parentId);
+		}
+		if (this.additionalParents != null) {
+			for (long parent : this.additionalParents) {
+				builder.parent(parent);
+			}
+		}
+		return builder;
 	}
 
 	public Span(Span current, Span savedSpan) {
-		this.begin = current.getBegin();
-		this.end = current.getEnd();
+		this.beginMicros = current.getBeginMicros();
+		this.endMicros = current.getEndMicros();
 		this.name = current.getName();
 		this.traceId = current.getTraceId();
-		this.parents = current.getParents();
+		this.traceIdHigh = current.getTraceIdHigh();
+		this.parentId = current.parentId;
+		this.hasParent = current.hasParent;
+		this.additionalParents = current.additionalParents;
 		this.spanId = current.getSpanId();
 		this.remote = current.isRemote();
 		this.exportable = current.isExportable();
 		this.processId = current.getProcessId();
-		this.tags.putAll(current.tags());
-		this.logs.addAll(current.logs());
+		synchronized (current) {
+			this.tags = current.tags != null ? current.tags.copy() : null;
+			this.logs = current.logs != null ? current.logs.copy() : null;
+		}
 		this.savedSpan = savedSpan;
+		this.clock = current.clock;
+		this.traceIdHex = current.traceIdHex;
+		this.spanIdHex = current.spanIdHex;
+		this.parentIdHex = current.parentIdHex;
 	}
 
 	public Span(long begin, long end, String name, long traceId, List<Long> parents,
@@ -102,11 +148,13 @@ public class Span {
 	public Span(long begin, long end, String name, long traceId, List<Long> parents,
 			long spanId, boolean remote, boolean exportable, String processId,
 			Span savedSpan) {
-		this.begin = begin <= 0 ? System.currentTimeMillis() : begin;
-		this.end = end;
+		this.clock = new AnchoredClock();
+		this.beginMicros = begin <= 0 ? this.clock.currentTimeMicros() : begin * 1000;
+		this.endMicros = end * 1000;
 		this.name = name;
 		this.traceId = traceId;
-		this.parents = parents;
+		this.traceIdHigh = 0;
+		setParents(parents);
 		this.spanId = spanId;
 		this.remote = remote;
 		this.exportable = exportable;
@@ -114,63 +162,160 @@ public class Span {
 		this.savedSpan = savedSpan;
 	}
 
+	private Span(SpanBuilder builder) {
+		this.clock = builder.clock != null ? builder.clock : new AnchoredClock();
+		this.beginMicros = builder.beginMicros <= 0 ? this.clock.currentTimeMicros()
+				: builder.beginMicros;
+		this.endMicros = builder.endMicros;
+		this.name = builder.name;
+		this.traceId = builder.traceId;
+		this.traceIdHigh = builder.traceIdHigh;
+		this.parentId = builder.parentId;
+		this.hasParent = builder.hasParent;
+		if (builder.additionalParents != null && !builder.additionalParents.isEmpty()) {
+			this.additionalParents = new long[builder.additionalParents.size()];
+			for (int i = 0; i < this.additionalParents.length; i++) {
+				this.additionalParents[i] = builder.additionalParents.get(i);
+			}
+		}
+		this.spanId = builder.spanId;
+		this.remote = builder.remote;
+		this.exportable = builder.exportable;
+		this.processId = builder.processId;
+		this.savedSpan = builder.savedSpan;
+	}
+
 	// for serialization
 	private Span() {
-		this.begin = 0;
 		this.name = null;
 		this.traceId = 0;
+		this.traceIdHigh = 0;
 		this.spanId = 0;
 		this.processId = null;
-		this.parents = new ArrayList<>();
 		this.savedSpan = null;
+		this.clock = SystemClock.INSTANCE;
 	}
 
 	/**
-	 * The block has completed, stop the clock
+	 * The block has completed, stop the clock. Only the first call has an effect, also
+	 * when the span is stopped from several threads at once. Deferred tags are resolved
+	 * by the thread that stops the span, before it is handed to exporters.
 	 */
-	public synchronized void stop() {
-		if (this.end == 0) {
-			if (this.begin == 0) {
+	public void stop() {
+		if (this.endMicros == 0) {
+			if (this.beginMicros == 0) {
 				throw new IllegalStateException(
 						"Span for " + this.name + " has not been started");
 			}
-			this.end = System.currentTimeMillis();
+			if (END_MICROS.compareAndSet(this, 0, this.clock.currentTimeMicros())) {
+				synchronized (this) {
+					if (this.tags != null) {
+						this.tags.resolve();
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * A copy of this span as it is now, stopped at the current time if it is still
+	 * running, for listeners that read the span on another thread while it goes on.
+	 * Deferred tags are resolved first if this span owns them, otherwise they are copied
+	 * as they read now.
+	 */
+	public Span snapshot() {
+		Span snapshot = new Span(this, this.savedSpan);
+		synchronized (this) {
+			if (this.tags != null) {
+				snapshot.tags = this.tags.snapshot();
+			}
+		}
+		if (snapshot.endMicros == 0 && snapshot.beginMicros != 0) {
+			snapshot.endMicros = this.clock.currentTimeMicros();
 		}
+		return snapshot;
 	}
 
 	/**
 	 * Return the total amount of time elapsed since start was called, if running, or
 	 * difference between stop and start
 	 */
-	public synchronized long getAccumulatedMillis() {
-		if (this.begin == 0) {
+	public long getAccumulatedMillis() {
+		return getAccumulatedMicros() / 1000;
+	}
+
+	/**
+	 * Return the total amount of time elapsed since start was called, if running, or
+	 * difference between stop and start, in microseconds
+	 */
+	public long getAccumulatedMicros() {
+		if (this.beginMicros == 0) {
 			return 0;
 		}
-		if (this.end > 0) {
-			return this.end - this.begin;
+		long end = this.endMicros;
+		if (end > 0) {
+			return end - this.beginMicros;
 		}
-		return System.currentTimeMillis() - this.begin;
+		return this.clock.currentTimeMicros() - this.beginMicros;
 	}
 
 	/**
 	 * Has the span been started and not yet stopped?
 	 */
-	public synchronized boolean isRunning() {
-		return this.begin != 0 && this.end == 0;
+	public boolean isRunning() {
+		return this.beginMicros != 0 && this.endMicros == 0;
 	}
 
 	/**
-	 * Add a tag or data annotation associated with this span
+	 * Add a tag or data annotation associated with this span. Ignored if the span is not
+	 * exportable since nothing will read it.
 	 */
 	public void tag(String key, String value) {
-		this.tags.put(key, value);
+		if (!this.exportable) {
+			return;
+		}
+		synchronized (this) {
+			if (this.tags == null) {
+				this.tags = new SpanTags();
+			}
+			this.tags.tag(key, value);
+		}
+	}
+
+	/**
+	 * Add a tag whose value is only computed when the span is stopped or its tags are
+	 * read. Ignored if the span is not exportable, in which case the supplier is never
+	 * called. The supplier may capture state that is only valid until the span is
+	 * stopped (e.g. the current request): copies of the span, e.g. the ones that put it
+	 * in scope on other threads, don't call it when their tags are read.
+	 */
+	public void tag(String key, Supplier<String> value) {
+		if (!this.exportable) {
+			return;
+		}
+		synchronized (this) {
+			if (this.tags == null) {
+				this.tags = new SpanTags();
+			}
+			this.tags.tag(key, value);
+		}
 	}
 
 	/**
-	 * Add an {@link Log#event event} to the timeline associated with this span.
+	 * Add an {@link Log#event event} to the timeline associated with this span. Ignored
+	 * if the span is not exportable.
 	 */
 	public void logEvent(String event) {
-		this.logs.add(new Log(System.currentTimeMillis(), event));
+		if (!this.exportable) {
+			return;
+		}
+		long timestampMicros = this.clock.currentTimeMicros();
+		synchronized (this) {
+			if (this.logs == null) {
+				this.logs = new SpanLogs();
+			}
+			this.logs.log(timestampMicros, event);
+		}
 	}
 
 	/**
@@ -180,7 +325,9 @@ public class Span {
 	 * Will never be null.
 	 */
 	public Map<String, String> tags() {
-		return Collections.unmodifiableMap(this.tags);
+		synchronized (this) {
+			return this.tags != null ? this.tags : Collections.<String, String>emptyMap();
+		}
 	}
 
 	/**
@@ -190,7 +337,44 @@ public class Span {
 	 * Will never be null.
 	 */
 	public List<Log> logs() {
-		return Collections.unmodifiableList(this.logs);
+		synchronized (this) {
+			return this.logs != null ? this.logs : Collections.<Log>emptyList();
+		}
+	}
+
+	/**
+	 * Same as {@link #tags()}.
+	 */
+	public Map<String, String> getTags() {
+		return tags();
+	}
+
+	/**
+	 * Same as {@link #logs()}.
+	 */
+	public List<Log> getLogs() {
+		return logs();
+	}
+
+	// for deserialization
+	@SuppressWarnings("unused")
+	private void setTags(Map<String, String> tags) {
+		if (this.tags == null && !tags.isEmpty()) {
+			this.tags = new SpanTags();
+		}
+		for (Map.Entry<String, String> entry : tags.entrySet()) {
+			this.tags.tag(entry.getKey(), entry.getValue());
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private void setLogs(List<Log> logs) {
+		if (this.logs == null && !logs.isEmpty()) {
+			this.logs = new SpanLogs();
+		}
+		for (Log log : logs) {
+			this.logs.log(log.getTimestampMicros(), log.getEvent());
+		}
 	}
 
 	/**
@@ -232,6 +416,56 @@ public class Span {
 		return this.traceId;
 	}
 
+	/**
+	 * The high 64 bits of a 128-bit trace id, 0 if the trace id has 64 bits.
+	 */
+	@JsonInclude(JsonInclude.Include.NON_DEFAULT)
+	public long getTraceIdHigh() {
+		return this.traceIdHigh;
+	}
+
+	/**
+	 * The {@link #getTraceId() trace id} as a hex string, 32 characters long for 128-bit
+	 * trace ids. Formatted once and cached.
+	 */
+	public String traceIdHex() {
+		String hex = this.traceIdHex;
+		if (hex == null) {
+			hex = this.traceIdHigh == 0 ? toHex(this.traceId)
+					: toHex(this.traceIdHigh, this.traceId);
+			this.traceIdHex = hex;
+		}
+		return hex;
+	}
+
+	/**
+	 * The {@link #getSpanId() span id} as a hex string. Formatted once and cached.
+	 */
+	public String spanIdHex() {
+		String hex = this.spanIdHex;
+		if (hex == null) {
+			hex = toHex(this.spanId);
+			this.spanIdHex = hex;
+		}
+		return hex;
+	}
+
+	/**
+	 * The {@link #getParentId() parent id} as a hex string or null if the span has no
+	 * parent. Formatted once and cached.
+	 */
+	public String parentIdHex() {
+		if (!this.hasParent) {
+			return null;
+		}
+		String hex = this.parentIdHex;
+		if (hex == null) {
+			hex = toHex(this.parentId);
+			this.parentIdHex = hex;
+		}
+		return hex;
+	}
+
 	/**
 	 * Return a unique id for the process from which this Span originated.
 	 * <p>
@@ -246,10 +480,79 @@ public class Span {
 	 * Returns the parent IDs of the span.
 	 * <p>
 	 * <p>
-	 * The collection will be empty if there are no parents.
+	 * The collection will be empty if there are no parents. Prefer {@link #hasParent()}
+	 * and {@link #getParentId()}, which don't create the collection.
 	 */
 	public List<Long> getParents() {
-		return this.parents;
+		if (!this.hasParent) {
+			return Collections.emptyList();
+		}
+		if (this.additionalParents == null) {
+			return Collections.singletonList(this.parentId);
+		}
+		List<Long> parents = new ArrayList<>(1 + this.additionalParents.length);
+		parents.add(this.parentId);
+		for (long parent : this.additionalParents) {
+			parents.add(parent);
+		}
+		return Collections.unmodifiableList(parents);
+	}
+
+	/**
+	 * Does the span have a parent?
+	 */
+	public boolean hasParent() {
+		return this.hasParent;
+	}
+
+	/**
+	 * Is the span with the given id one of the parents of this span?
+	 */
+	public boolean hasParent(long spanId) {
+		if (!this.hasParent) {
+			return false;
+		}
+		if (this.parentId == spanId) {
+			return true;
+		}
+		if (this.additionalParents != null) {
+			for (long parent : this.additionalParents) {
+				if (parent == spanId) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Does the span have more than one parent? Only then {@link #getParents()} has more
+	 * than the {@link #getParentId() parent id}.
+	 */
+	public boolean hasMultipleParents() {
+		return this.additionalParents != null;
+	}
+
+	/**
+	 * Returns the id of the (first) parent of the span. Only meaningful if
+	 * {@link #hasParent()}.
+	 */
+	@JsonIgnore
+	public long getParentId() {
+		return this.parentId;
+	}
+
+	// for deserialization, also used by the constructors taking a list
+	private void setParents(List<Long> parents) {
+		this.hasParent = parents != null && !parents.isEmpty();
+		this.parentId = this.hasParent ? parents.get(0) : 0;
+		this.additionalParents = null;
+		if (this.hasParent && parents.size() > 1) {
+			this.additionalParents = new long[parents.size() - 1];
+			for (int i = 1; i < parents.size(); i++) {
+				this.additionalParents[i - 1] = parents.get(i);
+			}
+		}
 	}
 
 	/**
@@ -264,14 +567,51 @@ public class Span {
 	 * Get the start time, in milliseconds
 	 */
 	public long getBegin() {
-		return this.begin;
+		return this.beginMicros / 1000;
 	}
 
 	/**
 	 * Get the stop time, in milliseconds
 	 */
 	public long getEnd() {
-		return this.end;
+		return this.endMicros / 1000;
+	}
+
+	/**
+	 * Get the start time, in epoch microseconds
+	 */
+	public long getBeginMicros() {
+		return this.beginMicros;
+	}
+
+	/**
+	 * Get the stop time, in epoch microseconds
+	 */
+	public long getEndMicros() {
+		return this.endMicros;
+	}
+
+	/**
+	 * The clock used to stamp this span. Spans of the same trace started by the tracer in
+	 * this process share the clock.
+	 */
+	public Clock clock() {
+		return this.clock;
+	}
+
+	// for deserialization of spans that only carry millisecond timestamps
+	@SuppressWarnings("unused")
+	private void setBegin(long begin) {
+		if (this.beginMicros == 0) {
+			this.beginMicros = begin * 1000;
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private void setEnd(long end) {
+		if (this.endMicros == 0) {
+			this.endMicros = end * 1000;
+		}
 	}
 
 	/**
@@ -289,17 +629,85 @@ public class Span {
 		return Long.toHexString(id);
 	}
 
+	/**
+	 * Represents the given 128-bit id as a 32 character hex string
+	 */
+	public static String toHex(long high, long low) {
+		char[] chars = new char[32];
+		writeHex(high, chars, 0);
+		writeHex(low, chars, 16);
+		return new String(chars);
+	}
+
+	private static void writeHex(long value, char[] chars, int offset) {
+		for (int i = offset + 15; i >= offset; i--) {
+			chars[i] = HEX_DIGITS[(int) (value & 0xf)];
+			value >>>= 4;
+		}
+	}
+
 	/**
 	 * Represents hex string as long
 	 */
 	public static long fromHex(String hexString) {
 		Assert.hasText(hexString, "Can't convert empty hex string to long");
-		return new BigInteger(hexString, 16).longValue();
+		int length = hexString.length();
+		int start = 0;
+		char sign = hexString.charAt(0);
+		if (sign == '-' || sign == '+') {
+			if (length == 1) {
+				throw invalidHex(hexString);
+			}
+			start = 1;
+		}
+		// like BigInteger.longValue() only the low 64 bits of longer values are kept
+		int lowBits = Math.max(start, length - 16);
+		for (int i = start; i < lowBits; i++) {
+			hexDigit(hexString, i);
+		}
+		long result = 0;
+		for (int i = lowBits; i < length; i++) {
+			result = (result << 4) | hexDigit(hexString, i);
+		}
+		return sign == '-' ? -result : result;
+	}
+
+	/**
+	 * Returns the high 64 bits of a 128-bit hex id, 0 if the hex string has no more than
+	 * 16 digits. {@link #fromHex(String)} returns the low 64 bits.
+	 */
+	public static long highBitsFromHex(String hexString) {
+		Assert.hasText(hexString, "Can't convert empty hex string to long");
+		int length = hexString.length();
+		long result = 0;
+		for (int i = Math.max(0, length - 32); i < length - 16; i++) {
+			result = (result << 4) | hexDigit(hexString, i);
+		}
+		return result;
+	}
+
+	private static int hexDigit(String hexString, int index) {
+		char c = hexString.charAt(index);
+		if (c >= '0' && c <= '9') {
+			return c - '0';
+		}
+		if (c >= 'a' && c <= 'f') {
+			return c - 'a' + 10;
+		}
+		if (c >= 'A' && c <= 'F') {
+			return c - 'A' + 10;
+		}
+		throw invalidHex(hexString);
+	}
+
+	private static NumberFormatException invalidHex(String hexString) {
+		return new NumberFormatException(
+				"For input string: \"" + hexString + "\" under radix 16");
 	}
 
 	@Override
 	public String toString() {
-		return "[Trace: " + toHex(this.traceId) + ", Span: " + toHex(this.spanId) + ", exportable=" + this.exportable + "]";
+		return "[Trace: " + traceIdHex() + ", Span: " + spanIdHex() + ", exportable=" + this.exportable + "]";
 	}
 
 	@Override
@@ -308,6 +716,7 @@ public class Span {
 		int result = 1;
 		result = prime * result + (int) (this.spanId ^ (this.spanId >>> 32));
 		result = prime * result + (int) (this.traceId ^ (this.traceId >>> 32));
+		result = prime * result + (int) (this.traceIdHigh ^ (this.traceIdHigh >>> 32));
 		return result;
 	}
 
@@ -324,6 +733,145 @@ public class Span {
 			return false;
 		if (this.traceId != other.traceId)
 			return false;
+		if (this.traceIdHigh != other.traceIdHigh)
+			return false;
 		return true;
 	}
+
+	/**
+	 * Builder for {@link Span}. Spans are exportable unless stated otherwise.
+	 */
+	public static class SpanBuilder {
+
+		private long beginMicros;
+		private long endMicros;
+		private String name;
+		private long traceId;
+		private long traceIdHigh;
+		private long parentId;
+		private boolean hasParent;
+		private List<Long> additionalParents;
+		private long spanId;
+		private boolean remote;
+		private boolean exportable = true;
+		private String processId;
+		private Span savedSpan;
+		private Clock clock;
+
+		SpanBuilder() {
+		}
+
+		public SpanBuilder begin(long begin) {
+			this.beginMicros = begin * 1000;
+			return this;
+		}
+
+		public SpanBuilder end(long end) {
+			this.endMicros = end * 1000;
+			return this;
+		}
+
+		public SpanBuilder beginMicros(long beginMicros) {
+			this.beginMicros = beginMicros;
+			return this;
+		}
+
+		public SpanBuilder endMicros(long endMicros) {
+			this.endMicros = endMicros;
+			return this;
+		}
+
+		public SpanBuilder name(String name) {
+			this.name = name;
+			return this;
+		}
+
+		public SpanBuilder traceId(long traceId) {
+			this.traceId = traceId;
+			return this;
+		}
+
+		public SpanBuilder traceIdHigh(long traceIdHigh) {
+			this.traceIdHigh = traceIdHigh;
+			return this;
+		}
+
+		public SpanBuilder parent(long parent) {
+			if (!this.hasParent) {
+				this.parentId = parent;
+				this.hasParent = true;
+			}
+			else {
+				if (this.additionalParents == null) {
+					this.additionalParents = new ArrayList<>(1);
+				}
+				this.additionalParents.add(parent);
+			}
+			return this;
+		}
+
+		public SpanBuilder parents(Collection<? extends Long> parents) {
+			for (Long parent : parents) {
+				parent(parent);
+			}
+			return this;
+		}
+
+		public SpanBuilder clearParents() {
+			this.parentId = 0;
+			this.hasParent = false;
+			this.additionalParents = null;
+			return this;
+		}
+
+		public SpanBuilder spanId(long spanId) {
+			this.spanId = spanId;
+			return this;
+		}
+
+		public SpanBuilder remote(boolean remote) {
+			this.remote = remote;
+			return this;
+		}
+
+		public SpanBuilder exportable(boolean exportable) {
+			this.exportable = exportable;
+			return this;
+		}
+
+		public SpanBuilder processId(String processId) {
+			this.processId = processId;
+			return this;
+		}
+
+		public SpanBuilder savedSpan(Span savedSpan) {
+			this.savedSpan = savedSpan;
+			return this;
+		}
+
+		/**
+		 * The clock to stamp the span with. If not set, a new {@link AnchoredClock} is
+		 * used.
+		 */
+		public SpanBuilder clock(Clock clock) {
+			this.clock = clock;
+			return this;
+		}
+
+		public Span build() {
+			return new Span(this);
+		}
+
+		@Override
+		public String toString() {
+			return "Span.SpanBuilder(beginMicros=" + this.beginMicros + ", endMicros="
+					+ this.endMicros
+					+ ", name=" + this.name + ", traceId=" + this.traceId + ", traceIdHigh="
+					+ this.traceIdHigh + ", parentId="
+					+ (this.hasParent ? this.parentId : null) + ", additionalParents="
+					+ this.additionalParents + ", spanId=" + this.spanId + ", remote="
+					+ this.remote + ", exportable=" + this.exportable + ", processId="
+					+ this.processId + ", savedSpan=" + this.savedSpan + ")";
+		}
+	}
 }
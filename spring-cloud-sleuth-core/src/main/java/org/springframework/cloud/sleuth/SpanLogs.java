@@ -0,0 +1,81 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Compact log storage of a {@link Span}: timestamps live in a primitive array next to an
+ * array of event names. {@link Log} instances are only created when the logs are read,
+ * which usually happens once, on export.
+ * <p>
+ * The instance is also the read only {@link java.util.List} view of the logs.
+ */
+final class SpanLogs extends AbstractList<Log> implements RandomAccess {
+
+	private static final int INITIAL_CAPACITY = 4;
+
+	private long[] timestampsMicros;
+
+	private String[] events;
+
+	private int size;
+
+	SpanLogs() {
+		this(INITIAL_CAPACITY);
+	}
+
+	private SpanLogs(int capacity) {
+		this.timestampsMicros = new long[capacity];
+		this.events = new String[capacity];
+	}
+
+	void log(long timestampMicros, String event) {
+		if (this.size == this.events.length) {
+			this.timestampsMicros = Arrays.copyOf(this.timestampsMicros, this.size << 1);
+			this.events = Arrays.copyOf(this.events, this.size << 1);
+		}
+		this.timestampsMicros[this.size] = timestampMicros;
+		this.events[this.size] = event;
+		this.size++;
+	}
+
+	SpanLogs copy() {
+		SpanLogs copy = new SpanLogs(Math.max(this.size, INITIAL_CAPACITY));
+		System.arraycopy(this.timestampsMicros, 0, copy.timestampsMicros, 0, this.size);
+		System.arraycopy(this.events, 0, copy.events, 0, this.size);
+		copy.size = this.size;
+		return copy;
+	}
+
+	@Override
+	public Log get(int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException(
+					"Index: " + index + ", Size: " + this.size);
+		}
+		long timestampMicros = this.timestampsMicros[index];
+		return new Log(timestampMicros / 1000, timestampMicros, this.events[index]);
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Compact tag storage of a {@link Span}: keys and values live in two parallel arrays in
+ * insertion order. Spans carry a handful of tags whose keys are mostly the same
+ * {@link String} instances (e.g. the ones from
+ * {@link org.springframework.cloud.sleuth.instrument.TraceKeys}), so keys are compared by
+ * identity before falling back to {@code equals}.
+ * <p>
+ * A value can also be a {@link Supplier} that is called the first time the value is read
+ * or when {@link #resolve()} is called, whichever happens first, and then replaced by its
+ * result. A {@link #copy()} shares the supplier with the original so that it's called at
+ * most once, but reading the copy doesn't call it: the copy typically puts the span in
+ * scope on another thread, where whatever the supplier captured (e.g. the request) must
+ * not be touched. Until the original is stopped or read, such values read as
+ * {@code null} through the copy. Stopping the copy resolves them, as the stopping thread
+ * then owns it.
+ * <p>
+ * The instance is also the read only {@link Map} view of the tags.
+ */
+final class SpanTags extends AbstractMap<String, String> {
+
+	private static final int INITIAL_CAPACITY = 4;
+
+	private String[] keys;
+
+	private Object[] values;
+
+	private int size;
+
+	// whether reading calls the suppliers, false for copies
+	private final boolean owner;
+
+	SpanTags() {
+		this(INITIAL_CAPACITY, true);
+	}
+
+	private SpanTags(int capacity, boolean owner) {
+		this.keys = new String[capacity];
+		this.values = new Object[capacity];
+		this.owner = owner;
+	}
+
+	/**
+	 * @param value either the {@link String} value or a {@link Supplier} of it
+	 */
+	void tag(String key, Object value) {
+		if (value instanceof Supplier) {
+			value = new Deferred((Supplier<?>) value);
+		}
+		int index = indexOf(key);
+		if (index >= 0) {
+			this.values[index] = value;
+			return;
+		}
+		if (this.size == this.keys.length) {
+			this.keys = Arrays.copyOf(this.keys, this.size << 1);
+			this.values = Arrays.copyOf(this.values, this.size << 1);
+		}
+		this.keys[this.size] = key;
+		this.values[this.size] = value;
+		this.size++;
+	}
+
+	/**
+	 * Replace all deferred values by the result of their supplier.
+	 */
+	void resolve() {
+		for (int i = 0; i < this.size; i++) {
+			Object value = this.values[i];
+			if (value instanceof Deferred) {
+				this.values[i] = ((Deferred) value).get();
+			}
+		}
+	}
+
+	/**
+	 * Deferred values are left for the original to resolve, see the class comment.
+	 */
+	SpanTags copy() {
+		SpanTags copy = new SpanTags(Math.max(this.size, INITIAL_CAPACITY), false);
+		System.arraycopy(this.keys, 0, copy.keys, 0, this.size);
+		System.arraycopy(this.values, 0, copy.values, 0, this.size);
+		copy.size = this.size;
+		return copy;
+	}
+
+	/**
+	 * A copy of the values as they read now, without deferred ones.
+	 */
+	SpanTags snapshot() {
+		SpanTags snapshot = new SpanTags(Math.max(this.size, INITIAL_CAPACITY), true);
+		System.arraycopy(this.keys, 0, snapshot.keys, 0, this.size);
+		for (int i = 0; i < this.size; i++) {
+			snapshot.values[i] = value(i);
+		}
+		snapshot.size = this.size;
+		return snapshot;
+	}
+
+	private String value(int index) {
+		Object value = this.values[index];
+		if (value instanceof Deferred) {
+			Deferred deferred = (Deferred) value;
+			if (!this.owner) {
+				return deferred.peek();
+			}
+			value = deferred.get();
+			this.values[index] = value;
+		}
+		return (String) value;
+	}
+
+	private int indexOf(Object key) {
+		for (int i = 0; i < this.size; i++) {
+			if (this.keys[i] == key) {
+				return i;
+			}
+		}
+		if (key != null) {
+			for (int i = 0; i < this.size; i++) {
+				if (key.equals(this.keys[i])) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return indexOf(key) >= 0;
+	}
+
+	@Override
+	public String get(Object key) {
+		int index = indexOf(key);
+		return index >= 0 ? value(index) : null;
+	}
+
+	@Override
+	public Set<Entry<String, String>> entrySet() {
+		return new AbstractSet<Entry<String, String>>() {
+			@Override
+			public Iterator<Entry<String, String>> iterator() {
+				return new Iterator<Entry<String, String>>() {
+
+					private int index;
+
+					@Override
+					public boolean hasNext() {
+						return this.index < SpanTags.this.size;
+					}
+
+					@Override
+					public Entry<String, String> next() {
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+						int i = this.index++;
+						return new SimpleImmutableEntry<>(SpanTags.this.keys[i],
+								value(i));
+					}
+
+					@Override
+					public void remove() {
+						throw new UnsupportedOperationException("remove");
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return SpanTags.this.size;
+			}
+		};
+	}
+
+	/**
+	 * A deferred value, shared by a span and its copies.
+	 */
+	private static final class Deferred {
+
+		private Supplier<?> supplier;
+
+		private volatile String value;
+
+		Deferred(Supplier<?> supplier) {
+			this.supplier = supplier;
+		}
+
+		synchronized String get() {
+			if (this.supplier != null) {
+				this.value = (String) this.supplier.get();
+				this.supplier = null;
+			}
+			return this.value;
+		}
+
+		String peek() {
+			return this.value;
+		}
+	}
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth;
+
+/**
+ * {@link Sampler} that decides on the id of the trace that is about to start, so that
+ * every service that samples the same trace id comes to the same decision.
+ */
+public interface TraceIdSampler extends Sampler {
+
+	/**
+	 * Whether the trace with the given (low 64 bits of the) trace id should be sampled.
+	 */
+	boolean isSampled(long traceId);
+}
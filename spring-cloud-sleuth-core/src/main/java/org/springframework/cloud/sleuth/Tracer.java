@@ -17,6 +17,7 @@
 package org.springframework.cloud.sleuth;
 
 import java.util.concurrent.Callable;
+import java.util.function.Supplier;
 
 /**
  * The TraceManager class is the primary way for instrumentation code (note user code) to
@@ -87,6 +88,13 @@ public interface Tracer extends SpanAccessor {
 	 */
 	void addTag(String key, String value);
 
+	/**
+	 * Adds a tag to the current span if tracing is currently on and the span is
+	 * exportable. The value is only computed when the span is stopped, so the work is
+	 * skipped entirely for spans that are not exported.
+	 */
+	void addTag(String key, Supplier<String> value);
+
 	/**
 	 * Remove this span from the current thread, but don't stop it yet or send it for
 	 * collection. This is useful if the span object is then passed to another thread for
@@ -16,26 +16,64 @@
 
 package org.springframework.cloud.sleuth.autoconfig;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.sleuth.Clock;
+import org.springframework.cloud.sleuth.IdGenerator;
 import org.springframework.cloud.sleuth.Sampler;
 import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.clock.SystemClock;
+import org.springframework.cloud.sleuth.event.ApplicationEventSpanListener;
+import org.springframework.cloud.sleuth.event.AsyncSpanListener;
+import org.springframework.cloud.sleuth.event.CompositeSpanListener;
+import org.springframework.cloud.sleuth.event.ExportingSpanListener;
+import org.springframework.cloud.sleuth.event.SpanListener;
+import org.springframework.cloud.sleuth.event.SpanListenerEventBridge;
+import org.springframework.cloud.sleuth.id.ThreadLocalRandomIdGenerator;
+import org.springframework.cloud.sleuth.metric.AdaptiveSamplerPublicMetrics;
 import org.springframework.cloud.sleuth.metric.CounterServiceBasedSpanReporterService;
+import org.springframework.cloud.sleuth.metric.ExecutorWaitTimes;
+import org.springframework.cloud.sleuth.metric.ExecutorWaitTimesPublicMetrics;
 import org.springframework.cloud.sleuth.metric.NoOpSpanReporterService;
 import org.springframework.cloud.sleuth.metric.SleuthMetricProperties;
 import org.springframework.cloud.sleuth.metric.SpanReporterService;
+import org.springframework.cloud.sleuth.metric.TracerOverhead;
+import org.springframework.cloud.sleuth.metric.TracerOverheadPublicMetrics;
+import org.springframework.cloud.sleuth.sampler.AdaptiveSampler;
+import org.springframework.cloud.sleuth.sampler.AdaptiveSamplingSpanReporterService;
 import org.springframework.cloud.sleuth.sampler.IsTracingSampler;
+import org.springframework.cloud.sleuth.sampler.RateLimitingSampler;
+import org.springframework.cloud.sleuth.sampler.SamplerConfiguration;
+import org.springframework.cloud.sleuth.trace.CurrentTraceContext;
 import org.springframework.cloud.sleuth.trace.DefaultTracer;
+import org.springframework.cloud.sleuth.trace.ThreadLocalCurrentTraceContext;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import lombok.extern.apachecommons.CommonsLog;
 
 /**
  * @author Spencer Gibb
@@ -45,6 +83,19 @@ import org.springframework.context.annotation.Configuration;
 @EnableConfigurationProperties
 public class TraceAutoConfiguration {
 
+	/**
+	 * Put spans in scope without copying them, keeping the previous ones on a per-thread
+	 * stack
+	 */
+	@Value("${spring.sleuth.scope.copyFree:false}")
+	private boolean copyFreeScoping;
+
+	/**
+	 * Generate 128-bit trace ids. Span ids stay 64 bits.
+	 */
+	@Value("${spring.sleuth.traceId128:false}")
+	private boolean traceId128;
+
 	@Bean
 	@ConditionalOnMissingBean
 	public Random randomForSpanIds() {
@@ -53,15 +104,244 @@ public class TraceAutoConfiguration {
 
 	@Bean
 	@ConditionalOnMissingBean
-	public Sampler defaultTraceSampler() {
-		return new IsTracingSampler();
+	public IdGenerator spanIdGenerator() {
+		return new ThreadLocalRandomIdGenerator(this.traceId128);
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public Clock traceClock() {
+		return SystemClock.INSTANCE;
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public SamplerConfiguration samplerConfiguration() {
+		return new SamplerConfiguration();
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public Sampler defaultTraceSampler(SamplerConfiguration samplerConfiguration,
+			Clock clock, CurrentTraceContext currentTraceContext) {
+		if (samplerConfiguration.getTracesPerSecond() != null) {
+			return new RateLimitingSampler(samplerConfiguration.getTracesPerSecond(),
+					clock);
+		}
+		if (samplerConfiguration.getExportBudget() != null) {
+			return new AdaptiveSampler(samplerConfiguration.getPercentage(),
+					samplerConfiguration.getExportBudget(), 1, TimeUnit.SECONDS, clock);
+		}
+		return new IsTracingSampler(currentTraceContext);
+	}
+
+	@Configuration
+	@ConditionalOnProperty("spring.sleuth.sampler.exportBudget")
+	@CommonsLog
+	protected static class AdaptiveSamplerConfiguration {
+
+		@Bean
+		public static BeanPostProcessor adaptiveSamplingSpanReporterServicePostProcessor() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessBeforeInitialization(Object bean,
+						String beanName) throws BeansException {
+					return bean;
+				}
+
+				@Override
+				public Object postProcessAfterInitialization(Object bean,
+						String beanName) throws BeansException {
+					if (bean instanceof SpanReporterService
+							&& !(bean instanceof AdaptiveSamplingSpanReporterService)) {
+						// lets the sampler hear about the reporters being saturated, the
+						// sampler is only looked up once all singletons are created
+						return new AdaptiveSamplingSpanReporterService(
+								(SpanReporterService) bean);
+					}
+					return bean;
+				}
+			};
+		}
+
+		@Bean
+		public SmartInitializingSingleton adaptiveSamplingSpanReporterServiceInitializer(
+				final ListableBeanFactory beanFactory) {
+			return new SmartInitializingSingleton() {
+				@Override
+				public void afterSingletonsInstantiated() {
+					Collection<AdaptiveSampler> samplers = beanFactory
+							.getBeansOfType(AdaptiveSampler.class).values();
+					if (samplers.size() != 1) {
+						if (samplers.size() > 1) {
+							log.warn("Several adaptive samplers, none of them hears "
+									+ "about the reporters being saturated");
+						}
+						return;
+					}
+					AdaptiveSampler sampler = samplers.iterator().next();
+					for (AdaptiveSamplingSpanReporterService service : beanFactory
+							.getBeansOfType(AdaptiveSamplingSpanReporterService.class)
+							.values()) {
+						service.setSampler(sampler);
+					}
+				}
+			};
+		}
+
+		@Configuration
+		@ConditionalOnClass(PublicMetrics.class)
+		protected static class AdaptiveSamplerMetricsConfiguration {
+
+			@Bean
+			public AdaptiveSamplerPublicMetrics adaptiveSamplerPublicMetrics(
+					Sampler sampler,
+					SleuthMetricProperties sleuthMetricProperties) {
+				return new AdaptiveSamplerPublicMetrics(
+						sleuthMetricProperties.getSampler().getRateName(), sampler);
+			}
+		}
 	}
 
 	@Bean
 	@ConditionalOnMissingBean(Tracer.class)
-	public DefaultTracer traceManager(Sampler sampler, Random random,
-									ApplicationEventPublisher publisher) {
-		return new DefaultTracer(sampler, random, publisher);
+	public DefaultTracer traceManager(Sampler sampler, IdGenerator idGenerator,
+			Clock clock, CompositeSpanListener spanListener, TracerOverhead overhead,
+			CurrentTraceContext currentTraceContext) {
+		DefaultTracer tracer = new DefaultTracer(sampler, idGenerator, spanListener,
+				clock, this.copyFreeScoping, currentTraceContext);
+		tracer.setTracerOverhead(overhead);
+		return tracer;
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public CurrentTraceContext currentTraceContext() {
+		return ThreadLocalCurrentTraceContext.INSTANCE;
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public TracerOverhead tracerOverhead(SleuthMetricProperties sleuthMetricProperties) {
+		return new TracerOverhead(sleuthMetricProperties.getOverhead().isEnabled());
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public ExecutorWaitTimes executorWaitTimes() {
+		return new ExecutorWaitTimes();
+	}
+
+	@Configuration
+	@ConditionalOnClass(PublicMetrics.class)
+	protected static class TracerOverheadMetricsConfiguration {
+
+		@Bean
+		public TracerOverheadPublicMetrics tracerOverheadPublicMetrics(
+				TracerOverhead overhead, SleuthMetricProperties sleuthMetricProperties) {
+			return new TracerOverheadPublicMetrics(
+					sleuthMetricProperties.getOverhead().getPrefix(), overhead);
+		}
+
+		@Bean
+		public ExecutorWaitTimesPublicMetrics executorWaitTimesPublicMetrics(
+				ExecutorWaitTimes waitTimes, SleuthMetricProperties sleuthMetricProperties) {
+			return new ExecutorWaitTimesPublicMetrics(
+					sleuthMetricProperties.getExecutor().getPrefix(), waitTimes);
+		}
+	}
+
+	@Configuration
+	@ConditionalOnClass(name = "org.springframework.cloud.context.environment.EnvironmentChangeEvent")
+	protected static class TracerOverheadRefreshConfiguration {
+
+		private static final String ENABLED = "spring.sleuth.metric.overhead.enabled";
+
+		@Bean
+		public ApplicationListener<EnvironmentChangeEvent> tracerOverheadRefresher(
+				final TracerOverhead overhead, final Environment environment) {
+			return new ApplicationListener<EnvironmentChangeEvent>() {
+				@Override
+				public void onApplicationEvent(EnvironmentChangeEvent event) {
+					if (event.getKeys().contains(ENABLED)) {
+						overhead.setEnabled(
+								environment.getProperty(ENABLED, Boolean.class, false));
+					}
+				}
+			};
+		}
+	}
+
+	@Configuration
+	protected static class SpanListenerConfiguration {
+
+		/**
+		 * Also publish the span lifecycle as Spring application events
+		 */
+		@Value("${spring.sleuth.events.enabled:false}")
+		private boolean publishEvents;
+
+		@Autowired(required = false)
+		private List<SpanListener> spanListeners = Collections.emptyList();
+
+		private ApplicationEventSpanListener eventPublishingListener;
+
+		@Bean
+		@ConditionalOnMissingBean
+		public CompositeSpanListener compositeSpanListener(
+				ApplicationEventPublisher publisher) {
+			boolean exportAsync = false;
+			for (SpanListener listener : this.spanListeners) {
+				exportAsync |= listener instanceof AsyncSpanListener;
+			}
+			List<SpanListener> listeners = new ArrayList<>();
+			for (SpanListener listener : this.spanListeners) {
+				if (!(listener instanceof CompositeSpanListener)
+						&& !(exportAsync && listener instanceof ExportingSpanListener)) {
+					listeners.add(listener);
+				}
+			}
+			if (this.publishEvents) {
+				this.eventPublishingListener = new ApplicationEventSpanListener(publisher);
+				listeners.add(this.eventPublishingListener);
+			}
+			return new CompositeSpanListener(listeners);
+		}
+
+		@Bean
+		public SpanListenerEventBridge spanListenerEventBridge(
+				CompositeSpanListener spanListener) {
+			// passes on the events of tracers and instrumentation that still publish them
+			return new SpanListenerEventBridge(spanListener, this.eventPublishingListener);
+		}
+	}
+
+	@Configuration
+	@ConditionalOnProperty("spring.sleuth.export.async.enabled")
+	protected static class AsyncSpanListenerConfiguration {
+
+		/**
+		 * Number of released spans waiting for the exporting thread, rounded up to a
+		 * power of two
+		 */
+		@Value("${spring.sleuth.export.async.bufferSize:1024}")
+		private int bufferSize;
+
+		/**
+		 * What to do with released spans when the buffer is full: DROP, BLOCK or SAMPLE
+		 */
+		@Value("${spring.sleuth.export.async.overflow:DROP}")
+		private AsyncSpanListener.OverflowPolicy overflowPolicy;
+
+		@Autowired(required = false)
+		private List<ExportingSpanListener> exportingSpanListeners = Collections.emptyList();
+
+		@Bean
+		public AsyncSpanListener asyncSpanListener(
+				SpanReporterService spanReporterService) {
+			return new AsyncSpanListener(this.exportingSpanListeners, this.bufferSize,
+					this.overflowPolicy, spanReporterService);
+		}
 	}
 
 	@Bean
@@ -79,7 +359,9 @@ public class TraceAutoConfiguration {
 		public SpanReporterService spanReporterCounterService(CounterService counterService,
 				SleuthMetricProperties sleuthMetricProperties) {
 			return new CounterServiceBasedSpanReporterService(sleuthMetricProperties.getSpan().getAcceptedName(),
-					sleuthMetricProperties.getSpan().getDroppedName(), counterService);
+					sleuthMetricProperties.getSpan().getDroppedName(),
+					sleuthMetricProperties.getSpan().getOverflowedName(),
+					sleuthMetricProperties.getSpan().getBlockedName(), counterService);
 		}
 
 		@Bean
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.clock;
+
+import org.springframework.cloud.sleuth.Clock;
+
+/**
+ * {@link Clock} that reads the wall clock of its delegate only once, when it is created,
+ * and derives all later timestamps from the monotonic offset to that anchor. The tracer
+ * creates one per trace, so all spans of a trace in this process share the anchor and
+ * their timestamps are consistent with each other even if the wall clock is adjusted.
+ */
+public class AnchoredClock implements Clock {
+
+	private final Clock delegate;
+
+	private final long anchorMicros;
+
+	private final long anchorNanos;
+
+	public AnchoredClock() {
+		this(SystemClock.INSTANCE);
+	}
+
+	public AnchoredClock(Clock delegate) {
+		this.delegate = delegate;
+		this.anchorMicros = delegate.currentTimeMicros();
+		this.anchorNanos = delegate.nanoTime();
+	}
+
+	@Override
+	public long currentTimeMicros() {
+		return this.anchorMicros + (this.delegate.nanoTime() - this.anchorNanos) / 1000;
+	}
+
+	@Override
+	public long nanoTime() {
+		return this.delegate.nanoTime();
+	}
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.clock;
+
+import org.springframework.cloud.sleuth.Clock;
+
+/**
+ * {@link Clock} backed by {@link System#currentTimeMillis()} and
+ * {@link System#nanoTime()}. The wall clock has millisecond granularity, wrap it in an
+ * {@link AnchoredClock} to get microsecond precision.
+ */
+public class SystemClock implements Clock {
+
+	public static final SystemClock INSTANCE = new SystemClock();
+
+	@Override
+	public long currentTimeMicros() {
+		return System.currentTimeMillis() * 1000;
+	}
+
+	@Override
+	public long nanoTime() {
+		return System.nanoTime();
+	}
+}
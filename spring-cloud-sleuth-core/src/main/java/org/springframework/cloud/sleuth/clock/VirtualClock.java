@@ -0,0 +1,61 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.clock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.cloud.sleuth.Clock;
+
+/**
+ * Deterministic {@link Clock} that only moves when it is told to. Useful in tests that
+ * need exact span timestamps and durations.
+ */
+public class VirtualClock implements Clock {
+
+	private final long epochMicros;
+
+	private final AtomicLong nanos = new AtomicLong();
+
+	public VirtualClock() {
+		this(0);
+	}
+
+	/**
+	 * @param epochMicros the epoch time, in microseconds, the clock starts at
+	 */
+	public VirtualClock(long epochMicros) {
+		this.epochMicros = epochMicros;
+	}
+
+	/**
+	 * Moves the clock forward by the given amount of time.
+	 */
+	public void advance(long duration, TimeUnit unit) {
+		this.nanos.addAndGet(unit.toNanos(duration));
+	}
+
+	@Override
+	public long currentTimeMicros() {
+		return this.epochMicros + this.nanos.get() / 1000;
+	}
+
+	@Override
+	public long nanoTime() {
+		return this.nanos.get();
+	}
+}
@@ -16,21 +16,20 @@
 
 package org.springframework.cloud.sleuth.event;
 
-import lombok.Value;
-import org.springframework.cloud.sleuth.Span;
-import org.springframework.context.ApplicationListener;
-
 import java.util.ArrayList;
 
+import lombok.Getter;
+import org.springframework.cloud.sleuth.Span;
+
 /**
  * @author Spencer Gibb
  */
-@Value
-public class ArrayListSpanAccumulator implements ApplicationListener<SpanReleasedEvent> {
+@Getter
+public class ArrayListSpanAccumulator extends SpanListenerAdapter {
 	private final ArrayList<Span> spans = new ArrayList<>();
 
 	@Override
-	public void onApplicationEvent(SpanReleasedEvent event) {
-		this.spans.add(event.getSpan());
+	public void spanReleased(Span parent, Span span) {
+		this.spans.add(span);
 	}
 }
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.event;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.metric.SpanReporterService;
+import org.springframework.core.annotation.Order;
+
+import lombok.extern.apachecommons.CommonsLog;
+
+/**
+ * {@link SpanListener} handing released spans over to a dedicated thread that passes
+ * them on to {@link ExportingSpanListener ExportingSpanListeners}, so that converting
+ * and serializing spans no longer happens on the thread that closes them. Sent
+ * responses are handed over the same way: only
+ * {@link ExportingSpanListener#beforeServerSent} runs on the sending thread,
+ * {@link ExportingSpanListener#exportServerSent} on the dedicated one, with
+ * {@link Span#snapshot() snapshots} of the spans as they were when the response was
+ * sent. The other callbacks are passed on directly since they add annotations that have to be
+ * timestamped when they happen.
+ * <p>
+ * Released spans and sent responses wait in a bounded buffer. What happens when it is
+ * full is decided by the {@link OverflowPolicy}.
+ */
+@CommonsLog
+@Order(0)
+public class AsyncSpanListener implements SpanListener, Closeable {
+
+	private static final int DRAIN_BATCH = 256;
+
+	private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final CompositeSpanListener delegate;
+
+	private final ExportingSpanListener[] exporters;
+
+	private final SpanListener exporter = new Exporter();
+
+	private final SpanRingBuffer buffer;
+
+	private final OverflowPolicy overflowPolicy;
+
+	private final int sampleDownThreshold;
+
+	private final SpanReporterService spanReporterService;
+
+	private final Thread consumer;
+
+	private volatile boolean running = true;
+
+	public AsyncSpanListener(Collection<? extends ExportingSpanListener> listeners,
+			int bufferSize, OverflowPolicy overflowPolicy,
+			SpanReporterService spanReporterService) {
+		this.delegate = new CompositeSpanListener(listeners);
+		List<SpanListener> sorted = this.delegate.getListeners();
+		this.exporters = sorted.toArray(new ExportingSpanListener[sorted.size()]);
+		this.buffer = new SpanRingBuffer(bufferSize);
+		this.overflowPolicy = overflowPolicy;
+		this.sampleDownThreshold = this.buffer.capacity() - this.buffer.capacity() / 4;
+		this.spanReporterService = spanReporterService;
+		this.consumer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				consume();
+			}
+		}, "sleuth-span-exporter");
+		this.consumer.setDaemon(true);
+		this.consumer.start();
+	}
+
+	@Override
+	public void spanReleased(Span parent, Span span) {
+		offer(parent, span, false);
+	}
+
+	@Override
+	public void spanAcquired(Span parent, Span span) {
+		this.delegate.spanAcquired(parent, span);
+	}
+
+	@Override
+	public void spanContinued(Span span) {
+		this.delegate.spanContinued(span);
+	}
+
+	@Override
+	public void clientSent(Span span) {
+		this.delegate.clientSent(span);
+	}
+
+	@Override
+	public void clientReceived(Span span) {
+		this.delegate.clientReceived(span);
+	}
+
+	@Override
+	public void serverReceived(Span parent, Span span) {
+		this.delegate.serverReceived(parent, span);
+	}
+
+	@Override
+	public void serverSent(Span parent, Span span) {
+		for (ExportingSpanListener exporter : this.exporters) {
+			exporter.beforeServerSent(parent, span);
+		}
+		// both spans are still running and are stopped right after the response is sent
+		offer(parent != null ? parent.snapshot() : null, span.snapshot(), true);
+	}
+
+	private void offer(Span parent, Span span, boolean serverSent) {
+		if (this.overflowPolicy == OverflowPolicy.SAMPLE
+				&& this.buffer.size() >= this.sampleDownThreshold
+				&& (span.getSpanId() & 3) != 0) {
+			this.spanReporterService.incrementOverflowedSpans(1);
+			return;
+		}
+		if (this.buffer.offer(parent, span, serverSent)) {
+			return;
+		}
+		if (this.overflowPolicy == OverflowPolicy.BLOCK) {
+			this.spanReporterService.incrementBlockedSpans(1);
+			while (this.running) {
+				LockSupport.parkNanos(IDLE_NANOS);
+				if (this.buffer.offer(parent, span, serverSent)) {
+					return;
+				}
+			}
+		}
+		this.spanReporterService.incrementOverflowedSpans(1);
+	}
+
+	/**
+	 * Stops the consumer thread once it has passed on the spans still in the buffer.
+	 */
+	@Override
+	public void close() {
+		this.running = false;
+		LockSupport.unpark(this.consumer);
+		try {
+			this.consumer.join(TimeUnit.SECONDS.toMillis(5));
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void consume() {
+		while (this.running) {
+			if (drain() == 0) {
+				LockSupport.parkNanos(this, IDLE_NANOS);
+			}
+		}
+		while (drain() > 0) {
+			// pass on what was released before closing
+		}
+	}
+
+	private int drain() {
+		try {
+			return this.buffer.drainTo(this.exporter, DRAIN_BATCH);
+		}
+		catch (Exception e) {
+			log.error("Exception occurred while exporting a span", e);
+			return 1;
+		}
+	}
+
+	/**
+	 * Passes the spans taken from the buffer on to the exporters.
+	 */
+	private class Exporter extends SpanListenerAdapter {
+
+		@Override
+		public void spanReleased(Span parent, Span span) {
+			AsyncSpanListener.this.delegate.spanReleased(parent, span);
+		}
+
+		@Override
+		public void serverSent(Span parent, Span span) {
+			for (ExportingSpanListener exporter : AsyncSpanListener.this.exporters) {
+				exporter.exportServerSent(parent, span);
+			}
+		}
+	}
+
+	/**
+	 * What to do with a released span or a sent response when the buffer is full.
+	 */
+	public enum OverflowPolicy {
+
+		/**
+		 * Drop the span.
+		 */
+		DROP,
+
+		/**
+		 * Wait for the exporting thread to make room. Slows down the traced threads
+		 * instead of losing spans.
+		 */
+		BLOCK,
+
+		/**
+		 * Keep one span in four once the buffer is three quarters full, drop the span
+		 * when it is full.
+		 */
+		SAMPLE
+	}
+}
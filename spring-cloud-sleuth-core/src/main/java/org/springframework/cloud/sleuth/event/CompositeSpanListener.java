@@ -0,0 +1,116 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.cloud.sleuth.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+
+/**
+ * {@link SpanListener} calling a fixed set of listeners in their
+ * {@link org.springframework.core.annotation.Order order}. The listeners are resolved
+ * once, dispatching is a loop over an array. The callbacks for spans that are not
+ * exportable only go to the {@link ScopeSpanListener ScopeSpanListeners}, so that
+ * unsampled traffic costs the exporting listeners nothing.
+ */
+public class CompositeSpanListener implements SpanListener {
+
+	private final SpanListener[] listeners;
+
+	private final SpanListener[] scopeListeners;
+
+	public CompositeSpanListener(SpanListener... listeners) {
+		this(Arrays.asList(listeners));
+	}
+
+	public CompositeSpanListener(Collection<? extends SpanListener> listeners) {
+		List<SpanListener> sorted = new ArrayList<>(listeners);
+		AnnotationAwareOrderComparator.sort(sorted);
+		this.listeners = sorted.toArray(new SpanListener[sorted.size()]);
+		List<SpanListener> scopeListeners = new ArrayList<>();
+		for (SpanListener listener : sorted) {
+			if (listener instanceof ScopeSpanListener) {
+				scopeListeners.add(listener);
+			}
+		}
+		this.scopeListeners = scopeListeners
+				.toArray(new SpanListener[scopeListeners.size()]);
+	}
+
+	public List<SpanListener> getListeners() {
+		return Collections.unmodifiableList(Arrays.asList(this.listeners));
+	}
+
+	@Override
+	public void spanAcquired(Span parent, Span span) {
+		for (SpanListener listener : listenersFor(span)) {
+			listener.spanAcquired(parent, span);
+		}
+	}
+
+	@Override
+	public void spanContinued(Span span) {
+		for (SpanListener listener : listenersFor(span)) {
+			listener.spanContinued(span);
+		}
+	}
+
+	@Override
+	public void spanReleased(Span parent, Span span) {
+		for (SpanListener listener : listenersFor(span)) {
+			listener.spanReleased(parent, span);
+		}
+	}
+
+	@Override
+	public void clientSent(Span span) {
+		for (SpanListener listener : listenersFor(span)) {
+			listener.clientSent(span);
+		}
+	}
+
+	@Override
+	public void clientReceived(Span span) {
+		for (SpanListener listener : listenersFor(span)) {
+			listener.clientReceived(span);
+		}
+	}
+
+	@Override
+	public void serverReceived(Span parent, Span span) {
+		for (SpanListener listener : listenersFor(span)) {
+			listener.serverReceived(parent, span);
+		}
+	}
+
+	@Override
+	public void serverSent(Span parent, Span span) {
+		for (SpanListener listener : listenersFor(span)) {
+			listener.serverSent(parent, span);
+		}
+	}
+
+	private SpanListener[] listenersFor(Span span) {
+		return span.isExportable() ? this.listeners : this.scopeListeners;
+	}
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.event;
+
+import org.springframework.cloud.sleuth.Span;
+
+/**
+ * {@link SpanListener} whose {@link #spanReleased} only exports the finished span, so
+ * that it can be called on another thread than the one that closed the span.
+ * {@link #serverSent} is split the same way: {@link #beforeServerSent} does what has to
+ * happen when the response is sent, {@link #exportServerSent} the rest.
+ *
+ * @see AsyncSpanListener
+ */
+public interface ExportingSpanListener extends SpanListener {
+
+	/**
+	 * The part of {@link #serverSent} that has to run on the thread sending the response,
+	 * e.g. logging an event that has to be timestamped right away. Nothing by default.
+	 */
+	default void beforeServerSent(Span parent, Span span) {
+	}
+
+	/**
+	 * The part of {@link #serverSent} that can run on another thread after
+	 * {@link #beforeServerSent}. All of it by default. When it does run on another
+	 * thread, the spans are {@link Span#snapshot() snapshots} taken when the response
+	 * was sent.
+	 */
+	default void exportServerSent(Span parent, Span span) {
+		serverSent(parent, span);
+	}
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.event;
+
+/**
+ * {@link SpanListener} following the scope rather than what is exported, e.g. to keep
+ * the logging context in sync with the span in scope. The tracer also reports to it
+ * when spans that are not exportable are acquired, continued and released, which it
+ * doesn't do for other listeners.
+ */
+public interface ScopeSpanListener extends SpanListener {
+}
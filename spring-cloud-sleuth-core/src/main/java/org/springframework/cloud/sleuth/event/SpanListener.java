@@ -0,0 +1,69 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.cloud.sleuth.event;
+
+import org.springframework.cloud.sleuth.Span;
+
+/**
+ * Callbacks on the lifecycle of spans, called directly on the thread that traces. The
+ * callbacks correspond to the Spring application events of this package, but no event
+ * object is created per call.
+ * <p>
+ * Implementations have to be fast and must not throw. Extend
+ * {@link SpanListenerAdapter} to only implement some of the callbacks.
+ *
+ * @see CompositeSpanListener
+ */
+public interface SpanListener {
+
+	/**
+	 * A span was created, {@code parent} is null for the root span of a trace.
+	 */
+	void spanAcquired(Span parent, Span span);
+
+	/**
+	 * A span was put in scope.
+	 */
+	void spanContinued(Span span);
+
+	/**
+	 * A span was closed, {@code parent} is the span that is in scope again or null.
+	 */
+	void spanReleased(Span parent, Span span);
+
+	/**
+	 * A request is about to be sent to a remote service in the given span.
+	 */
+	void clientSent(Span span);
+
+	/**
+	 * The response to the request sent in the given span was received.
+	 */
+	void clientReceived(Span span);
+
+	/**
+	 * A request from a remote client was received, {@code parent} is the span of the
+	 * client, {@code span} the local one continuing it.
+	 */
+	void serverReceived(Span parent, Span span);
+
+	/**
+	 * The response to the remote client was sent.
+	 */
+	void serverSent(Span parent, Span span);
+}
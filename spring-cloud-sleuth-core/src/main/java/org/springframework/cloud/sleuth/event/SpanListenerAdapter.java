@@ -0,0 +1,54 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.cloud.sleuth.event;
+
+import org.springframework.cloud.sleuth.Span;
+
+/**
+ * {@link SpanListener} with empty callbacks, to override the relevant ones only.
+ */
+public abstract class SpanListenerAdapter implements SpanListener {
+
+	@Override
+	public void spanAcquired(Span parent, Span span) {
+	}
+
+	@Override
+	public void spanContinued(Span span) {
+	}
+
+	@Override
+	public void spanReleased(Span parent, Span span) {
+	}
+
+	@Override
+	public void clientSent(Span span) {
+	}
+
+	@Override
+	public void clientReceived(Span span) {
+	}
+
+	@Override
+	public void serverReceived(Span parent, Span span) {
+	}
+
+	@Override
+	public void serverSent(Span parent, Span span) {
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.cloud.sleuth.event;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.event.SmartApplicationListener;
+import org.springframework.core.Ordered;
+
+/**
+ * Passes the span events published by code that still uses the Spring application
+ * events on to a {@link SpanListener}. Events published by an
+ * {@link ApplicationEventSpanListener} that is itself one of the listeners are not
+ * passed on again.
+ */
+public class SpanListenerEventBridge implements SmartApplicationListener {
+
+	private final SpanListener listener;
+
+	private final Object ignoredSource;
+
+	public SpanListenerEventBridge(SpanListener listener) {
+		this(listener, null);
+	}
+
+	/**
+	 * @param ignoredSource source of events that must not be passed on, e.g. the
+	 * {@link ApplicationEventSpanListener} called by {@code listener}
+	 */
+	public SpanListenerEventBridge(SpanListener listener, Object ignoredSource) {
+		this.listener = listener;
+		this.ignoredSource = ignoredSource;
+	}
+
+	@Override
+	public boolean supportsEventType(Class<? extends ApplicationEvent> eventType) {
+		return SpanAcquiredEvent.class.isAssignableFrom(eventType)
+				|| SpanContinuedEvent.class.isAssignableFrom(eventType)
+				|| SpanReleasedEvent.class.isAssignableFrom(eventType)
+				|| ClientSentEvent.class.isAssignableFrom(eventType)
+				|| ClientReceivedEvent.class.isAssignableFrom(eventType)
+				|| ServerReceivedEvent.class.isAssignableFrom(eventType)
+				|| ServerSentEvent.class.isAssignableFrom(eventType);
+	}
+
+	@Override
+	public boolean supportsSourceType(Class<?> sourceType) {
+		return true;
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationEvent event) {
+		if (this.ignoredSource != null && event.getSource() == this.ignoredSource) {
+			return;
+		}
+		if (event instanceof SpanAcquiredEvent) {
+			SpanAcquiredEvent acquired = (SpanAcquiredEvent) event;
+			this.listener.spanAcquired(acquired.getParent(), acquired.getSpan());
+		}
+		else if (event instanceof SpanContinuedEvent) {
+			this.listener.spanContinued(((SpanContinuedEvent) event).getSpan());
+		}
+		else if (event instanceof SpanReleasedEvent) {
+			SpanReleasedEvent released = (SpanReleasedEvent) event;
+			this.listener.spanReleased(released.getParent(), released.getSpan());
+		}
+		else if (event instanceof ClientSentEvent) {
+			this.listener.clientSent(((ClientSentEvent) event).getSpan());
+		}
+		else if (event instanceof ClientReceivedEvent) {
+			this.listener.clientReceived(((ClientReceivedEvent) event).getSpan());
+		}
+		else if (event instanceof ServerReceivedEvent) {
+			ServerReceivedEvent received = (ServerReceivedEvent) event;
+			this.listener.serverReceived(received.getParent(), received.getSpan());
+		}
+		else if (event instanceof ServerSentEvent) {
+			ServerSentEvent sent = (ServerSentEvent) event;
+			this.listener.serverSent(sent.getParent(), sent.getSpan());
+		}
+	}
+}
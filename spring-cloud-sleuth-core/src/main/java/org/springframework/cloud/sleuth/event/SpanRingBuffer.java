@@ -0,0 +1,146 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.cloud.sleuth.Span;
+
+/**
+ * Bounded multi-producer, single-consumer queue of released spans and of the remote
+ * parents of sent responses. All slots are allocated up front, offering a span only
+ * claims a slot with one CAS.
+ * <p>
+ * Each slot has a sequence number telling whose turn it is: {@code position} when the
+ * slot is free for the producer at that position, {@code position + 1} once the span
+ * is in it.
+ */
+final class SpanRingBuffer {
+
+	private final int capacity;
+
+	private final int mask;
+
+	private final AtomicLongArray sequences;
+
+	private final AtomicReferenceArray<Span> parents;
+
+	private final AtomicReferenceArray<Span> spans;
+
+	// published by the sequence of the slot
+	private final boolean[] serverSent;
+
+	private final AtomicLong tail = new AtomicLong();
+
+	/**
+	 * Only written by the consumer.
+	 */
+	private volatile long head;
+
+	/**
+	 * @param capacity rounded up to the next power of two
+	 */
+	SpanRingBuffer(int capacity) {
+		this.capacity = capacity < 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+		this.mask = this.capacity - 1;
+		this.sequences = new AtomicLongArray(this.capacity);
+		for (int i = 0; i < this.capacity; i++) {
+			this.sequences.set(i, i);
+		}
+		this.parents = new AtomicReferenceArray<>(this.capacity);
+		this.spans = new AtomicReferenceArray<>(this.capacity);
+		this.serverSent = new boolean[this.capacity];
+	}
+
+	int capacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Approximate number of spans waiting for the consumer.
+	 */
+	int size() {
+		long size = this.tail.get() - this.head;
+		return size < 0 ? 0 : (int) Math.min(size, this.capacity);
+	}
+
+	/**
+	 * @return false if the buffer is full
+	 */
+	boolean offer(Span parent, Span span) {
+		return offer(parent, span, false);
+	}
+
+	/**
+	 * @param serverSent whether to pass the spans to {@link SpanListener#serverSent}
+	 * rather than {@link SpanListener#spanReleased}
+	 * @return false if the buffer is full
+	 */
+	boolean offer(Span parent, Span span, boolean serverSent) {
+		for (;;) {
+			long position = this.tail.get();
+			int index = (int) position & this.mask;
+			long available = this.sequences.get(index) - position;
+			if (available == 0) {
+				if (this.tail.compareAndSet(position, position + 1)) {
+					this.parents.lazySet(index, parent);
+					this.spans.lazySet(index, span);
+					this.serverSent[index] = serverSent;
+					this.sequences.lazySet(index, position + 1);
+					return true;
+				}
+			}
+			else if (available < 0) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Passes at most {@code max} spans to {@link SpanListener#spanReleased} or
+	 * {@link SpanListener#serverSent}. Must only be called by the consumer.
+	 *
+	 * @return the number of spans passed on
+	 */
+	int drainTo(SpanListener listener, int max) {
+		long position = this.head;
+		int drained = 0;
+		while (drained < max) {
+			int index = (int) position & this.mask;
+			if (this.sequences.get(index) != position + 1) {
+				break;
+			}
+			Span parent = this.parents.get(index);
+			Span span = this.spans.get(index);
+			boolean serverSent = this.serverSent[index];
+			this.parents.lazySet(index, null);
+			this.spans.lazySet(index, null);
+			this.sequences.lazySet(index, position + this.capacity);
+			this.head = ++position;
+			drained++;
+			if (serverSent) {
+				listener.serverSent(parent, span);
+			}
+			else {
+				listener.spanReleased(parent, span);
+			}
+		}
+		return drained;
+	}
+}
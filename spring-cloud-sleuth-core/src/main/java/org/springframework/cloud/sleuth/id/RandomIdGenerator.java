@@ -0,0 +1,46 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.cloud.sleuth.id;
+
+import java.util.Random;
+
+import org.springframework.cloud.sleuth.IdGenerator;
+
+/**
+ * {@link IdGenerator} drawing 64-bit ids from a given {@link Random}, e.g. a seeded one
+ * for reproducible ids. A {@link Random} shared by many threads is a point of contention,
+ * prefer {@link ThreadLocalRandomIdGenerator}.
+ */
+public class RandomIdGenerator implements IdGenerator {
+
+	private final Random random;
+
+	public RandomIdGenerator(Random random) {
+		this.random = random;
+	}
+
+	@Override
+	public long nextId() {
+		return this.random.nextLong();
+	}
+
+	@Override
+	public long nextTraceIdHigh() {
+		return 0;
+	}
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.cloud.sleuth.id;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.cloud.sleuth.IdGenerator;
+
+/**
+ * {@link IdGenerator} backed by {@link ThreadLocalRandom}, so that threads starting
+ * spans at the same time don't contend on a shared seed. Optionally generates 128-bit
+ * trace ids.
+ */
+public class ThreadLocalRandomIdGenerator implements IdGenerator {
+
+	private final boolean traceId128;
+
+	public ThreadLocalRandomIdGenerator() {
+		this(false);
+	}
+
+	public ThreadLocalRandomIdGenerator(boolean traceId128) {
+		this.traceId128 = traceId128;
+	}
+
+	@Override
+	public long nextId() {
+		return ThreadLocalRandom.current().nextLong();
+	}
+
+	@Override
+	public long nextTraceIdHigh() {
+		return this.traceId128 ? ThreadLocalRandom.current().nextLong() : 0;
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument;
+
+import java.util.concurrent.Callable;
+import java.util.regex.Pattern;
+
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.metric.StripedHistogram;
+import org.springframework.cloud.sleuth.trace.CurrentTraceContext;
+
+/**
+ * Decides how the executor instrumentation wraps a task: in a {@link TraceRunnable} or
+ * {@link TraceCallable} that starts a span of its own, or in a
+ * {@link TraceContextRunnable} or {@link TraceContextCallable} that only puts the span
+ * of the submitting thread in scope. The latter creates, reports and exports nothing per
+ * task, which suits small, frequent tasks.
+ * <p>
+ * Tasks are matched by the name of their class, so all tasks of a lambda or class go
+ * the same way. The decision is cached per class.
+ * <p>
+ * Tasks that wait in a queue before they run are wrapped with
+ * {@link #wrap(Tracer, CurrentTraceContext, Runnable, StripedHistogram)}, so that their
+ * span tells the wait from the run time. Tasks without a span of their own are not
+ * measured.
+ */
+public class TaskSpanPolicy {
+
+	/**
+	 * Starts a span for every task, like the executor instrumentation always did.
+	 */
+	public static final TaskSpanPolicy SPAN_PER_TASK = new TaskSpanPolicy(true, null);
+
+	/**
+	 * Never starts a span for a task.
+	 */
+	public static final TaskSpanPolicy CONTEXT_ONLY = new TaskSpanPolicy(false, null);
+
+	private final boolean spanPerTask;
+
+	private final Pattern contextOnlyTasks;
+
+	private final ClassValue<Boolean> startsSpan = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			return !TaskSpanPolicy.this.contextOnlyTasks.matcher(type.getName()).matches();
+		}
+	};
+
+	/**
+	 * @param spanPerTask whether tasks get a span of their own at all
+	 * @param contextOnlyTasks the class names of the tasks that don't, if they otherwise
+	 * would; may be {@code null}
+	 */
+	public TaskSpanPolicy(boolean spanPerTask, Pattern contextOnlyTasks) {
+		this.spanPerTask = spanPerTask;
+		this.contextOnlyTasks = contextOnlyTasks;
+	}
+
+	public boolean startsSpan(Object task) {
+		if (!this.spanPerTask) {
+			return false;
+		}
+		return this.contextOnlyTasks == null || this.startsSpan.get(task.getClass());
+	}
+
+	public Runnable wrap(Tracer tracer, CurrentTraceContext currentTraceContext,
+			Runnable task) {
+		if (startsSpan(task)) {
+			return new TraceRunnable(tracer, task);
+		}
+		return new TraceContextRunnable(currentTraceContext, task);
+	}
+
+	public <V> Callable<V> wrap(Tracer tracer, CurrentTraceContext currentTraceContext,
+			Callable<V> task) {
+		if (startsSpan(task)) {
+			return new TraceCallable<>(tracer, task);
+		}
+		return new TraceContextCallable<>(currentTraceContext, task);
+	}
+
+	/**
+	 * Like {@link #wrap(Tracer, CurrentTraceContext, Runnable)} for a task that is queued
+	 * before it runs.
+	 *
+	 * @param waitTimes where to record the time the task waited; may be {@code null}
+	 */
+	public Runnable wrap(Tracer tracer, CurrentTraceContext currentTraceContext,
+			Runnable task, StripedHistogram waitTimes) {
+		if (startsSpan(task)) {
+			return new TraceRunnable(tracer, task, null, waitTimes);
+		}
+		return new TraceContextRunnable(currentTraceContext, task);
+	}
+
+	/**
+	 * Like {@link #wrap(Tracer, CurrentTraceContext, Callable)} for a task that is queued
+	 * before it runs.
+	 *
+	 * @param waitTimes where to record the time the task waited; may be {@code null}
+	 */
+	public <V> Callable<V> wrap(Tracer tracer, CurrentTraceContext currentTraceContext,
+			Callable<V> task, StripedHistogram waitTimes) {
+		if (startsSpan(task)) {
+			return new TraceCallable<>(tracer, task, null, waitTimes);
+		}
+		return new TraceContextCallable<>(currentTraceContext, task);
+	}
+}
@@ -20,6 +20,7 @@ import java.util.concurrent.Callable;
 
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.metric.StripedHistogram;
 
 import lombok.EqualsAndHashCode;
 import lombok.Value;
@@ -40,6 +41,11 @@ public class TraceCallable<V> extends TraceDelegate<Callable<V>> implements Call
 		super(tracer, delegate, name);
 	}
 
+	public TraceCallable(Tracer tracer, Callable<V> delegate, String name,
+			StripedHistogram waitTimes) {
+		super(tracer, delegate, name, waitTimes);
+	}
+
 	@Override
 	public V call() throws Exception {
 		ensureThatThreadIsNotPollutedByPreviousTraces();
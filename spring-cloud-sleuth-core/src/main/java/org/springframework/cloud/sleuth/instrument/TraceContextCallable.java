@@ -0,0 +1,49 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.trace.CurrentTraceContext;
+
+/**
+ * {@link Callable} that runs with the span of its creator in scope but doesn't start a
+ * span of its own, unlike {@link TraceCallable}.
+ */
+public class TraceContextCallable<V> extends TraceContextDelegate<Callable<V>>
+		implements Callable<V> {
+
+	public TraceContextCallable(CurrentTraceContext currentTraceContext,
+			Callable<V> delegate) {
+		super(currentTraceContext, delegate);
+	}
+
+	@Override
+	public V call() throws Exception {
+		if (getParent() == null) {
+			return getDelegate().call();
+		}
+		Span previous = attach();
+		try {
+			return getDelegate().call();
+		}
+		finally {
+			restore(previous);
+		}
+	}
+}
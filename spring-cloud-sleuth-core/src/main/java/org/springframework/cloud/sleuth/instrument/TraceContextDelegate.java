@@ -0,0 +1,64 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument;
+
+import lombok.Getter;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.trace.CurrentTraceContext;
+
+/**
+ * Base for tasks that carry the span in scope when they were created over to the thread
+ * that runs them, without starting a span of their own. Nothing is created, published
+ * or exported per task and the thread name is never read, which suits thread-per-task
+ * executors whose threads are unnamed and short lived.
+ * <p>
+ * The span that was in scope on the running thread is restored afterwards. If there was
+ * no span in scope when the task was created the thread's context isn't touched at all.
+ */
+@Getter
+public abstract class TraceContextDelegate<T> {
+
+	private final CurrentTraceContext currentTraceContext;
+	private final T delegate;
+	private final Span parent;
+
+	public TraceContextDelegate(CurrentTraceContext currentTraceContext, T delegate) {
+		this.currentTraceContext = currentTraceContext;
+		this.delegate = delegate;
+		this.parent = currentTraceContext.getCurrentSpan();
+	}
+
+	/**
+	 * Puts the parent in scope.
+	 *
+	 * @return the span that was in scope before, to pass to {@link #restore(Span)}
+	 */
+	protected Span attach() {
+		Span previous = this.currentTraceContext.getCurrentSpan();
+		this.currentTraceContext.setCurrentSpan(this.parent);
+		return previous;
+	}
+
+	protected void restore(Span previous) {
+		if (previous == null) {
+			this.currentTraceContext.removeCurrentSpan();
+		}
+		else {
+			this.currentTraceContext.setCurrentSpan(previous);
+		}
+	}
+}
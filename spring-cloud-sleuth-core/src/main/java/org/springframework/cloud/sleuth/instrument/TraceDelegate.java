@@ -16,31 +16,63 @@
 
 package org.springframework.cloud.sleuth.instrument;
 
+import java.util.concurrent.TimeUnit;
+
 import lombok.Getter;
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.Tracer;
-import org.springframework.cloud.sleuth.trace.SpanContextHolder;
+import org.springframework.cloud.sleuth.metric.StripedHistogram;
 
 /**
+ * Delegates that are queued before they run, e.g. by an executor, tag their span with
+ * the time they waited, {@link #WAIT_TAG}, and the time they ran, {@link #RUN_TAG}, in
+ * microseconds. The wait is measured from the creation of the delegate, the run time
+ * is the duration of the span when {@link #closeAll(Span)} closes it.
+ *
  * @author Spencer Gibb
  */
 @Getter
 public abstract class TraceDelegate<T> {
 
+	public static final String WAIT_TAG = "executor.wait.micros";
+
+	public static final String RUN_TAG = "executor.run.micros";
+
 	private final Tracer tracer;
 	private final T delegate;
 	private final String name;
 	private final Span parent;
+	private final boolean queued;
+	private final long createdNanos;
+	private final StripedHistogram waitTimes;
 
 	public TraceDelegate(Tracer tracer, T delegate) {
 		this(tracer, delegate, null);
 	}
 
 	public TraceDelegate(Tracer tracer, T delegate, String name) {
+		this(tracer, delegate, name, false, null);
+	}
+
+	/**
+	 * For a delegate that is queued before it runs.
+	 *
+	 * @param waitTimes where to also record the wait in nanoseconds; may be {@code null}
+	 */
+	public TraceDelegate(Tracer tracer, T delegate, String name,
+			StripedHistogram waitTimes) {
+		this(tracer, delegate, name, true, waitTimes);
+	}
+
+	private TraceDelegate(Tracer tracer, T delegate, String name, boolean queued,
+			StripedHistogram waitTimes) {
 		this.tracer = tracer;
 		this.delegate = delegate;
 		this.name = name;
 		this.parent = tracer.getCurrentSpan();
+		this.queued = queued;
+		this.createdNanos = queued ? System.nanoTime() : 0;
+		this.waitTimes = waitTimes;
 	}
 
 	protected void close(Span span) {
@@ -48,6 +80,9 @@ public abstract class TraceDelegate<T> {
 	}
 
 	protected void closeAll(Span span) {
+		if (this.queued && span.isExportable()) {
+			span.tag(RUN_TAG, String.valueOf(span.getAccumulatedMicros()));
+		}
 		span = this.tracer.close(span);
 		while (span != null) {
 			span = this.tracer.detach(span);
@@ -55,7 +90,19 @@ public abstract class TraceDelegate<T> {
 	}
 
 	protected Span startSpan() {
-		return this.tracer.joinTrace(getSpanName(), this.parent);
+		if (!this.queued) {
+			return this.tracer.joinTrace(getSpanName(), this.parent);
+		}
+		long waited = System.nanoTime() - this.createdNanos;
+		if (this.waitTimes != null) {
+			this.waitTimes.record(waited);
+		}
+		Span span = this.tracer.joinTrace(getSpanName(), this.parent);
+		if (!span.isExportable()) {
+			return span;
+		}
+		span.tag(WAIT_TAG, String.valueOf(TimeUnit.NANOSECONDS.toMicros(waited)));
+		return span;
 	}
 
 	protected String getSpanName() {
@@ -63,6 +110,10 @@ public abstract class TraceDelegate<T> {
 	}
 
 	protected void ensureThatThreadIsNotPollutedByPreviousTraces() {
-		SpanContextHolder.removeCurrentSpan();
+		// through the tracer, so that it's the scope the tracer uses that is cleared
+		Span span = this.tracer.getCurrentSpan();
+		while (span != null) {
+			span = this.tracer.detach(span);
+		}
 	}
 }
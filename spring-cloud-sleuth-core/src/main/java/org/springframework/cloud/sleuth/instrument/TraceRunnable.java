@@ -18,6 +18,7 @@ package org.springframework.cloud.sleuth.instrument;
 
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.metric.StripedHistogram;
 
 import lombok.EqualsAndHashCode;
 import lombok.Value;
@@ -37,6 +38,11 @@ public class TraceRunnable extends TraceDelegate<Runnable> implements Runnable {
 		super(tracer, delegate, name);
 	}
 
+	public TraceRunnable(Tracer tracer, Runnable delegate, String name,
+			StripedHistogram waitTimes) {
+		super(tracer, delegate, name, waitTimes);
+	}
+
 	@Override
 	public void run() {
 		ensureThatThreadIsNotPollutedByPreviousTraces();
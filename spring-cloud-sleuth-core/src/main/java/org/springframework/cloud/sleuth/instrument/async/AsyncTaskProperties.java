@@ -0,0 +1,37 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.async;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * How the tasks of the {@code @Async} executor are traced.
+ *
+ * @see org.springframework.cloud.sleuth.instrument.TaskSpanPolicy
+ */
+@ConfigurationProperties("spring.sleuth.async")
+@Data
+public class AsyncTaskProperties {
+
+	/**
+	 * Whether each task runs in a span of its own. Otherwise tasks only run with the span
+	 * of the calling thread in scope.
+	 */
+	private boolean spanPerTask = true;
+}
@@ -21,21 +21,39 @@ import java.util.concurrent.Executor;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.cloud.sleuth.Tracer;
-import org.springframework.cloud.sleuth.instrument.TraceRunnable;
+import org.springframework.cloud.sleuth.instrument.TaskSpanPolicy;
+import org.springframework.cloud.sleuth.metric.ExecutorWaitTimes;
+import org.springframework.cloud.sleuth.metric.StripedHistogram;
+import org.springframework.cloud.sleuth.trace.CurrentTraceContext;
+import org.springframework.cloud.sleuth.trace.ThreadLocalCurrentTraceContext;
 
 import lombok.RequiredArgsConstructor;
 
 /**
+ * Looks the tracing beans up on first use. Tasks run in a span of their own unless the
+ * {@link TaskSpanPolicy} says otherwise, which is taken from
+ * {@link AsyncTaskProperties} if not set. The time the tasks waited is recorded in the
+ * {@link ExecutorWaitTimes} as {@value #EXECUTOR_NAME}.
+ *
  * @author Dave Syer
  *
  */
 @RequiredArgsConstructor
 public class LazyTraceExecutor implements Executor {
 
+	static final String EXECUTOR_NAME = "async";
+
 	private Tracer tracer;
+	private CurrentTraceContext currentTraceContext;
+	private TaskSpanPolicy taskSpanPolicy;
+	private StripedHistogram waitTimes;
 	private final BeanFactory beanFactory;
 	private final Executor delegate;
 
+	public void setTaskSpanPolicy(TaskSpanPolicy taskSpanPolicy) {
+		this.taskSpanPolicy = taskSpanPolicy;
+	}
+
 	@Override
 	public void execute(Runnable command) {
 		if (this.tracer == null) {
@@ -44,9 +62,49 @@ public class LazyTraceExecutor implements Executor {
 			}
 			catch (NoSuchBeanDefinitionException e) {
 				this.delegate.execute(command);
+				return;
 			}
 		}
-		this.delegate.execute(new TraceRunnable(this.tracer, command));
+		if (this.currentTraceContext == null) {
+			this.currentTraceContext = currentTraceContext();
+		}
+		if (this.taskSpanPolicy == null) {
+			this.taskSpanPolicy = taskSpanPolicy();
+		}
+		if (this.waitTimes == null) {
+			this.waitTimes = waitTimes();
+		}
+		this.delegate.execute(this.taskSpanPolicy.wrap(this.tracer,
+				this.currentTraceContext, command, this.waitTimes));
+	}
+
+	private CurrentTraceContext currentTraceContext() {
+		try {
+			return this.beanFactory.getBean(CurrentTraceContext.class);
+		}
+		catch (NoSuchBeanDefinitionException e) {
+			return ThreadLocalCurrentTraceContext.INSTANCE;
+		}
+	}
+
+	private StripedHistogram waitTimes() {
+		try {
+			return this.beanFactory.getBean(ExecutorWaitTimes.class)
+					.histogram(EXECUTOR_NAME);
+		}
+		catch (NoSuchBeanDefinitionException e) {
+			return new StripedHistogram();
+		}
+	}
+
+	private TaskSpanPolicy taskSpanPolicy() {
+		try {
+			return this.beanFactory.getBean(AsyncTaskProperties.class).isSpanPerTask()
+					? TaskSpanPolicy.SPAN_PER_TASK : TaskSpanPolicy.CONTEXT_ONLY;
+		}
+		catch (NoSuchBeanDefinitionException e) {
+			return TaskSpanPolicy.SPAN_PER_TASK;
+		}
 	}
 
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.executor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.instrument.TraceCallable;
+import org.springframework.cloud.sleuth.instrument.TraceContextCallable;
+import org.springframework.cloud.sleuth.instrument.TraceContextRunnable;
+import org.springframework.cloud.sleuth.instrument.TraceRunnable;
+import org.springframework.cloud.sleuth.trace.CurrentTraceContext;
+
+/**
+ * {@link ExecutorService} for thread-per-task executors, e.g. one starting a virtual
+ * thread per task. Unlike {@link TraceableExecutorService} it only carries the span in
+ * scope over to the task, so a task costs a small wrapper and no span. Its threads are
+ * expected to start with an empty context, so it isn't cleared before each task.
+ * <p>
+ * If a span name is set every task runs in a span of that name instead, as the threads
+ * may have no name to use.
+ */
+public class TraceContextExecutorService implements ExecutorService {
+
+	private final ExecutorService delegate;
+	private final Tracer tracer;
+	private final CurrentTraceContext currentTraceContext;
+
+	private String spanName;
+
+	public TraceContextExecutorService(ExecutorService delegate, Tracer tracer,
+			CurrentTraceContext currentTraceContext) {
+		this.delegate = delegate;
+		this.tracer = tracer;
+		this.currentTraceContext = currentTraceContext;
+	}
+
+	/**
+	 * Starts a span with the given name per task. {@code null}, the default, starts none.
+	 */
+	public void setSpanName(String spanName) {
+		this.spanName = spanName;
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		this.delegate.execute(wrap(command));
+	}
+
+	@Override
+	public void shutdown() {
+		this.delegate.shutdown();
+	}
+
+	@Override
+	public List<Runnable> shutdownNow() {
+		return this.delegate.shutdownNow();
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return this.delegate.isShutdown();
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return this.delegate.isTerminated();
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return this.delegate.awaitTermination(timeout, unit);
+	}
+
+	@Override
+	public <T> Future<T> submit(Callable<T> task) {
+		return this.delegate.submit(wrap(task));
+	}
+
+	@Override
+	public <T> Future<T> submit(Runnable task, T result) {
+		return this.delegate.submit(wrap(task), result);
+	}
+
+	@Override
+	public Future<?> submit(Runnable task) {
+		return this.delegate.submit(wrap(task));
+	}
+
+	@Override
+	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+		return this.delegate.invokeAll(wrap(tasks));
+	}
+
+	@Override
+	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+			throws InterruptedException {
+		return this.delegate.invokeAll(wrap(tasks), timeout, unit);
+	}
+
+	@Override
+	public <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+		return this.delegate.invokeAny(wrap(tasks));
+	}
+
+	@Override
+	public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		return this.delegate.invokeAny(wrap(tasks), timeout, unit);
+	}
+
+	private Runnable wrap(Runnable task) {
+		if (this.spanName != null) {
+			return new TraceRunnable(this.tracer, task, this.spanName);
+		}
+		return new TraceContextRunnable(this.currentTraceContext, task);
+	}
+
+	private <T> Callable<T> wrap(Callable<T> task) {
+		if (this.spanName != null) {
+			return new TraceCallable<>(this.tracer, task, this.spanName);
+		}
+		return new TraceContextCallable<>(this.currentTraceContext, task);
+	}
+
+	private <T> List<Callable<T>> wrap(Collection<? extends Callable<T>> tasks) {
+		List<Callable<T>> wrapped = new ArrayList<>(tasks.size());
+		for (Callable<T> task : tasks) {
+			wrapped.add(wrap(task));
+		}
+		return wrapped;
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.executor;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.trace.CurrentTraceContext;
+
+/**
+ * {@link ForkJoinPool} that reports each {@link #invoke(ForkJoinTask) invoked} parallel
+ * section as a single span, however many subtasks it splits into. The span is tagged
+ * with the number of {@link TraceRecursiveTask} and {@link TraceRecursiveAction}
+ * subtasks that ran and the number of tasks stolen by the workers meanwhile. Both are
+ * counted for the whole pool, so they are exact only if sections don't overlap.
+ * <p>
+ * Subtasks don't start spans. Those extending {@link TraceRecursiveTask} or
+ * {@link TraceRecursiveAction} run with the span in scope when they were created. For
+ * parallel streams, run the stream as the invoked task (e.g. through
+ * {@link ForkJoinTask#adapt(java.util.concurrent.Callable)}) and wrap the functions
+ * that need the span with {@link #inScope(Function)}.
+ */
+public class TraceForkJoinPool extends ForkJoinPool {
+
+	static final String TASKS_TAG = "forkjoin.tasks";
+
+	static final String STEALS_TAG = "forkjoin.steals";
+
+	private final Tracer tracer;
+	private final CurrentTraceContext currentTraceContext;
+	private final LongAdder tasks = new LongAdder();
+
+	private String spanName = "fork-join";
+
+	public TraceForkJoinPool(Tracer tracer, CurrentTraceContext currentTraceContext) {
+		this.tracer = tracer;
+		this.currentTraceContext = currentTraceContext;
+	}
+
+	public TraceForkJoinPool(int parallelism, Tracer tracer,
+			CurrentTraceContext currentTraceContext) {
+		super(parallelism);
+		this.tracer = tracer;
+		this.currentTraceContext = currentTraceContext;
+	}
+
+	public void setSpanName(String spanName) {
+		this.spanName = spanName;
+	}
+
+	@Override
+	public <T> T invoke(ForkJoinTask<T> task) {
+		long tasks = this.tasks.sum();
+		long steals = getStealCount();
+		Span span = this.tracer.startTrace(this.spanName);
+		try {
+			return super.invoke(inSection(task, span));
+		}
+		finally {
+			this.tracer.addTag(TASKS_TAG, String.valueOf(this.tasks.sum() - tasks));
+			this.tracer.addTag(STEALS_TAG, String.valueOf(getStealCount() - steals));
+			this.tracer.close(span);
+		}
+	}
+
+	/**
+	 * @return a function that runs with the span in scope now, e.g. to map the elements
+	 * of a parallel stream run by this pool
+	 */
+	public <T, R> Function<T, R> inScope(Function<T, R> function) {
+		Span parent = this.currentTraceContext.getCurrentSpan();
+		return value -> inScope(this.currentTraceContext, parent,
+				() -> function.apply(value));
+	}
+
+	private <T> ForkJoinTask<T> inSection(ForkJoinTask<T> task, Span span) {
+		// subtasks created by traced tasks inherit their parent, so re-parent the root
+		if (task instanceof TraceRecursiveTask) {
+			((TraceRecursiveTask<?>) task).setParent(span);
+			return task;
+		}
+		if (task instanceof TraceRecursiveAction) {
+			((TraceRecursiveAction) task).setParent(span);
+			return task;
+		}
+		return new RecursiveTask<T>() {
+			@Override
+			protected T compute() {
+				return inScope(TraceForkJoinPool.this.currentTraceContext, span,
+						task::invoke);
+			}
+		};
+	}
+
+	static <T> T inScope(CurrentTraceContext currentTraceContext, Span span,
+			Supplier<T> work) {
+		if (span == null) {
+			return work.get();
+		}
+		Span previous = currentTraceContext.getCurrentSpan();
+		currentTraceContext.setCurrentSpan(span);
+		try {
+			return work.get();
+		}
+		finally {
+			currentTraceContext.setCurrentSpan(previous);
+		}
+	}
+
+	static void taskExecuted(ForkJoinPool pool) {
+		if (pool instanceof TraceForkJoinPool) {
+			((TraceForkJoinPool) pool).tasks.increment();
+		}
+	}
+}
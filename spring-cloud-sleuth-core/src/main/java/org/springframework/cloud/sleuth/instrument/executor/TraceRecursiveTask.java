@@ -0,0 +1,58 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.executor;
+
+import java.util.concurrent.RecursiveTask;
+
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.trace.CurrentTraceContext;
+import org.springframework.cloud.sleuth.trace.ThreadLocalCurrentTraceContext;
+
+/**
+ * {@link RecursiveTask} that computes with the span that was in scope when it was
+ * created, without starting a span of its own. Subtasks created in
+ * {@link #doCompute()} therefore carry the span on to the workers that steal them.
+ *
+ * @see TraceForkJoinPool
+ */
+public abstract class TraceRecursiveTask<V> extends RecursiveTask<V> {
+
+	private final CurrentTraceContext currentTraceContext;
+	private Span parent;
+
+	protected TraceRecursiveTask() {
+		this(ThreadLocalCurrentTraceContext.INSTANCE);
+	}
+
+	protected TraceRecursiveTask(CurrentTraceContext currentTraceContext) {
+		this.currentTraceContext = currentTraceContext;
+		this.parent = currentTraceContext.getCurrentSpan();
+	}
+
+	void setParent(Span parent) {
+		this.parent = parent;
+	}
+
+	@Override
+	protected final V compute() {
+		TraceForkJoinPool.taskExecuted(getPool());
+		return TraceForkJoinPool.inScope(this.currentTraceContext, this.parent,
+				this::doCompute);
+	}
+
+	protected abstract V doCompute();
+}
@@ -15,35 +15,100 @@
  */
 package org.springframework.cloud.sleuth.instrument.executor;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.Tracer;
-import org.springframework.cloud.sleuth.instrument.TraceCallable;
-import org.springframework.cloud.sleuth.instrument.TraceRunnable;
+import org.springframework.cloud.sleuth.instrument.TaskSpanPolicy;
+import org.springframework.cloud.sleuth.instrument.TraceContextCallable;
+import org.springframework.cloud.sleuth.instrument.TraceContextRunnable;
+import org.springframework.cloud.sleuth.metric.StripedHistogram;
+import org.springframework.cloud.sleuth.trace.CurrentTraceContext;
+import org.springframework.cloud.sleuth.trace.ThreadLocalCurrentTraceContext;
 /**
  * A decorator class for {@link ExecutorService} to support tracing in Executors
+ * <p>
+ * Each task runs in a span of its own, including the tasks of {@code invokeAll} and
+ * {@code invokeAny}, unless a {@link TaskSpanPolicy} says otherwise. With {@link #setSpanPerBatch(boolean)} the tasks of such a batch
+ * share a single span started by the calling thread instead.
+ * <p>
+ * The dependent stages of a {@link java.util.concurrent.CompletableFuture} started on
+ * this executor can run on {@link #stageExecutor()}, which carries the span of the stage
+ * that triggered them over without starting one per stage.
+ * <p>
+ * The span of a task is tagged with the time the task waited in the queue and the time
+ * it ran, which can also be aggregated with {@link #setWaitTimes(StripedHistogram)}.
+ *
  * @author Gaurav Rai Mazra
  *
  */
 public class TraceableExecutorService implements ExecutorService {
 	final ExecutorService delegate;
 	final Tracer tracer;
+	final CurrentTraceContext currentTraceContext;
+
+	private boolean spanPerBatch;
+
+	private TaskSpanPolicy taskSpanPolicy = TaskSpanPolicy.SPAN_PER_TASK;
+
+	private StripedHistogram waitTimes;
 
 	public TraceableExecutorService(final ExecutorService delegate, final Tracer tracer) {
+		this(delegate, tracer, ThreadLocalCurrentTraceContext.INSTANCE);
+	}
+
+	public TraceableExecutorService(final ExecutorService delegate, final Tracer tracer,
+			final CurrentTraceContext currentTraceContext) {
 		this.delegate = delegate;
 		this.tracer = tracer;
+		this.currentTraceContext = currentTraceContext;
+	}
+
+	/**
+	 * Whether {@code invokeAll} and {@code invokeAny} run in a single span named after
+	 * the method rather than in a span per task. Off by default.
+	 */
+	public void setSpanPerBatch(boolean spanPerBatch) {
+		this.spanPerBatch = spanPerBatch;
+	}
+
+	/**
+	 * Decides which tasks get a span of their own. All of them by default.
+	 */
+	public void setTaskSpanPolicy(TaskSpanPolicy taskSpanPolicy) {
+		this.taskSpanPolicy = taskSpanPolicy;
+	}
+
+	/**
+	 * Where to record the time the tasks with a span of their own waited before they
+	 * ran, e.g. {@link org.springframework.cloud.sleuth.metric.ExecutorWaitTimes#histogram(String)}.
+	 * Not recorded by default.
+	 */
+	public void setWaitTimes(StripedHistogram waitTimes) {
+		this.waitTimes = waitTimes;
+	}
+
+	/**
+	 * @return an executor running tasks on this one with the span in scope when they were
+	 * submitted, but without a span of their own
+	 */
+	public Executor stageExecutor() {
+		return command -> this.delegate
+				.execute(new TraceContextRunnable(this.currentTraceContext, command));
 	}
 
 	@Override
 	public void execute(Runnable command) {
-		final Runnable r = new TraceRunnable(this.tracer, command);
+		final Runnable r = wrap(command);
 		this.delegate.execute(r);
 	}
 
@@ -74,42 +139,113 @@ public class TraceableExecutorService implements ExecutorService {
 
 	@Override
 	public <T> Future<T> submit(Callable<T> task) {
-		Callable<T> c = new TraceCallable<>(this.tracer, task);
+		Callable<T> c = wrap(task);
 		return this.delegate.submit(c);
 	}
 
 	@Override
 	public <T> Future<T> submit(Runnable task, T result) {
-		Runnable r = new TraceRunnable(this.tracer, task);
+		Runnable r = wrap(task);
 		return this.delegate.submit(r, result);
 	}
 
 	@Override
 	public Future<?> submit(Runnable task) {
-		Runnable r = new TraceRunnable(this.tracer, task);
+		Runnable r = wrap(task);
 		return this.delegate.submit(r);
 	}
 
 	@Override
 	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
-		return this.delegate.invokeAll(tasks);
+		if (!this.spanPerBatch) {
+			return this.delegate.invokeAll(wrap(tasks));
+		}
+		Span span = this.tracer.startTrace("invokeAll");
+		try {
+			return this.delegate.invokeAll(wrapInContext(tasks));
+		}
+		finally {
+			this.tracer.close(span);
+		}
 	}
 
 	@Override
 	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
 			throws InterruptedException {
-		return this.delegate.invokeAll(tasks, timeout, unit);
+		if (!this.spanPerBatch) {
+			return this.delegate.invokeAll(wrap(tasks), timeout, unit);
+		}
+		Span span = this.tracer.startTrace("invokeAll");
+		try {
+			return this.delegate.invokeAll(wrapInContext(tasks), timeout, unit);
+		}
+		finally {
+			this.tracer.close(span);
+		}
 	}
 
 	@Override
 	public <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
-		return this.delegate.invokeAny(tasks);
+		if (!this.spanPerBatch) {
+			return this.delegate.invokeAny(wrap(tasks));
+		}
+		Span span = this.tracer.startTrace("invokeAny");
+		try {
+			return this.delegate.invokeAny(wrapInContext(tasks));
+		}
+		finally {
+			this.tracer.close(span);
+		}
 	}
 
 	@Override
 	public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
 			throws InterruptedException, ExecutionException, TimeoutException {
-		return this.delegate.invokeAny(tasks, timeout, unit);
+		if (!this.spanPerBatch) {
+			return this.delegate.invokeAny(wrap(tasks), timeout, unit);
+		}
+		Span span = this.tracer.startTrace("invokeAny");
+		try {
+			return this.delegate.invokeAny(wrapInContext(tasks), timeout, unit);
+		}
+		finally {
+			this.tracer.close(span);
+		}
+	}
+
+	Runnable wrap(Runnable task) {
+		return this.taskSpanPolicy.wrap(this.tracer, this.currentTraceContext, task,
+				this.waitTimes);
+	}
+
+	<T> Callable<T> wrap(Callable<T> task) {
+		return this.taskSpanPolicy.wrap(this.tracer, this.currentTraceContext, task,
+				this.waitTimes);
+	}
+
+	// a scheduled task waits for its delay rather than for a thread
+	Runnable wrapScheduled(Runnable task) {
+		return this.taskSpanPolicy.wrap(this.tracer, this.currentTraceContext, task);
+	}
+
+	<T> Callable<T> wrapScheduled(Callable<T> task) {
+		return this.taskSpanPolicy.wrap(this.tracer, this.currentTraceContext, task);
+	}
+
+	private <T> List<Callable<T>> wrap(Collection<? extends Callable<T>> tasks) {
+		List<Callable<T>> wrapped = new ArrayList<>(tasks.size());
+		for (Callable<T> task : tasks) {
+			wrapped.add(wrap(task));
+		}
+		return wrapped;
+	}
+
+	private <T> List<Callable<T>> wrapInContext(Collection<? extends Callable<T>> tasks) {
+		List<Callable<T>> wrapped = new ArrayList<>(tasks.size());
+		for (Callable<T> task : tasks) {
+			wrapped.add(new TraceContextCallable<>(this.currentTraceContext, task));
+		}
+		return wrapped;
 	}
 
 }
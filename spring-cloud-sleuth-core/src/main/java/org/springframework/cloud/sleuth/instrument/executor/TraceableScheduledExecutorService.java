@@ -22,8 +22,7 @@ import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.springframework.cloud.sleuth.Tracer;
-import org.springframework.cloud.sleuth.instrument.TraceCallable;
-import org.springframework.cloud.sleuth.instrument.TraceRunnable;
+import org.springframework.cloud.sleuth.trace.CurrentTraceContext;
 
 /**
  * A decorator class for {@link ScheduledExecutorService} to support tracing in Executors
@@ -36,13 +35,18 @@ public class TraceableScheduledExecutorService extends TraceableExecutorService
 		super(delegate, tracer);
 	}
 
+	public TraceableScheduledExecutorService(final ScheduledExecutorService delegate, final Tracer tracer,
+			final CurrentTraceContext currentTraceContext) {
+		super(delegate, tracer, currentTraceContext);
+	}
+
 	private ScheduledExecutorService getScheduledExecutorService() {
 		return (ScheduledExecutorService) this.delegate;
 	}
 
 	@Override
 	public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
-		Runnable r = new TraceRunnable(this.tracer, command);
+		Runnable r = wrapScheduled(command);
 		return getScheduledExecutorService().schedule(r, delay, unit);
 	}
 
@@ -50,19 +54,19 @@ public class TraceableScheduledExecutorService extends TraceableExecutorService
 
 	@Override
 	public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
-		Callable<V> c = new TraceCallable<>(this.tracer,callable);
+		Callable<V> c = wrapScheduled(callable);
 		return getScheduledExecutorService().schedule(c, delay, unit);
 	}
 
 	@Override
 	public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
-		Runnable r = new TraceRunnable(this.tracer, command);
+		Runnable r = wrapScheduled(command);
 		return getScheduledExecutorService().scheduleAtFixedRate(r, initialDelay, period, unit);
 	}
 
 	@Override
 	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
-		Runnable r = new TraceRunnable(this.tracer, command);
+		Runnable r = wrapScheduled(command);
 		return getScheduledExecutorService().scheduleWithFixedDelay(r, initialDelay, delay, unit);
 	}
 
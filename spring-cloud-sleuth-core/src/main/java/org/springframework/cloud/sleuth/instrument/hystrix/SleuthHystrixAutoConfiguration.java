@@ -3,6 +3,7 @@ package org.springframework.cloud.sleuth.instrument.hystrix;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.metric.ExecutorWaitTimes;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -13,7 +14,8 @@ import com.netflix.hystrix.HystrixCommand;
 @ConditionalOnProperty(value = "spring.sleuth.hystrix.strategy.enabled", matchIfMissing = true)
 public class SleuthHystrixAutoConfiguration {
 
-	@Bean SleuthHystrixConcurrencyStrategy sleuthHystrixConcurrencyStrategy(Tracer tracer) {
-		return new SleuthHystrixConcurrencyStrategy(tracer);
+	@Bean SleuthHystrixConcurrencyStrategy sleuthHystrixConcurrencyStrategy(Tracer tracer,
+			ExecutorWaitTimes executorWaitTimes) {
+		return new SleuthHystrixConcurrencyStrategy(tracer, executorWaitTimes);
 	}
 }
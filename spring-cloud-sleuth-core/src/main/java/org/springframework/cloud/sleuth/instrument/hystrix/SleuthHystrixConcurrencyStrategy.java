@@ -5,16 +5,31 @@ import com.netflix.hystrix.strategy.concurrency.HystrixConcurrencyStrategy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.sleuth.Tracer;
 import org.springframework.cloud.sleuth.instrument.TraceCallable;
+import org.springframework.cloud.sleuth.metric.ExecutorWaitTimes;
+import org.springframework.cloud.sleuth.metric.StripedHistogram;
 
 import java.util.concurrent.Callable;
 
 @Slf4j
 public class SleuthHystrixConcurrencyStrategy extends HystrixConcurrencyStrategy {
 
+	static final String EXECUTOR_NAME = "hystrix";
+
 	private final Tracer tracer;
 
+	private final StripedHistogram waitTimes;
+
 	public SleuthHystrixConcurrencyStrategy(Tracer tracer) {
+		this(tracer, null);
+	}
+
+	/**
+	 * @param waitTimes where to record the time the commands waited for a thread of
+	 * their pool, as {@value #EXECUTOR_NAME}; may be {@code null}
+	 */
+	public SleuthHystrixConcurrencyStrategy(Tracer tracer, ExecutorWaitTimes waitTimes) {
 		this.tracer = tracer;
+		this.waitTimes = waitTimes == null ? null : waitTimes.histogram(EXECUTOR_NAME);
 		try {
 			HystrixPlugins.getInstance().registerConcurrencyStrategy(this);
 		} catch (Exception e) {
@@ -25,6 +40,6 @@ public class SleuthHystrixConcurrencyStrategy extends HystrixConcurrencyStrategy
 
 	@Override
 	public <T> Callable<T> wrapCallable(Callable<T> callable) {
-		return new TraceCallable<>(this.tracer, callable);
+		return new TraceCallable<>(this.tracer, callable, null, this.waitTimes);
 	}
 }
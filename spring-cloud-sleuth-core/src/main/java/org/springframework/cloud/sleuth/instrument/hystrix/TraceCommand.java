@@ -21,7 +21,6 @@ import com.netflix.hystrix.HystrixCommandGroupKey;
 import com.netflix.hystrix.HystrixThreadPoolKey;
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.Tracer;
-import org.springframework.cloud.sleuth.trace.SpanContextHolder;
 
 /**
  * Abstraction over {@code HystrixCommand} that wraps command execution with Trace setting
@@ -81,7 +80,10 @@ public abstract class TraceCommand<R> extends HystrixCommand<R> {
 
 	// TODO: Do more analysis why this is not removed properly
 	private void enforceThatHystrixThreadIsNotPollutedByPreviousTraces() {
-		SpanContextHolder.removeCurrentSpan();
+		Span span = this.tracer.getCurrentSpan();
+		while (span != null) {
+			span = this.tracer.detach(span);
+		}
 	}
 
 	public abstract R doRun() throws Exception;
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.hystrix;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.instrument.rxjava.SleuthRxJavaSchedulersHook;
+
+import com.netflix.hystrix.HystrixCommandGroupKey;
+import com.netflix.hystrix.HystrixObservableCommand;
+
+import rx.Observable;
+import rx.Subscriber;
+import rx.functions.Action0;
+
+/**
+ * Counterpart of {@link TraceCommand} for non-blocking commands. The observable returned
+ * by {@link #doConstruct()} is subscribed to in a span named after the command key,
+ * child of the span that was in scope when the command was created. The span is closed
+ * when the observable terminates or is unsubscribed from, on whatever thread that
+ * happens, leaving the span that thread had in scope in place.
+ * <p>
+ * The span only reaches the threads the observable hops to if the
+ * {@link SleuthRxJavaSchedulersHook} is registered.
+ */
+public abstract class TraceObservableCommand<R> extends HystrixObservableCommand<R> {
+
+	private final Tracer tracer;
+	private final Span parentSpan;
+
+	protected TraceObservableCommand(Tracer tracer, HystrixCommandGroupKey group) {
+		super(group);
+		this.tracer = tracer;
+		this.parentSpan = tracer.getCurrentSpan();
+	}
+
+	protected TraceObservableCommand(Tracer tracer, Setter setter) {
+		super(setter);
+		this.tracer = tracer;
+		this.parentSpan = tracer.getCurrentSpan();
+	}
+
+	@Override
+	protected Observable<R> construct() {
+		return Observable.create(this::subscribeInSpan);
+	}
+
+	private void subscribeInSpan(Subscriber<? super R> subscriber) {
+		Span previous = this.tracer.getCurrentSpan();
+		Span span = this.tracer.joinTrace(getCommandKey().name(), this.parentSpan);
+		Action0 closeSpan = new CloseSpan(span);
+		try {
+			doConstruct().doOnTerminate(closeSpan).doOnUnsubscribe(closeSpan)
+					.unsafeSubscribe(subscriber);
+		}
+		finally {
+			// the observable may have terminated already and closed the span
+			Span current = this.tracer.getCurrentSpan();
+			if (span.equals(current)) {
+				current = this.tracer.detach(span);
+			}
+			// don't leave the parent behind on a thread that had no span
+			while (previous == null && current != null) {
+				current = this.tracer.detach(current);
+			}
+		}
+	}
+
+	public abstract Observable<R> doConstruct();
+
+	private class CloseSpan implements Action0 {
+
+		private final AtomicBoolean closed = new AtomicBoolean();
+		private final Span span;
+
+		CloseSpan(Span span) {
+			this.span = span;
+		}
+
+		@Override
+		public void call() {
+			if (!this.closed.compareAndSet(false, true)) {
+				return;
+			}
+			Tracer tracer = TraceObservableCommand.this.tracer;
+			Span previous = tracer.getCurrentSpan();
+			if (this.span.equals(previous)) {
+				tracer.close(this.span);
+				return;
+			}
+			tracer.close(tracer.continueSpan(this.span));
+			// closing a span that is not a child of the one in scope clears the scope,
+			// put back the unrelated span of the thread that terminated the observable
+			if (previous != null && !previous.equals(tracer.getCurrentSpan())) {
+				tracer.continueSpan(previous);
+			}
+		}
+	}
+}
@@ -1,10 +1,10 @@
 package org.springframework.cloud.sleuth.instrument.integration;
 
-import java.util.Random;
-
+import org.springframework.cloud.sleuth.IdGenerator;
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.Tracer;
 import org.springframework.cloud.sleuth.instrument.TraceKeys;
+import org.springframework.cloud.sleuth.metric.TracerOverhead;
 import org.springframework.integration.channel.AbstractMessageChannel;
 import org.springframework.integration.context.IntegrationObjectSupport;
 import org.springframework.messaging.Message;
@@ -22,14 +22,17 @@ abstract class AbstractTraceChannelInterceptor extends ChannelInterceptorAdapter
 
 	private final Tracer tracer;
 
-	private final Random random;
+	private final IdGenerator idGenerator;
 
 	private final TraceKeys traceKeys;
 
-	protected AbstractTraceChannelInterceptor(Tracer tracer, TraceKeys traceKeys, Random random) {
+	private TracerOverhead overhead = TracerOverhead.NONE;
+
+	protected AbstractTraceChannelInterceptor(Tracer tracer, TraceKeys traceKeys,
+			IdGenerator idGenerator) {
 		this.tracer = tracer;
 		this.traceKeys = traceKeys;
-		this.random = random;
+		this.idGenerator = idGenerator;
 	}
 
 	protected Tracer getTracer() {
@@ -40,6 +43,14 @@ abstract class AbstractTraceChannelInterceptor extends ChannelInterceptorAdapter
 		return this.traceKeys;
 	}
 
+	protected TracerOverhead getTracerOverhead() {
+		return this.overhead;
+	}
+
+	public void setTracerOverhead(TracerOverhead overhead) {
+		this.overhead = overhead;
+	}
+
 	/**
 	 * Returns a span given the message and a channel. Returns null when there was no
 	 * trace id passed initially.
@@ -49,9 +60,10 @@ abstract class AbstractTraceChannelInterceptor extends ChannelInterceptorAdapter
 			return null; // cannot build a span without ids
 		}
 		long spanId = hasHeader(message, Span.SPAN_ID_NAME) ?
-				Span.fromHex(getHeader(message, Span.SPAN_ID_NAME)) : this.random.nextLong();
-		long traceId = Span.fromHex(getHeader(message, Span.TRACE_ID_NAME));
-		Span.SpanBuilder span = Span.builder().traceId(traceId).spanId(spanId);
+				Span.fromHex(getHeader(message, Span.SPAN_ID_NAME)) : this.idGenerator.nextId();
+		String traceId = getHeader(message, Span.TRACE_ID_NAME);
+		Span.SpanBuilder span = Span.builder().traceId(Span.fromHex(traceId))
+				.traceIdHigh(Span.highBitsFromHex(traceId)).spanId(spanId);
 		if (message.getHeaders().containsKey(Span.NOT_SAMPLED_NAME)) {
 			span.exportable(false);
 		}
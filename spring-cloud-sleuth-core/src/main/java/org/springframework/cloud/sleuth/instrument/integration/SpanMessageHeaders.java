@@ -17,7 +17,6 @@
 package org.springframework.cloud.sleuth.instrument.integration;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import org.springframework.cloud.sleuth.Span;
@@ -58,15 +57,12 @@ public class SpanMessageHeaders {
 		}
 
 		Map<String, String> headers = new HashMap<>();
-		addHeader(headers, Span.TRACE_ID_NAME, Span.toHex(span.getTraceId()));
-		addHeader(headers, Span.SPAN_ID_NAME, Span.toHex(span.getSpanId()));
+		addHeader(headers, Span.TRACE_ID_NAME, span.traceIdHex());
+		addHeader(headers, Span.SPAN_ID_NAME, span.spanIdHex());
 
 		if (span.isExportable()) {
 			addAnnotations(traceKeys, message, span);
-			Long parentId = getFirst(span.getParents());
-			if (parentId != null) {
-				addHeader(headers, Span.PARENT_ID_NAME, Span.toHex(parentId));
-			}
+			addHeader(headers, Span.PARENT_ID_NAME, span.parentIdHex());
 			addHeader(headers, Span.SPAN_NAME_NAME, span.getName());
 			addHeader(headers, Span.PROCESS_ID_NAME, span.getProcessId());
 		}
@@ -77,32 +73,39 @@ public class SpanMessageHeaders {
 				.setHeader(SPAN_HEADER, span).build();
 	}
 
+	/**
+	 * Tags the span with the configured headers and the payload type and size. The
+	 * values are deferred until the span is stopped, and skipped for spans that are not
+	 * exportable.
+	 */
 	public static void addAnnotations(TraceKeys traceKeys, Message<?> message,
 			Span span) {
+		if (!span.isExportable()) {
+			return;
+		}
 		for (String name : traceKeys.getMessage().getHeaders()) {
 			if (message.getHeaders().containsKey(name)) {
 				String key = traceKeys.getMessage().getPrefix() + name.toLowerCase();
-				Object value = message.getHeaders().get(name);
-				if (value == null) {
-					value = "null";
-				}
-				span.tag(key, value.toString()); // TODO: better way to serialize?
+				final Object value = message.getHeaders().get(name);
+				// TODO: better way to serialize?
+				span.tag(key, () -> String.valueOf(value));
 			}
 		}
 		addPayloadAnnotations(traceKeys, message.getPayload(), span);
 	}
 
-	static void addPayloadAnnotations(TraceKeys traceKeys, Object payload, Span span) {
+	static void addPayloadAnnotations(TraceKeys traceKeys, final Object payload,
+			Span span) {
 		if (payload != null) {
 			span.tag(traceKeys.getMessage().getPayload().getType(),
-					payload.getClass().getCanonicalName());
+					() -> payload.getClass().getCanonicalName());
 			if (payload instanceof String) {
 				span.tag(traceKeys.getMessage().getPayload().getSize(),
-						String.valueOf(((String) payload).length()));
+						() -> String.valueOf(((String) payload).length()));
 			}
 			else if (payload instanceof byte[]) {
 				span.tag(traceKeys.getMessage().getPayload().getSize(),
-						String.valueOf(((byte[]) payload).length));
+						() -> String.valueOf(((byte[]) payload).length));
 			}
 		}
 	}
@@ -114,8 +117,4 @@ public class SpanMessageHeaders {
 		}
 	}
 
-	private static Long getFirst(List<Long> parents) {
-		return parents.isEmpty() ? null : parents.get(0);
-	}
-
 }
@@ -18,9 +18,12 @@ package org.springframework.cloud.sleuth.instrument.integration;
 
 import java.util.Random;
 
+import org.springframework.cloud.sleuth.IdGenerator;
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.id.RandomIdGenerator;
 import org.springframework.cloud.sleuth.instrument.TraceKeys;
+import org.springframework.cloud.sleuth.metric.TracerOverhead.Operation;
 import org.springframework.cloud.sleuth.sampler.IsTracingSampler;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
@@ -32,21 +35,32 @@ import org.springframework.messaging.MessageChannel;
 public class TraceChannelInterceptor extends AbstractTraceChannelInterceptor {
 
 	public TraceChannelInterceptor(Tracer tracer, TraceKeys traceKeys, Random random) {
-		super(tracer, traceKeys, random);
+		this(tracer, traceKeys, new RandomIdGenerator(random));
+	}
+
+	public TraceChannelInterceptor(Tracer tracer, TraceKeys traceKeys,
+			IdGenerator idGenerator) {
+		super(tracer, traceKeys, idGenerator);
 	}
 
 	@Override
 	public void postSend(Message<?> message, MessageChannel channel, boolean sent) {
+		long start = getTracerOverhead().start();
 		getTracer().close(SpanMessageHeaders.getSpanFromHeader(message));
+		getTracerOverhead().record(Operation.MESSAGE_POST_SEND, start);
 	}
 
 	@Override
 	public Message<?> preSend(Message<?> message, MessageChannel channel) {
+		long start = getTracerOverhead().start();
 		Span parentSpan = getTracer().isTracing() ? getTracer().getCurrentSpan()
 				: buildSpan(message);
 		String name = getMessageChannelName(channel);
 		Span span = startSpan(parentSpan, name, message);
-		return SpanMessageHeaders.addSpanHeaders(getTraceKeys(), message, span);
+		Message<?> result = SpanMessageHeaders.addSpanHeaders(getTraceKeys(), message,
+				span);
+		getTracerOverhead().record(Operation.MESSAGE_PRE_SEND, start);
+		return result;
 	}
 
 	private Span startSpan(Span span, String name, Message<?> message) {
@@ -54,7 +68,7 @@ public class TraceChannelInterceptor extends AbstractTraceChannelInterceptor {
 			return getTracer().joinTrace(name, span);
 		}
 		if (message.getHeaders().containsKey(Span.NOT_SAMPLED_NAME)) {
-			return getTracer().startTrace(name, IsTracingSampler.INSTANCE);
+			return getTracer().startTrace(name, new IsTracingSampler(getTracer()));
 		}
 		return getTracer().startTrace(name);
 	}
@@ -16,16 +16,16 @@
 
 package org.springframework.cloud.sleuth.instrument.integration;
 
-import java.util.Random;
-
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.sleuth.IdGenerator;
 import org.springframework.cloud.sleuth.Tracer;
 import org.springframework.cloud.sleuth.autoconfig.TraceAutoConfiguration;
 import org.springframework.cloud.sleuth.instrument.TraceKeys;
+import org.springframework.cloud.sleuth.metric.TracerOverhead;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.integration.config.GlobalChannelInterceptor;
@@ -44,8 +44,11 @@ public class TraceSpringIntegrationAutoConfiguration {
 	@Bean
 	@GlobalChannelInterceptor
 	public TraceChannelInterceptor traceChannelInterceptor(Tracer tracer,
-			TraceKeys traceKeys, Random random) {
-		return new TraceChannelInterceptor(tracer, traceKeys, random);
+			TraceKeys traceKeys, IdGenerator idGenerator, TracerOverhead overhead) {
+		TraceChannelInterceptor interceptor = new TraceChannelInterceptor(tracer,
+				traceKeys, idGenerator);
+		interceptor.setTracerOverhead(overhead);
+		return interceptor;
 	}
 
 }
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.rxjava;
+
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.sleuth.autoconfig.TraceAutoConfiguration;
+import org.springframework.cloud.sleuth.trace.CurrentTraceContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import rx.plugins.RxJavaSchedulersHook;
+
+/**
+ * Registers the {@link SleuthRxJavaSchedulersHook} that propagates the span in scope
+ * across RxJava schedulers.
+ */
+@Configuration
+@ConditionalOnClass(RxJavaSchedulersHook.class)
+@ConditionalOnProperty(value = "spring.sleuth.rxjava.schedulers.hook.enabled", matchIfMissing = true)
+@ConditionalOnBean(CurrentTraceContext.class)
+@AutoConfigureAfter(TraceAutoConfiguration.class)
+public class RxJavaAutoConfiguration {
+
+	@Bean
+	SleuthRxJavaSchedulersHook sleuthRxJavaSchedulersHook(
+			CurrentTraceContext currentTraceContext) {
+		return new SleuthRxJavaSchedulersHook(currentTraceContext);
+	}
+}
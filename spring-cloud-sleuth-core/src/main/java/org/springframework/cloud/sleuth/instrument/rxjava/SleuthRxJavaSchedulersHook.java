@@ -0,0 +1,54 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.rxjava;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.sleuth.trace.CurrentTraceContext;
+
+import rx.functions.Action0;
+import rx.plugins.RxJavaPlugins;
+import rx.plugins.RxJavaSchedulersHook;
+
+/**
+ * {@link RxJavaSchedulersHook} that carries the span in scope over to the actions RxJava
+ * schedules, so that it survives {@code subscribeOn} and {@code observeOn} hops. RxJava
+ * accepts a single hook per JVM; if another one is already registered this one is not
+ * used.
+ */
+@Slf4j
+public class SleuthRxJavaSchedulersHook extends RxJavaSchedulersHook {
+
+	private final CurrentTraceContext currentTraceContext;
+
+	public SleuthRxJavaSchedulersHook(CurrentTraceContext currentTraceContext) {
+		this.currentTraceContext = currentTraceContext;
+		try {
+			RxJavaPlugins.getInstance().registerSchedulersHook(this);
+		} catch (Exception e) {
+			RxJavaSchedulersHook schedulersHook = RxJavaPlugins.getInstance().getSchedulersHook();
+			log.debug("Failed to register Sleuth RxJava Schedulers Hook. Will use the current one which is [" + schedulersHook + "]", e);
+		}
+	}
+
+	@Override
+	public Action0 onSchedule(Action0 action) {
+		if (action instanceof TraceAction) {
+			return action;
+		}
+		return new TraceAction(this.currentTraceContext, action);
+	}
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.rxjava;
+
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.instrument.TraceContextDelegate;
+import org.springframework.cloud.sleuth.trace.CurrentTraceContext;
+
+import rx.functions.Action0;
+
+/**
+ * {@link Action0} scheduled by RxJava that runs with the span that was in scope when it
+ * was scheduled. It doesn't start a span, as an observable chain schedules an action
+ * per hop.
+ */
+public class TraceAction extends TraceContextDelegate<Action0> implements Action0 {
+
+	public TraceAction(CurrentTraceContext currentTraceContext, Action0 delegate) {
+		super(currentTraceContext, delegate);
+	}
+
+	@Override
+	public void call() {
+		if (getParent() == null) {
+			getDelegate().call();
+			return;
+		}
+		Span previous = attach();
+		try {
+			getDelegate().call();
+		}
+		finally {
+			restore(previous);
+		}
+	}
+}
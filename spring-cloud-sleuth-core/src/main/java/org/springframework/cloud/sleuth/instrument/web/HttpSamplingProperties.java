@@ -0,0 +1,63 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.sleuth.instrument.web;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Sampling rules for HTTP requests that start a new trace. The first rule matching the
+ * method and path of the request decides, requests no rule matches are sampled by the
+ * default {@link org.springframework.cloud.sleuth.Sampler}.
+ *
+ * @see HttpSamplingRules
+ */
+@ConfigurationProperties("spring.sleuth.web.sampling")
+@Data
+public class HttpSamplingProperties {
+
+	private List<Rule> rules = new ArrayList<>();
+
+	@Data
+	public static class Rule {
+
+		/**
+		 * HTTP method the rule applies to, e.g. GET. Any method if not set.
+		 */
+		private String method;
+
+		/**
+		 * Ant-style path pattern the rule applies to, e.g. /health/** or /**&#47;*.png
+		 */
+		private String path;
+
+		/**
+		 * Percentage of the matching requests that should be sampled, between 0.0 and
+		 * 1.0.
+		 */
+		private float percentage = 1.0f;
+
+		/**
+		 * Maximum number of new traces per second sampled for the matching requests.
+		 * Takes precedence over the percentage when set.
+		 */
+		private Integer tracesPerSecond;
+	}
+}
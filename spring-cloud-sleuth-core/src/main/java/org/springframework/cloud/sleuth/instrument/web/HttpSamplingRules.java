@@ -0,0 +1,229 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.sleuth.instrument.web;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.cloud.sleuth.Sampler;
+import org.springframework.cloud.sleuth.sampler.PercentageBasedSampler;
+import org.springframework.cloud.sleuth.sampler.RateLimitingSampler;
+import org.springframework.cloud.sleuth.sampler.SamplerConfiguration;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link HttpSamplingProperties.Rule Sampling rules} compiled into a trie of path
+ * segments, so that finding the rule for a request walks the segments of its path once
+ * instead of matching it against every pattern.
+ * <p>
+ * Path patterns are Ant-style: {@code ?} matches one character and {@code *} any
+ * characters within a segment, {@code **} matches any number of segments and
+ * {@code {name}} is the same as {@code *}. The first rule (in the order they were given)
+ * matching both the method and the path wins.
+ * <p>
+ * Instances are immutable, so they can be swapped while requests are matched against
+ * them.
+ */
+public final class HttpSamplingRules {
+
+	public static final HttpSamplingRules NONE = new HttpSamplingRules(
+			Collections.<HttpSamplingProperties.Rule>emptyList());
+
+	private static final String ANY_SEGMENTS = "**";
+
+	private final Node root = new Node();
+
+	/**
+	 * Method of each rule, {@code null} for any method
+	 */
+	private final String[] methods;
+
+	private final Sampler[] samplers;
+
+	public HttpSamplingRules(List<HttpSamplingProperties.Rule> rules) {
+		this.methods = new String[rules.size()];
+		this.samplers = new Sampler[rules.size()];
+		for (int i = 0; i < rules.size(); i++) {
+			HttpSamplingProperties.Rule rule = rules.get(i);
+			Assert.hasText(rule.getPath(), "Sampling rules must have a path");
+			this.methods[i] = StringUtils.hasText(rule.getMethod()) ? rule.getMethod()
+					: null;
+			this.samplers[i] = sampler(rule);
+			add(rule.getPath(), i);
+		}
+	}
+
+	/**
+	 * The sampler of the first rule matching the request, or {@code null} if none does.
+	 */
+	public Sampler samplerFor(String method, String path) {
+		int rule = indexOf(method, path);
+		return rule < 0 ? null : this.samplers[rule];
+	}
+
+	/**
+	 * The index of the first rule matching the request, or -1 if none does.
+	 */
+	int indexOf(String method, String path) {
+		if (this.samplers.length == 0) {
+			return -1;
+		}
+		String[] segments = StringUtils.tokenizeToStringArray(path, "/");
+		int rule = match(this.root, segments, 0, method, this.samplers.length);
+		return rule < this.samplers.length ? rule : -1;
+	}
+
+	private static Sampler sampler(HttpSamplingProperties.Rule rule) {
+		SamplerConfiguration configuration = new SamplerConfiguration();
+		configuration.setPercentage(rule.getPercentage());
+		configuration.setTracesPerSecond(rule.getTracesPerSecond());
+		if (rule.getTracesPerSecond() != null) {
+			return new RateLimitingSampler(configuration);
+		}
+		return new PercentageBasedSampler(configuration);
+	}
+
+	private void add(String path, int rule) {
+		Node node = this.root;
+		node.firstRule = Math.min(node.firstRule, rule);
+		for (String segment : StringUtils.tokenizeToStringArray(path, "/")) {
+			node = node.child(segment);
+			node.firstRule = Math.min(node.firstRule, rule);
+		}
+		node.rules.add(rule);
+	}
+
+	/**
+	 * The first rule matching the given segments from the given index on under the
+	 * given node if it comes before the best one found so far, or that best one.
+	 */
+	private int match(Node node, String[] segments, int index, String method,
+			int best) {
+		if (node.firstRule >= best) {
+			return best;
+		}
+		if (index == segments.length) {
+			best = matchMethod(node, method, best);
+		}
+		else {
+			String segment = segments[index];
+			Node literal = node.literals.get(segment);
+			if (literal != null) {
+				best = match(literal, segments, index + 1, method, best);
+			}
+			for (Map.Entry<String, Node> pattern : node.patterns.entrySet()) {
+				if (matchesSegment(pattern.getKey(), segment)) {
+					best = match(pattern.getValue(), segments, index + 1, method, best);
+				}
+			}
+		}
+		if (node.anySegments != null) {
+			for (int i = index; i <= segments.length; i++) {
+				best = match(node.anySegments, segments, i, method, best);
+			}
+		}
+		return best;
+	}
+
+	private int matchMethod(Node node, String method, int best) {
+		for (int rule : node.rules) {
+			if (rule >= best) {
+				break;
+			}
+			if (this.methods[rule] == null || this.methods[rule].equalsIgnoreCase(method)) {
+				return rule;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Whether the segment matches a pattern with {@code *} and {@code ?} wildcards.
+	 */
+	static boolean matchesSegment(String pattern, String segment) {
+		int p = 0;
+		int s = 0;
+		int star = -1;
+		int starMatch = 0;
+		while (s < segment.length()) {
+			if (p < pattern.length() && (pattern.charAt(p) == '?'
+					|| pattern.charAt(p) == segment.charAt(s))) {
+				p++;
+				s++;
+			}
+			else if (p < pattern.length() && pattern.charAt(p) == '*') {
+				star = p++;
+				starMatch = s;
+			}
+			else if (star != -1) {
+				p = star + 1;
+				s = ++starMatch;
+			}
+			else {
+				return false;
+			}
+		}
+		while (p < pattern.length() && pattern.charAt(p) == '*') {
+			p++;
+		}
+		return p == pattern.length();
+	}
+
+	private static final class Node {
+
+		final Map<String, Node> literals = new HashMap<>();
+
+		/**
+		 * Children for segments with wildcards, keyed by the segment pattern
+		 */
+		final Map<String, Node> patterns = new LinkedHashMap<>();
+
+		Node anySegments;
+
+		/**
+		 * Rules ending at this node, in order
+		 */
+		final List<Integer> rules = new ArrayList<>();
+
+		/**
+		 * The first rule ending at this node or below, to prune the search
+		 */
+		int firstRule = Integer.MAX_VALUE;
+
+		Node child(String segment) {
+			if (ANY_SEGMENTS.equals(segment)) {
+				if (this.anySegments == null) {
+					this.anySegments = new Node();
+				}
+				return this.anySegments;
+			}
+			String pattern = segment.replaceAll("\\{[^/]*?\\}", "*");
+			Map<String, Node> children = pattern.indexOf('*') >= 0
+					|| pattern.indexOf('?') >= 0 ? this.patterns : this.literals;
+			Node child = children.get(pattern);
+			if (child == null) {
+				child = new Node();
+				children.put(pattern, child);
+			}
+			return child;
+		}
+	}
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.sleuth.instrument.web;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Matches request paths against a skip {@link Pattern} without running the regex for
+ * the usual shapes of its alternatives: exact paths ({@code /info}), prefixes
+ * ({@code /metrics.*}) and suffixes ({@code .*\.png}). Exact paths and file extensions
+ * are hash lookups, the few other prefixes and suffixes are compared directly. Only
+ * the alternatives that don't have one of these shapes are left to a regex. Patterns with
+ * flags or special constructs, like {@code (?i)}, are matched by the regex as a whole.
+ */
+public final class SkipPatternMatcher {
+
+	private static final String ANY = ".*";
+
+	private static final String METACHARACTERS = ".^$*+?()[]{}|";
+
+	private final Set<String> exact = new HashSet<>();
+
+	/**
+	 * Suffixes that are a file extension, like {@code .png}
+	 */
+	private final Set<String> extensions = new HashSet<>();
+
+	private final List<String> prefixes = new ArrayList<>();
+
+	private final List<String> suffixes = new ArrayList<>();
+
+	/**
+	 * The alternatives that are none of the above, or {@code null}
+	 */
+	private final Pattern rest;
+
+	public SkipPatternMatcher(Pattern pattern) {
+		// flags, whether passed in or embedded like (?i), may apply across alternatives
+		boolean plain = pattern.flags() == 0 && !pattern.pattern().contains("(?");
+		List<String> alternatives = plain ? alternatives(pattern.pattern()) : null;
+		if (alternatives == null) {
+			this.rest = pattern;
+			return;
+		}
+		List<String> rest = new ArrayList<>();
+		for (String alternative : alternatives) {
+			if (!add(alternative)) {
+				rest.add(alternative);
+			}
+		}
+		this.rest = rest.isEmpty() ? null
+				: Pattern.compile(StringUtils.collectionToDelimitedString(rest, "|"));
+	}
+
+	public boolean matches(String path) {
+		if (this.exact.contains(path)) {
+			return true;
+		}
+		int dot = path.lastIndexOf('.');
+		if (dot >= 0 && !this.extensions.isEmpty()
+				&& this.extensions.contains(path.substring(dot))) {
+			return true;
+		}
+		for (int i = 0; i < this.prefixes.size(); i++) {
+			if (path.startsWith(this.prefixes.get(i))) {
+				return true;
+			}
+		}
+		for (int i = 0; i < this.suffixes.size(); i++) {
+			if (path.endsWith(this.suffixes.get(i))) {
+				return true;
+			}
+		}
+		return this.rest != null && this.rest.matcher(path).matches();
+	}
+
+	private boolean add(String alternative) {
+		if (alternative.startsWith(ANY)) {
+			String suffix = literal(alternative.substring(ANY.length()));
+			if (suffix == null) {
+				return false;
+			}
+			if (suffix.lastIndexOf('.') == 0 && suffix.indexOf('/') < 0) {
+				this.extensions.add(suffix);
+			}
+			else {
+				this.suffixes.add(suffix);
+			}
+			return true;
+		}
+		if (alternative.endsWith(ANY)) {
+			String prefix = literal(
+					alternative.substring(0, alternative.length() - ANY.length()));
+			if (prefix == null) {
+				return false;
+			}
+			this.prefixes.add(prefix);
+			return true;
+		}
+		String path = literal(alternative);
+		if (path == null) {
+			return false;
+		}
+		this.exact.add(path);
+		return true;
+	}
+
+	/**
+	 * The text the regex matches if it only matches that text, {@code null} otherwise.
+	 */
+	static String literal(String regex) {
+		StringBuilder literal = new StringBuilder(regex.length());
+		for (int i = 0; i < regex.length(); i++) {
+			char c = regex.charAt(i);
+			if (c == '\\') {
+				if (++i == regex.length() || Character.isLetterOrDigit(regex.charAt(i))) {
+					// a dangling backslash or a character class like \d
+					return null;
+				}
+				literal.append(regex.charAt(i));
+			}
+			else if (METACHARACTERS.indexOf(c) >= 0) {
+				return null;
+			}
+			else {
+				literal.append(c);
+			}
+		}
+		return literal.toString();
+	}
+
+	/**
+	 * The top level alternatives of the regex, or {@code null} if it can't be split.
+	 */
+	static List<String> alternatives(String regex) {
+		List<String> alternatives = new ArrayList<>();
+		int depth = 0;
+		boolean inClass = false;
+		int start = 0;
+		for (int i = 0; i < regex.length(); i++) {
+			char c = regex.charAt(i);
+			if (c == '\\') {
+				i++;
+			}
+			else if (inClass) {
+				inClass = c != ']';
+			}
+			else if (c == '[') {
+				inClass = true;
+			}
+			else if (c == '(') {
+				depth++;
+			}
+			else if (c == ')') {
+				depth--;
+			}
+			else if (c == '|' && depth == 0) {
+				alternatives.add(regex.substring(start, i));
+				start = i + 1;
+			}
+		}
+		if (depth != 0 || inClass) {
+			return null;
+		}
+		alternatives.add(regex.substring(start));
+		return alternatives;
+	}
+}
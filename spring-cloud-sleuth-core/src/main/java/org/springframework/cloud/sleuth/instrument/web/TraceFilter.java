@@ -20,7 +20,6 @@ import static org.springframework.util.StringUtils.hasText;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Enumeration;
 import java.util.Random;
 import java.util.regex.Pattern;
 
@@ -29,15 +28,21 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.cloud.sleuth.IdGenerator;
+import org.springframework.cloud.sleuth.Sampler;
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.Span.SpanBuilder;
 import org.springframework.cloud.sleuth.Tracer;
-import org.springframework.cloud.sleuth.event.ServerReceivedEvent;
-import org.springframework.cloud.sleuth.event.ServerSentEvent;
+import org.springframework.cloud.sleuth.event.ApplicationEventSpanListener;
+import org.springframework.cloud.sleuth.event.SpanListener;
+import org.springframework.cloud.sleuth.id.RandomIdGenerator;
+import org.springframework.cloud.sleuth.id.ThreadLocalRandomIdGenerator;
 import org.springframework.cloud.sleuth.instrument.TraceKeys;
+import org.springframework.cloud.sleuth.metric.TracerOverhead;
+import org.springframework.cloud.sleuth.metric.TracerOverhead.Operation;
 import org.springframework.cloud.sleuth.sampler.IsTracingSampler;
-import org.springframework.cloud.sleuth.trace.SpanContextHolder;
-import org.springframework.context.ApplicationEvent;
+import org.springframework.cloud.sleuth.trace.CurrentTraceContext;
+import org.springframework.cloud.sleuth.trace.ThreadLocalCurrentTraceContext;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.core.Ordered;
@@ -56,6 +61,11 @@ import org.springframework.web.util.UrlPathHelper;
  * {@link TraceKeys}. If you need to add additional tags, such as headers subtype this and
  * override {@link #addRequestTags} or {@link #addResponseTags}.
  *
+ * <p>
+ * Requests starting a new trace are sampled by the sampler of the first matching
+ * {@link HttpSamplingRules sampling rule}, if any, and by the tracer's default sampler
+ * otherwise.
+ *
  * @see Tracer
  * @see TraceKeys
  * @see TraceWebAutoConfiguration#traceWebFilter(TraceFilter)
@@ -73,42 +83,87 @@ public class TraceFilter extends OncePerRequestFilter
 	protected static final String TRACE_REQUEST_ATTR = TraceFilter.class.getName()
 			+ ".TRACE";
 
+	protected static final String TRACE_PARENT_REQUEST_ATTR = TraceFilter.class.getName()
+			+ ".PARENT";
+
+	private static final String TRACE_PATH_REQUEST_ATTR = TraceFilter.class.getName()
+			+ ".PATH";
+
 	public static final Pattern DEFAULT_SKIP_PATTERN = Pattern.compile(
-			"/api-docs.*|/autoconfig|/configprops|/dump|/info|/metrics.*|/mappings|/trace|/swagger.*|.*\\.png|.*\\.css|.*\\.js|.*\\.html|/favicon.ico|/hystrix.stream");
+			"/api-docs.*|/autoconfig|/configprops|/dump|/info|/metrics.*|/mappings|/trace|/swagger.*|.*\\.png|.*\\.css|.*\\.js|.*\\.html|/favicon\\.ico|/hystrix\\.stream");
 
 	private final Tracer tracer;
 	private final TraceKeys traceKeys;
-	private final Pattern skipPattern;
-	private final Random random;
+	private final SkipPatternMatcher skipPattern;
+	private final IdGenerator idGenerator;
+	private final Sampler isTracingSampler;
 
 	private UrlPathHelper urlPathHelper = new UrlPathHelper();
-	private ApplicationEventPublisher publisher;
+	private SpanListener spanListener;
+	private volatile HttpSamplingRules samplingRules = HttpSamplingRules.NONE;
+	private TracerOverhead overhead = TracerOverhead.NONE;
+	private CurrentTraceContext currentTraceContext = ThreadLocalCurrentTraceContext.INSTANCE;
 
 	public TraceFilter(Tracer tracer, TraceKeys traceKeys) {
-		this(tracer, traceKeys, DEFAULT_SKIP_PATTERN, new Random());
+		this(tracer, traceKeys, DEFAULT_SKIP_PATTERN, new ThreadLocalRandomIdGenerator());
 	}
 
 	public TraceFilter(Tracer tracer, TraceKeys traceKeys, Pattern skipPattern,
 			Random random) {
+		this(tracer, traceKeys, skipPattern, new RandomIdGenerator(random));
+	}
+
+	public TraceFilter(Tracer tracer, TraceKeys traceKeys, Pattern skipPattern,
+			IdGenerator idGenerator) {
 		this.tracer = tracer;
 		this.traceKeys = traceKeys;
-		this.skipPattern = skipPattern;
-		this.random = random;
+		this.skipPattern = new SkipPatternMatcher(skipPattern);
+		this.idGenerator = idGenerator;
+		this.isTracingSampler = new IsTracingSampler(tracer);
 	}
 
 	@Override
 	public void setApplicationEventPublisher(ApplicationEventPublisher publisher) {
-		this.publisher = publisher;
+		if (this.spanListener == null) {
+			this.spanListener = new ApplicationEventSpanListener(publisher);
+		}
+	}
+
+	public void setSpanListener(SpanListener spanListener) {
+		this.spanListener = spanListener;
+	}
+
+	/**
+	 * Replaces the sampling rules. Requests already being filtered keep the rules they
+	 * started with.
+	 */
+	public void setSamplingRules(HttpSamplingRules samplingRules) {
+		this.samplingRules = samplingRules;
+	}
+
+	/**
+	 * Measures the work done before and after passing the request down the chain.
+	 */
+	public void setTracerOverhead(TracerOverhead overhead) {
+		this.overhead = overhead;
+	}
+
+	/**
+	 * The context the tracer keeps the span in scope in, cleared before each request.
+	 */
+	public void setCurrentTraceContext(CurrentTraceContext currentTraceContext) {
+		this.currentTraceContext = currentTraceContext;
 	}
 
 	@Override
 	protected void doFilterInternal(HttpServletRequest request,
 			HttpServletResponse response, FilterChain filterChain)
 					throws ServletException, IOException {
-		SpanContextHolder.removeCurrentSpan();
+		long start = this.overhead.start();
+		this.currentTraceContext.removeCurrentSpan();
 
-		String uri = this.urlPathHelper.getPathWithinApplication(request);
-		boolean skip = this.skipPattern.matcher(uri).matches()
+		String uri = getPath(request);
+		boolean skip = this.skipPattern.matches(uri)
 				|| getHeader(request, response, Span.NOT_SAMPLED_NAME) != null;
 
 		Span spanFromRequest = (Span) request.getAttribute(TRACE_REQUEST_ATTR);
@@ -122,13 +177,13 @@ public class TraceFilter extends OncePerRequestFilter
 		String name = "http" + uri;
 		if (spanFromRequest == null) {
 			if (hasHeader(request, response, Span.TRACE_ID_NAME)) {
-				long traceId = Span
-						.fromHex(getHeader(request, response, Span.TRACE_ID_NAME));
+				String traceId = getHeader(request, response, Span.TRACE_ID_NAME);
 				long spanId = hasHeader(request, response, Span.SPAN_ID_NAME)
 						? Span.fromHex(getHeader(request, response, Span.SPAN_ID_NAME))
-						: this.random.nextLong();
+						: this.idGenerator.nextId();
 
-				SpanBuilder span = Span.builder().traceId(traceId).spanId(spanId);
+				SpanBuilder span = Span.builder().traceId(Span.fromHex(traceId))
+						.traceIdHigh(Span.highBitsFromHex(traceId)).spanId(spanId);
 				if (skip) {
 					span.exportable(false);
 				}
@@ -151,14 +206,17 @@ public class TraceFilter extends OncePerRequestFilter
 
 				Span parent = span.build();
 				spanFromRequest = this.tracer.joinTrace(name, parent);
-				publish(new ServerReceivedEvent(this, parent, spanFromRequest));
+				if (this.spanListener != null) {
+					this.spanListener.serverReceived(parent, spanFromRequest);
+				}
 				request.setAttribute(TRACE_REQUEST_ATTR, spanFromRequest);
-
+				request.setAttribute(TRACE_PARENT_REQUEST_ATTR, parent);
 			}
 			else {
-				if (skip) {
-					spanFromRequest = this.tracer.startTrace(name,
-							IsTracingSampler.INSTANCE);
+				Sampler sampler = skip ? this.isTracingSampler
+						: this.samplingRules.samplerFor(request.getMethod(), uri);
+				if (sampler != null) {
+					spanFromRequest = this.tracer.startTrace(name, sampler);
 				}
 				else {
 					spanFromRequest = this.tracer.startTrace(name);
@@ -170,7 +228,10 @@ public class TraceFilter extends OncePerRequestFilter
 		Throwable exception = null;
 		try {
 
-			addRequestTags(request);
+			if (spanFromRequest.isExportable()) {
+				addRequestTags(request);
+			}
+			this.overhead.record(Operation.FILTER_BEFORE, start);
 			filterChain.doFilter(request, response);
 
 		}
@@ -179,8 +240,10 @@ public class TraceFilter extends OncePerRequestFilter
 			throw e;
 		}
 		finally {
+			start = this.overhead.start();
 			if (isAsyncStarted(request) || request.isAsyncStarted()) {
 				this.tracer.detach(spanFromRequest);
+				this.overhead.record(Operation.FILTER_AFTER, start);
 				// TODO: how to deal with response annotations and async?
 				return;
 			}
@@ -188,51 +251,79 @@ public class TraceFilter extends OncePerRequestFilter
 				addToResponseIfNotPresent(response, Span.NOT_SAMPLED_NAME, "");
 			}
 			if (spanFromRequest != null) {
-				addResponseTags(response, exception);
+				if (spanFromRequest.isExportable()) {
+					addResponseTags(response, exception);
+				}
 				addResponseHeaders(response, spanFromRequest);
-				if (spanFromRequest.hasSavedSpan()) {
-					publish(new ServerSentEvent(this, spanFromRequest.getSavedSpan(),
-							spanFromRequest));
+				Span parent = getParent(request, spanFromRequest);
+				if (parent != null && this.spanListener != null) {
+					this.spanListener.serverSent(parent, spanFromRequest);
 				}
 				// Double close to clean up the parent (remote span as well)
 				this.tracer.close(this.tracer.close(spanFromRequest));
 			}
+			this.overhead.record(Operation.FILTER_AFTER, start);
 		}
 	}
 
 	private void addResponseHeaders(HttpServletResponse response, Span span) {
 		if (span != null) {
-			response.addHeader(Span.SPAN_ID_NAME, Span.toHex(span.getSpanId()));
-			response.addHeader(Span.TRACE_ID_NAME, Span.toHex(span.getTraceId()));
+			response.addHeader(Span.SPAN_ID_NAME, span.spanIdHex());
+			response.addHeader(Span.TRACE_ID_NAME, span.traceIdHex());
+		}
+	}
+
+	/**
+	 * The path within the application, decoded once per request.
+	 */
+	private String getPath(HttpServletRequest request) {
+		String path = (String) request.getAttribute(TRACE_PATH_REQUEST_ATTR);
+		if (path == null) {
+			path = this.urlPathHelper.getPathWithinApplication(request);
+			request.setAttribute(TRACE_PATH_REQUEST_ATTR, path);
 		}
+		return path;
 	}
 
-	private void publish(ApplicationEvent event) {
-		if (this.publisher != null) {
-			this.publisher.publishEvent(event);
+	/**
+	 * The remote parent is the saved span of the request span unless the tracer scopes
+	 * spans without copying them, in which case it's taken from the request.
+	 */
+	private Span getParent(HttpServletRequest request, Span span) {
+		if (span.hasSavedSpan()) {
+			return span.getSavedSpan();
 		}
+		return (Span) request.getAttribute(TRACE_PARENT_REQUEST_ATTR);
 	}
 
-	/** Override to add annotations not defined in {@link TraceKeys}. */
-	protected void addRequestTags(HttpServletRequest request) {
-		String uri = this.urlPathHelper.getPathWithinApplication(request);
-		this.tracer.addTag(this.traceKeys.getHttp().getUrl(), getFullUrl(request));
+	/**
+	 * Override to add annotations not defined in {@link TraceKeys}. Not called for spans
+	 * that are not exported. Values that take work to build are added as deferred tags,
+	 * computed when the span is closed.
+	 */
+	protected void addRequestTags(final HttpServletRequest request) {
+		this.tracer.addTag(this.traceKeys.getHttp().getUrl(), () -> getFullUrl(request));
 		this.tracer.addTag(this.traceKeys.getHttp().getHost(), request.getServerName());
-		this.tracer.addTag(this.traceKeys.getHttp().getPath(), uri);
+		this.tracer.addTag(this.traceKeys.getHttp().getPath(), getPath(request));
 		this.tracer.addTag(this.traceKeys.getHttp().getMethod(), request.getMethod());
-		for (String name : this.traceKeys.getHttp().getHeaders()) {
-			Enumeration<String> values = request.getHeaders(name);
-			if (values.hasMoreElements()) {
+		for (final String name : this.traceKeys.getHttp().getHeaders()) {
+			if (request.getHeader(name) != null) {
 				String key = this.traceKeys.getHttp().getPrefix() + name.toLowerCase();
-				ArrayList<String> list = Collections.list(values);
-				String value = list.size() == 1 ? list.get(0)
-						: StringUtils.collectionToDelimitedString(list, ",", "'", "'");
-				this.tracer.addTag(key, value);
+				this.tracer.addTag(key, () -> getHeaderValues(request, name));
 			}
 		}
 	}
 
-	/** Override to add annotations not defined in {@link TraceKeys}. */
+	private String getHeaderValues(HttpServletRequest request, String name) {
+		ArrayList<String> list = Collections.list(request.getHeaders(name));
+		return list.size() == 1 ? list.get(0)
+				: StringUtils.collectionToDelimitedString(list, ",", "'", "'");
+	}
+
+	/**
+	 * Override to add annotations not defined in {@link TraceKeys}. Not called for spans
+	 * that are not exported.
+	 */
 	protected void addResponseTags(HttpServletResponse response, Throwable e) {
 		int httpStatus = response.getStatus();
 		if (httpStatus == HttpServletResponse.SC_OK && e != null) {
@@ -15,26 +15,36 @@
  */
 package org.springframework.cloud.sleuth.instrument.web;
 
-import java.util.Random;
 import java.util.regex.Pattern;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.bind.PropertiesConfigurationFactory;
 import org.springframework.boot.context.embedded.FilterRegistrationBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.sleuth.IdGenerator;
 import org.springframework.cloud.sleuth.SpanAccessor;
 import org.springframework.cloud.sleuth.Tracer;
 import org.springframework.cloud.sleuth.autoconfig.TraceAutoConfiguration;
+import org.springframework.cloud.sleuth.event.CompositeSpanListener;
 import org.springframework.cloud.sleuth.instrument.TraceKeys;
-import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.cloud.sleuth.metric.TracerOverhead;
+import org.springframework.cloud.sleuth.trace.CurrentTraceContext;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.util.StringUtils;
+import org.springframework.validation.BindException;
+
+import lombok.extern.apachecommons.CommonsLog;
 
 /**
  * Registers beans that add tracing to requests
@@ -49,7 +59,7 @@ import org.springframework.util.StringUtils;
 @ConditionalOnWebApplication
 @ConditionalOnBean(Tracer.class)
 @AutoConfigureAfter(TraceAutoConfiguration.class)
-@EnableConfigurationProperties(TraceKeys.class)
+@EnableConfigurationProperties({ TraceKeys.class, HttpSamplingProperties.class })
 public class TraceWebAutoConfiguration {
 
 	/**
@@ -67,6 +77,9 @@ public class TraceWebAutoConfiguration {
 	@Autowired
 	private TraceKeys traceKeys;
 
+	@Autowired
+	private HttpSamplingProperties samplingProperties;
+
 	@Bean
 	public TraceWebAspect traceWebAspect() {
 		return new TraceWebAspect(this.tracer, this.accessor);
@@ -74,11 +87,17 @@ public class TraceWebAutoConfiguration {
 
 	@Bean
 	@ConditionalOnMissingBean
-	public TraceFilter traceFilter(ApplicationEventPublisher publisher, Random random) {
+	public TraceFilter traceFilter(CompositeSpanListener spanListener,
+			IdGenerator idGenerator, TracerOverhead overhead,
+			CurrentTraceContext currentTraceContext) {
 		Pattern pattern = StringUtils.hasText(this.skipPattern) ? Pattern.compile(this.skipPattern)
 				: TraceFilter.DEFAULT_SKIP_PATTERN;
-		TraceFilter filter = new TraceFilter(this.tracer, this.traceKeys, pattern, random);
-		filter.setApplicationEventPublisher(publisher);
+		TraceFilter filter = new TraceFilter(this.tracer, this.traceKeys, pattern,
+				idGenerator);
+		filter.setSpanListener(spanListener);
+		filter.setSamplingRules(new HttpSamplingRules(this.samplingProperties.getRules()));
+		filter.setTracerOverhead(overhead);
+		filter.setCurrentTraceContext(currentTraceContext);
 		return filter;
 	}
 
@@ -86,4 +105,49 @@ public class TraceWebAutoConfiguration {
 	public FilterRegistrationBean traceWebFilter(TraceFilter filter) {
 		return new FilterRegistrationBean(filter);
 	}
+
+	@Configuration
+	@ConditionalOnClass(name = "org.springframework.cloud.context.environment.EnvironmentChangeEvent")
+	@CommonsLog
+	protected static class HttpSamplingRulesRefreshConfiguration {
+
+		private static final String PREFIX = "spring.sleuth.web.sampling";
+
+		@Bean
+		public ApplicationListener<EnvironmentChangeEvent> httpSamplingRulesRefresher(
+				final TraceFilter traceFilter, final ConfigurableEnvironment environment) {
+			return new ApplicationListener<EnvironmentChangeEvent>() {
+				@Override
+				public void onApplicationEvent(EnvironmentChangeEvent event) {
+					for (String key : event.getKeys()) {
+						if (key.startsWith(PREFIX)) {
+							refresh(traceFilter, environment);
+							return;
+						}
+					}
+				}
+			};
+		}
+
+		/**
+		 * Binds the rules from the environment instead of relying on the properties bean
+		 * being rebound before this listener is called. Rules that cannot be bound leave
+		 * the previous ones in place.
+		 */
+		static void refresh(TraceFilter traceFilter, ConfigurableEnvironment environment) {
+			HttpSamplingProperties properties = new HttpSamplingProperties();
+			PropertiesConfigurationFactory<HttpSamplingProperties> factory =
+					new PropertiesConfigurationFactory<>(properties);
+			factory.setPropertySources(environment.getPropertySources());
+			factory.setTargetName(PREFIX);
+			try {
+				factory.bindPropertiesToTarget();
+			}
+			catch (BindException e) {
+				log.error("Cannot bind the sampling rules, keeping the previous ones", e);
+				return;
+			}
+			traceFilter.setSamplingRules(new HttpSamplingRules(properties.getRules()));
+		}
+	}
 }
@@ -38,12 +38,9 @@ import org.springframework.cloud.netflix.feign.support.SpringDecoder;
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.SpanAccessor;
 import org.springframework.cloud.sleuth.Tracer;
-import org.springframework.cloud.sleuth.event.ClientReceivedEvent;
-import org.springframework.cloud.sleuth.event.ClientSentEvent;
+import org.springframework.cloud.sleuth.event.CompositeSpanListener;
 import org.springframework.cloud.sleuth.instrument.hystrix.SleuthHystrixAutoConfiguration;
 import org.springframework.cloud.sleuth.instrument.hystrix.SleuthHystrixConcurrencyStrategy;
-import org.springframework.context.ApplicationEvent;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -78,7 +75,7 @@ public class TraceFeignClientAutoConfiguration {
 	private ObjectFactory<HttpMessageConverters> messageConverters;
 
 	@Autowired
-	private ApplicationEventPublisher publisher;
+	private CompositeSpanListener spanListener;
 
 	@Autowired
 	private SpanAccessor accessor;
@@ -108,7 +105,8 @@ public class TraceFeignClientAutoConfiguration {
 				finally {
 					Span span = getCurrentSpan();
 					if (span != null) {
-						publish(new ClientReceivedEvent(this, span));
+						TraceFeignClientAutoConfiguration.this.spanListener
+								.clientReceived(span);
 					}
 				}
 			}
@@ -125,32 +123,19 @@ public class TraceFeignClientAutoConfiguration {
 					setHeader(template, Span.NOT_SAMPLED_NAME, "true");
 					return;
 				}
-				template.header(Span.TRACE_ID_NAME, Span.toHex(span.getTraceId()));
+				template.header(Span.TRACE_ID_NAME, span.traceIdHex());
 				setHeader(template, Span.SPAN_NAME_NAME, span.getName());
-				setHeader(template, Span.SPAN_ID_NAME, Span.toHex(span.getSpanId()));
+				setHeader(template, Span.SPAN_ID_NAME, span.spanIdHex());
 				if (!span.isExportable()) {
 					setHeader(template, Span.NOT_SAMPLED_NAME, "true");
 				}
-				Long parentId = getParentId(span);
-				if (parentId != null) {
-					setHeader(template, Span.PARENT_ID_NAME, Span.toHex(parentId));
-				}
+				setHeader(template, Span.PARENT_ID_NAME, span.parentIdHex());
 				setHeader(template, Span.PROCESS_ID_NAME, span.getProcessId());
-				publish(new ClientSentEvent(this, span));
+				TraceFeignClientAutoConfiguration.this.spanListener.clientSent(span);
 			}
 		};
 	}
 
-	private void publish(ApplicationEvent event) {
-		if (this.publisher != null) {
-			this.publisher.publishEvent(event);
-		}
-	}
-
-	private Long getParentId(Span span) {
-		return !span.getParents().isEmpty() ? span.getParents().get(0) : null;
-	}
-
 	public void setHeader(RequestTemplate request, String name, String value) {
 		if (value != null && !request.headers().containsKey(name)
 				&& this.accessor.isTracing()) {
@@ -173,9 +158,9 @@ public class TraceFeignClientAutoConfiguration {
 			setHeader(newHeaders, Span.NOT_SAMPLED_NAME, "true");
 			return newHeaders;
 		}
-		setHeader(newHeaders, Span.TRACE_ID_NAME, span.getTraceId());
-		setHeader(newHeaders, Span.SPAN_ID_NAME, span.getSpanId());
-		setHeader(newHeaders, Span.PARENT_ID_NAME, getParentId(span));
+		setHeader(newHeaders, Span.TRACE_ID_NAME, span.traceIdHex());
+		setHeader(newHeaders, Span.SPAN_ID_NAME, span.spanIdHex());
+		setHeader(newHeaders, Span.PARENT_ID_NAME, span.parentIdHex());
 		return newHeaders;
 	}
 
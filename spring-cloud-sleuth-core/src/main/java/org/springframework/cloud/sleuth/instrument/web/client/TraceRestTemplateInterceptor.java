@@ -19,9 +19,10 @@ import java.io.IOException;
 
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.SpanAccessor;
-import org.springframework.cloud.sleuth.event.ClientReceivedEvent;
-import org.springframework.cloud.sleuth.event.ClientSentEvent;
-import org.springframework.context.ApplicationEvent;
+import org.springframework.cloud.sleuth.event.ApplicationEventSpanListener;
+import org.springframework.cloud.sleuth.event.SpanListener;
+import org.springframework.cloud.sleuth.metric.TracerOverhead;
+import org.springframework.cloud.sleuth.metric.TracerOverhead.Operation;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.http.HttpRequest;
@@ -42,56 +43,68 @@ import org.springframework.http.client.ClientHttpResponse;
 public class TraceRestTemplateInterceptor
 		implements ClientHttpRequestInterceptor, ApplicationEventPublisherAware {
 
-	private ApplicationEventPublisher publisher;
+	private SpanListener spanListener;
 
 	private SpanAccessor accessor;
 
+	private TracerOverhead overhead = TracerOverhead.NONE;
+
 	public TraceRestTemplateInterceptor(SpanAccessor accessor) {
 		this.accessor = accessor;
 	}
 
 	@Override
 	public void setApplicationEventPublisher(ApplicationEventPublisher publisher) {
-		this.publisher = publisher;
+		if (this.spanListener == null) {
+			this.spanListener = new ApplicationEventSpanListener(publisher);
+		}
+	}
+
+	public void setSpanListener(SpanListener spanListener) {
+		this.spanListener = spanListener;
+	}
+
+	public void setTracerOverhead(TracerOverhead overhead) {
+		this.overhead = overhead;
 	}
 
 	@Override
 	public ClientHttpResponse intercept(HttpRequest request, byte[] body,
 			ClientHttpRequestExecution execution) throws IOException {
+		long start = this.overhead.start();
 		Span span = getCurrentSpan();
 		if (span == null) {
 			setHeader(request, Span.NOT_SAMPLED_NAME, "true");
+			this.overhead.record(Operation.CLIENT_SEND, start);
 			return execution.execute(request, body);
 		}
-		setHeader(request, Span.TRACE_ID_NAME, span.getTraceId());
-		setHeader(request, Span.SPAN_ID_NAME, span.getSpanId());
+		setHeader(request, Span.TRACE_ID_NAME, span.traceIdHex());
+		setHeader(request, Span.SPAN_ID_NAME, span.spanIdHex());
 		if (!span.isExportable()) {
 			setHeader(request, Span.NOT_SAMPLED_NAME, "true");
 		}
 		setHeader(request, Span.SPAN_NAME_NAME, span.getName());
-		setHeader(request, Span.PARENT_ID_NAME, getParentId(span));
+		setHeader(request, Span.PARENT_ID_NAME, span.parentIdHex());
 		setHeader(request, Span.PROCESS_ID_NAME, span.getProcessId());
-		publish(new ClientSentEvent(this, span));
+		if (this.spanListener != null) {
+			this.spanListener.clientSent(span);
+		}
+		this.overhead.record(Operation.CLIENT_SEND, start);
 		return new TraceHttpResponse(this, execution.execute(request, body));
 	}
 
 	public void close() {
-		if (getCurrentSpan() == null) {
+		Span span = getCurrentSpan();
+		if (span == null) {
 			return;
 		}
-		publish(new ClientReceivedEvent(this, getCurrentSpan()));
-	}
-
-	private void publish(ApplicationEvent event) {
-		if (this.publisher != null) {
-			this.publisher.publishEvent(event);
+		if (this.spanListener != null) {
+			long start = this.overhead.start();
+			this.spanListener.clientReceived(span);
+			this.overhead.record(Operation.CLIENT_RECEIVE, start);
 		}
 	}
 
-	private Long getParentId(Span span) {
-		return !span.getParents().isEmpty() ? span.getParents().get(0) : null;
-	}
-
 	public void setHeader(HttpRequest request, String name, String value) {
 		if (value!=null && !request.getHeaders().containsKey(name) && this.accessor.isTracing()) {
 			request.getHeaders().add(name, value);
@@ -30,6 +30,8 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.sleuth.SpanAccessor;
 import org.springframework.cloud.sleuth.autoconfig.TraceAutoConfiguration;
+import org.springframework.cloud.sleuth.event.CompositeSpanListener;
+import org.springframework.cloud.sleuth.metric.TracerOverhead;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
@@ -47,8 +49,12 @@ public class TraceWebClientAutoConfiguration {
 
 	@Bean
 	@ConditionalOnMissingBean
-	public TraceRestTemplateInterceptor traceRestTemplateInterceptor(SpanAccessor accessor) {
-		return new TraceRestTemplateInterceptor(accessor);
+	public TraceRestTemplateInterceptor traceRestTemplateInterceptor(SpanAccessor accessor,
+			CompositeSpanListener spanListener, TracerOverhead overhead) {
+		TraceRestTemplateInterceptor interceptor = new TraceRestTemplateInterceptor(accessor);
+		interceptor.setSpanListener(spanListener);
+		interceptor.setTracerOverhead(overhead);
+		return interceptor;
 	}
 
 	@Bean
@@ -18,8 +18,8 @@ package org.springframework.cloud.sleuth.instrument.zuul;
 
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.SpanAccessor;
-import org.springframework.cloud.sleuth.event.ClientReceivedEvent;
-import org.springframework.context.ApplicationEvent;
+import org.springframework.cloud.sleuth.event.ApplicationEventSpanListener;
+import org.springframework.cloud.sleuth.event.SpanListener;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationEventPublisherAware;
 
@@ -32,7 +32,7 @@ import com.netflix.zuul.ZuulFilter;
 public class TracePostZuulFilter extends ZuulFilter
 		implements ApplicationEventPublisherAware {
 
-	private ApplicationEventPublisher publisher;
+	private SpanListener spanListener;
 
 	private final SpanAccessor accessor;
 
@@ -42,7 +42,13 @@ public class TracePostZuulFilter extends ZuulFilter
 
 	@Override
 	public void setApplicationEventPublisher(ApplicationEventPublisher publisher) {
-		this.publisher = publisher;
+		if (this.spanListener == null) {
+			this.spanListener = new ApplicationEventSpanListener(publisher);
+		}
+	}
+
+	public void setSpanListener(SpanListener spanListener) {
+		this.spanListener = spanListener;
 	}
 
 	@Override
@@ -53,7 +59,10 @@ public class TracePostZuulFilter extends ZuulFilter
 	@Override
 	public Object run() {
 		// TODO: the client sent event should come from the client not the filter!
-		publish(new ClientReceivedEvent(this, getCurrentSpan()));
+		Span span = getCurrentSpan();
+		if (this.spanListener != null && span != null) {
+			this.spanListener.clientReceived(span);
+		}
 		return null;
 	}
 
@@ -67,12 +76,6 @@ public class TracePostZuulFilter extends ZuulFilter
 		return 0;
 	}
 
-	private void publish(ApplicationEvent event) {
-		if (this.publisher != null) {
-			this.publisher.publishEvent(event);
-		}
-	}
-
 	private Span getCurrentSpan() {
 		return this.accessor.getCurrentSpan();
 	}
@@ -20,8 +20,8 @@ import java.util.Map;
 
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.SpanAccessor;
-import org.springframework.cloud.sleuth.event.ClientSentEvent;
-import org.springframework.context.ApplicationEvent;
+import org.springframework.cloud.sleuth.event.ApplicationEventSpanListener;
+import org.springframework.cloud.sleuth.event.SpanListener;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.util.ReflectionUtils;
@@ -36,7 +36,7 @@ import com.netflix.zuul.context.RequestContext;
 public class TracePreZuulFilter extends ZuulFilter
 		implements ApplicationEventPublisherAware {
 
-	private ApplicationEventPublisher publisher;
+	private SpanListener spanListener;
 
 	private final SpanAccessor accessor;
 
@@ -46,7 +46,13 @@ public class TracePreZuulFilter extends ZuulFilter
 
 	@Override
 	public void setApplicationEventPublisher(ApplicationEventPublisher publisher) {
-		this.publisher = publisher;
+		if (this.spanListener == null) {
+			this.spanListener = new ApplicationEventSpanListener(publisher);
+		}
+	}
+
+	public void setSpanListener(SpanListener spanListener) {
+		this.spanListener = spanListener;
 	}
 
 	@Override
@@ -66,16 +72,18 @@ public class TracePreZuulFilter extends ZuulFilter
 			return null;
 		}
 		try {
-			setHeader(response, Span.SPAN_ID_NAME, span.getSpanId());
-			setHeader(response, Span.TRACE_ID_NAME, span.getTraceId());
+			setHeader(response, Span.SPAN_ID_NAME, span.spanIdHex());
+			setHeader(response, Span.TRACE_ID_NAME, span.traceIdHex());
 			setHeader(response, Span.SPAN_NAME_NAME, span.getName());
 			if (!span.isExportable()) {
 				setHeader(response, Span.NOT_SAMPLED_NAME, "true");
 			}
-			setHeader(response, Span.PARENT_ID_NAME, getParentId(span));
+			setHeader(response, Span.PARENT_ID_NAME, span.parentIdHex());
 			setHeader(response, Span.PROCESS_ID_NAME, span.getProcessId());
 			// TODO: the client sent event should come from the client not the filter!
-			publish(new ClientSentEvent(this, span));
+			if (this.spanListener != null) {
+				this.spanListener.clientSent(span);
+			}
 		}
 		catch (Exception ex) {
 			ReflectionUtils.rethrowRuntimeException(ex);
@@ -87,10 +95,6 @@ public class TracePreZuulFilter extends ZuulFilter
 		return this.accessor.getCurrentSpan();
 	}
 
-	private Long getParentId(Span span) {
-		return !span.getParents().isEmpty() ? span.getParents().get(0) : null;
-	}
-
 	public void setHeader(Map<String, String> request, String name, String value) {
 		if (value != null && !request.containsKey(name) && this.accessor.isTracing()) {
 			request.put(name, value);
@@ -113,10 +117,4 @@ public class TracePreZuulFilter extends ZuulFilter
 		return 0;
 	}
 
-	private void publish(ApplicationEvent event) {
-		if (this.publisher != null) {
-			this.publisher.publishEvent(event);
-		}
-	}
-
 }
@@ -25,8 +25,8 @@ import org.springframework.cloud.netflix.zuul.filters.route.RestClientRibbonComm
 import org.springframework.cloud.netflix.zuul.filters.route.RibbonCommandContext;
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.SpanAccessor;
-import org.springframework.cloud.sleuth.event.ClientSentEvent;
-import org.springframework.context.ApplicationEvent;
+import org.springframework.cloud.sleuth.event.ApplicationEventSpanListener;
+import org.springframework.cloud.sleuth.event.SpanListener;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.util.MultiValueMap;
@@ -42,7 +42,7 @@ import lombok.SneakyThrows;
 public class TraceRestClientRibbonCommandFactory extends RestClientRibbonCommandFactory
 		implements ApplicationEventPublisherAware {
 
-	private ApplicationEventPublisher publisher;
+	private SpanListener spanListener;
 
 	private final SpanAccessor accessor;
 
@@ -54,7 +54,13 @@ public class TraceRestClientRibbonCommandFactory extends RestClientRibbonCommand
 
 	@Override
 	public void setApplicationEventPublisher(ApplicationEventPublisher publisher) {
-		this.publisher = publisher;
+		if (this.spanListener == null) {
+			this.spanListener = new ApplicationEventSpanListener(publisher);
+		}
+	}
+
+	public void setSpanListener(SpanListener spanListener) {
+		this.spanListener = spanListener;
 	}
 
 	@Override
@@ -66,12 +72,12 @@ public class TraceRestClientRibbonCommandFactory extends RestClientRibbonCommand
 		return new TraceRestClientRibbonCommand(context.getServiceId(), restClient,
 				getVerb(context.getVerb()), context.getUri(), context.getRetryable(),
 				context.getHeaders(), context.getParams(), context.getRequestEntity(),
-				this.publisher, this.accessor);
+				this.spanListener, this.accessor);
 	}
 
 	class TraceRestClientRibbonCommand extends RestClientRibbonCommand {
 
-		private ApplicationEventPublisher publisher;
+		private SpanListener spanListener;
 
 		private final SpanAccessor accessor;
 
@@ -80,11 +86,11 @@ public class TraceRestClientRibbonCommandFactory extends RestClientRibbonCommand
 				HttpRequest.Verb verb, String uri, Boolean retryable,
 				MultiValueMap<String, String> headers,
 				MultiValueMap<String, String> params, InputStream requestEntity,
-				ApplicationEventPublisher publisher, SpanAccessor accessor)
+				SpanListener spanListener, SpanAccessor accessor)
 						throws URISyntaxException {
 			super(commandKey, restClient, verb, uri, retryable, headers, params,
 					requestEntity);
-			this.publisher = publisher;
+			this.spanListener = spanListener;
 			this.accessor = accessor;
 		}
 
@@ -95,27 +101,17 @@ public class TraceRestClientRibbonCommandFactory extends RestClientRibbonCommand
 				setHeader(requestBuilder, Span.NOT_SAMPLED_NAME, "true");
 				return;
 			}
-			setHeader(requestBuilder, Span.TRACE_ID_NAME, Span.toHex(span.getTraceId()));
-			setHeader(requestBuilder, Span.SPAN_ID_NAME, Span.toHex(span.getSpanId()));
+			setHeader(requestBuilder, Span.TRACE_ID_NAME, span.traceIdHex());
+			setHeader(requestBuilder, Span.SPAN_ID_NAME, span.spanIdHex());
 			setHeader(requestBuilder, Span.SPAN_NAME_NAME, span.getName());
-			setHeader(requestBuilder, Span.PARENT_ID_NAME,
-					Span.toHex(getParentId(span)));
+			setHeader(requestBuilder, Span.PARENT_ID_NAME, span.parentIdHex());
 			setHeader(requestBuilder, Span.PROCESS_ID_NAME,
 					span.getProcessId());
-			publish(new ClientSentEvent(this, span));
-		}
-
-		private void publish(ApplicationEvent event) {
-			if (this.publisher != null) {
-				this.publisher.publishEvent(event);
+			if (this.spanListener != null) {
+				this.spanListener.clientSent(span);
 			}
 		}
 
-		private Long getParentId(Span span) {
-			return !span.getParents().isEmpty()
-					? span.getParents().get(0) : null;
-		}
-
 		public void setHeader(HttpRequest.Builder builder, String name, String value) {
 			if (value != null && this.accessor.isTracing()) {
 				builder.header(name, value);
@@ -25,6 +25,7 @@ import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
 import org.springframework.cloud.sleuth.SpanAccessor;
 import org.springframework.cloud.sleuth.Tracer;
 import org.springframework.cloud.sleuth.autoconfig.TraceAutoConfiguration;
+import org.springframework.cloud.sleuth.event.CompositeSpanListener;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -45,19 +46,28 @@ public class TraceZuulAutoConfiguration {
 
 	@Bean
 	@ConditionalOnMissingBean
-	public TracePreZuulFilter tracePreZuulFilter(SpanAccessor accessor) {
-		return new TracePreZuulFilter(accessor);
+	public TracePreZuulFilter tracePreZuulFilter(SpanAccessor accessor,
+			CompositeSpanListener spanListener) {
+		TracePreZuulFilter filter = new TracePreZuulFilter(accessor);
+		filter.setSpanListener(spanListener);
+		return filter;
 	}
 
 	@Bean
-	public TraceRestClientRibbonCommandFactory traceRestClientRibbonCommandFactory(SpringClientFactory factory, SpanAccessor accessor) {
-		return new TraceRestClientRibbonCommandFactory(factory, accessor);
+	public TraceRestClientRibbonCommandFactory traceRestClientRibbonCommandFactory(SpringClientFactory factory, SpanAccessor accessor,
+			CompositeSpanListener spanListener) {
+		TraceRestClientRibbonCommandFactory commandFactory = new TraceRestClientRibbonCommandFactory(factory, accessor);
+		commandFactory.setSpanListener(spanListener);
+		return commandFactory;
 	}
 
 	@Bean
 	@ConditionalOnMissingBean
-	public TracePostZuulFilter tracePostZuulFilter(SpanAccessor accessor) {
-		return new TracePostZuulFilter(accessor);
+	public TracePostZuulFilter tracePostZuulFilter(SpanAccessor accessor,
+			CompositeSpanListener spanListener) {
+		TracePostZuulFilter filter = new TracePostZuulFilter(accessor);
+		filter.setSpanListener(spanListener);
+		return filter;
 	}
 
 }
@@ -20,8 +20,10 @@ import lombok.Data;
 import lombok.SneakyThrows;
 import lombok.extern.apachecommons.CommonsLog;
 
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.event.ExportingSpanListener;
+import org.springframework.cloud.sleuth.event.SpanListenerAdapter;
 import org.springframework.cloud.sleuth.event.SpanReleasedEvent;
-import org.springframework.context.event.EventListener;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 
@@ -33,7 +35,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  */
 @CommonsLog
 @Data
-public class JsonLogSpanListener {
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
+public class JsonLogSpanListener extends SpanListenerAdapter
+		implements ExportingSpanListener {
 
 	private final String prefix;
 	private final String suffix;
@@ -45,12 +49,14 @@ public class JsonLogSpanListener {
 		this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 	}
 
-	@SneakyThrows
-	@EventListener(SpanReleasedEvent.class)
-	@Order(Ordered.LOWEST_PRECEDENCE-10)
 	public void stop(SpanReleasedEvent event) {
-		log.info(this.prefix + this.objectMapper.writeValueAsString(event.getSpan()) +
-				this.suffix);
+		spanReleased(event.getParent(), event.getSpan());
+	}
+
+	@Override
+	@SneakyThrows
+	public void spanReleased(Span parent, Span span) {
+		log.info(this.prefix + this.objectMapper.writeValueAsString(span) + this.suffix);
 	}
 
 }
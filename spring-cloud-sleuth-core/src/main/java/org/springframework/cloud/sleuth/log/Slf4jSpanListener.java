@@ -19,50 +19,62 @@ package org.springframework.cloud.sleuth.log;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
 import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.event.ScopeSpanListener;
 import org.springframework.cloud.sleuth.event.SpanAcquiredEvent;
 import org.springframework.cloud.sleuth.event.SpanContinuedEvent;
+import org.springframework.cloud.sleuth.event.SpanListenerAdapter;
 import org.springframework.cloud.sleuth.event.SpanReleasedEvent;
-import org.springframework.context.event.EventListener;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 
 /**
+ * Keeps the trace and span ids in the MDC in sync with the span in scope, including
+ * spans that are not exported.
+ *
  * @author Spencer Gibb
  */
 @Slf4j
-public class Slf4jSpanListener {
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class Slf4jSpanListener extends SpanListenerAdapter implements ScopeSpanListener {
 
-	@EventListener(SpanAcquiredEvent.class)
-	@Order(Ordered.LOWEST_PRECEDENCE)
 	public void start(SpanAcquiredEvent event) {
-		Span span = event.getSpan();
-		MDC.put(Span.SPAN_ID_NAME, Span.toHex(span.getSpanId()));
+		spanAcquired(event.getParent(), event.getSpan());
+	}
+
+	public void continued(SpanContinuedEvent event) {
+		spanContinued(event.getSpan());
+	}
+
+	public void stop(SpanReleasedEvent event) {
+		spanReleased(event.getParent(), event.getSpan());
+	}
+
+	@Override
+	public void spanAcquired(Span parent, Span span) {
+		MDC.put(Span.SPAN_ID_NAME, span.spanIdHex());
 		MDC.put(Span.SPAN_EXPORT_NAME, String.valueOf(span.isExportable()));
-		MDC.put(Span.TRACE_ID_NAME, Span.toHex(span.getTraceId()));
+		MDC.put(Span.TRACE_ID_NAME, span.traceIdHex());
 		log.trace("Starting span: {}", span);
-		if (event.getParent() != null) {
-			log.trace("With parent: {}", event.getParent());
+		if (parent != null) {
+			log.trace("With parent: {}", parent);
 		}
 	}
 
-	@EventListener(SpanContinuedEvent.class)
-	@Order(Ordered.LOWEST_PRECEDENCE)
-	public void continued(SpanContinuedEvent event) {
-		Span span = event.getSpan();
-		MDC.put(Span.SPAN_ID_NAME, Span.toHex(span.getSpanId()));
-		MDC.put(Span.TRACE_ID_NAME, Span.toHex(span.getTraceId()));
+	@Override
+	public void spanContinued(Span span) {
+		MDC.put(Span.SPAN_ID_NAME, span.spanIdHex());
+		MDC.put(Span.TRACE_ID_NAME, span.traceIdHex());
 		MDC.put(Span.SPAN_EXPORT_NAME, String.valueOf(span.isExportable()));
-		log.trace("Continued span: {}", event.getSpan());
+		log.trace("Continued span: {}", span);
 	}
 
-	@EventListener(SpanReleasedEvent.class)
-	@Order(Ordered.LOWEST_PRECEDENCE)
-	public void stop(SpanReleasedEvent event) {
-		log.trace("Stopped span: {}", event.getSpan());
-		if (event.getParent() != null) {
-			log.trace("With parent: {}", event.getParent());
-			MDC.put(Span.SPAN_ID_NAME, Span.toHex(event.getParent().getSpanId()));
-			MDC.put(Span.SPAN_EXPORT_NAME, String.valueOf(event.getParent().isExportable()));
+	@Override
+	public void spanReleased(Span parent, Span span) {
+		log.trace("Stopped span: {}", span);
+		if (parent != null) {
+			log.trace("With parent: {}", parent);
+			MDC.put(Span.SPAN_ID_NAME, parent.spanIdHex());
+			MDC.put(Span.SPAN_EXPORT_NAME, String.valueOf(parent.isExportable()));
 		}
 		else {
 			MDC.remove(Span.SPAN_ID_NAME);
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.metric;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.cloud.sleuth.Sampler;
+import org.springframework.cloud.sleuth.sampler.AdaptiveSampler;
+
+/**
+ * Exposes the rate the sampler currently samples traces at, if it is an
+ * {@link AdaptiveSampler}.
+ */
+public class AdaptiveSamplerPublicMetrics implements PublicMetrics {
+
+	private final String rateMetricName;
+
+	private final Sampler sampler;
+
+	public AdaptiveSamplerPublicMetrics(String rateMetricName, Sampler sampler) {
+		this.rateMetricName = rateMetricName;
+		this.sampler = sampler;
+	}
+
+	@Override
+	public Collection<Metric<?>> metrics() {
+		if (!(this.sampler instanceof AdaptiveSampler)) {
+			return Collections.emptySet();
+		}
+		double rate = ((AdaptiveSampler) this.sampler).getRate();
+		return Collections.<Metric<?>>singleton(new Metric<>(this.rateMetricName, rate));
+	}
+}
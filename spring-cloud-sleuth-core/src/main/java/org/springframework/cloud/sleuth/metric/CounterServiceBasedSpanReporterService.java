@@ -10,12 +10,23 @@ import org.springframework.boot.actuate.metrics.CounterService;
 public class CounterServiceBasedSpanReporterService implements SpanReporterService {
 	private final String acceptedSpansMetricName;
 	private final String droppedSpansMetricName;
+	private final String overflowedSpansMetricName;
+	private final String blockedSpansMetricName;
 	private final CounterService counterService;
 
 	public CounterServiceBasedSpanReporterService(String acceptedSpansMetricName,
 			String droppedSpansMetricName, CounterService counterService) {
+		this(acceptedSpansMetricName, droppedSpansMetricName,
+				"counter.span.overflowed", "counter.span.blocked", counterService);
+	}
+
+	public CounterServiceBasedSpanReporterService(String acceptedSpansMetricName,
+			String droppedSpansMetricName, String overflowedSpansMetricName,
+			String blockedSpansMetricName, CounterService counterService) {
 		this.acceptedSpansMetricName = acceptedSpansMetricName;
 		this.droppedSpansMetricName = droppedSpansMetricName;
+		this.overflowedSpansMetricName = overflowedSpansMetricName;
+		this.blockedSpansMetricName = blockedSpansMetricName;
 		this.counterService = counterService;
 	}
 
@@ -32,4 +43,18 @@ public class CounterServiceBasedSpanReporterService implements SpanReporterServi
 			this.counterService.increment(this.droppedSpansMetricName);
 		}
 	}
+
+	@Override
+	public void incrementOverflowedSpans(long quantity) {
+		for (int i = 0; i < quantity; i++) {
+			this.counterService.increment(this.overflowedSpansMetricName);
+		}
+	}
+
+	@Override
+	public void incrementBlockedSpans(long quantity) {
+		for (int i = 0; i < quantity; i++) {
+			this.counterService.increment(this.blockedSpansMetricName);
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.metric;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Time that the tasks of the traced executors spent in the queue before they ran, per
+ * executor. A growing wait tells a saturated pool apart from slow tasks, which the
+ * duration of the task spans alone doesn't.
+ */
+public class ExecutorWaitTimes {
+
+	private final ConcurrentMap<String, StripedHistogram> histograms = new ConcurrentHashMap<>();
+
+	/**
+	 * @return the histogram to record the wait of the named executor's tasks to, the
+	 * same for every call with the same name
+	 */
+	public StripedHistogram histogram(String executorName) {
+		return this.histograms.computeIfAbsent(executorName,
+				name -> new StripedHistogram());
+	}
+
+	/**
+	 * @return a snapshot of each executor's histogram, by executor name
+	 */
+	public Map<String, StripedHistogram.Snapshot> snapshots() {
+		Map<String, StripedHistogram.Snapshot> snapshots = new TreeMap<>();
+		for (Map.Entry<String, StripedHistogram> entry : this.histograms.entrySet()) {
+			snapshots.put(entry.getKey(), entry.getValue().snapshot());
+		}
+		return snapshots;
+	}
+}
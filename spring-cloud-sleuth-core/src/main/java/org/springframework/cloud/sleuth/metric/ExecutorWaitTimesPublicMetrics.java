@@ -0,0 +1,60 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.metric;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+
+/**
+ * Exposes the queue wait recorded by {@link ExecutorWaitTimes} per executor: the number
+ * of tasks, the mean and the 50th and 99th percentile and the maximum in nanoseconds.
+ */
+public class ExecutorWaitTimesPublicMetrics implements PublicMetrics {
+
+	private final String prefix;
+
+	private final ExecutorWaitTimes waitTimes;
+
+	public ExecutorWaitTimesPublicMetrics(String prefix, ExecutorWaitTimes waitTimes) {
+		this.prefix = prefix;
+		this.waitTimes = waitTimes;
+	}
+
+	@Override
+	public Collection<Metric<?>> metrics() {
+		List<Metric<?>> metrics = new ArrayList<>();
+		for (Map.Entry<String, StripedHistogram.Snapshot> entry : this.waitTimes
+				.snapshots().entrySet()) {
+			StripedHistogram.Snapshot snapshot = entry.getValue();
+			if (snapshot.getCount() == 0) {
+				continue;
+			}
+			String name = this.prefix + "." + entry.getKey() + ".wait";
+			metrics.add(new Metric<>(name + ".count", snapshot.getCount()));
+			metrics.add(new Metric<>(name + ".mean", snapshot.getMean()));
+			metrics.add(new Metric<>(name + ".p50", snapshot.getPercentile(0.5)));
+			metrics.add(new Metric<>(name + ".p99", snapshot.getPercentile(0.99)));
+			metrics.add(new Metric<>(name + ".max", snapshot.getMax()));
+		}
+		return metrics;
+	}
+}
@@ -14,4 +14,12 @@ public class NoOpSpanReporterService implements SpanReporterService {
 	public void incrementDroppedSpans(long quantity) {
 
 	}
+
+	public void incrementOverflowedSpans(long quantity) {
+
+	}
+
+	public void incrementBlockedSpans(long quantity) {
+
+	}
 }
\ No newline at end of file
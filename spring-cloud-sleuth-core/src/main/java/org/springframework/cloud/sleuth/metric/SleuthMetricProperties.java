@@ -12,6 +12,12 @@ public class SleuthMetricProperties {
 
 	private Span span = new Span();
 
+	private Sampler sampler = new Sampler();
+
+	private Overhead overhead = new Overhead();
+
+	private Executor executor = new Executor();
+
 	public Span getSpan() {
 		return this.span;
 	}
@@ -20,12 +26,40 @@ public class SleuthMetricProperties {
 		this.span = span;
 	}
 
+	public Sampler getSampler() {
+		return this.sampler;
+	}
+
+	public void setSampler(Sampler sampler) {
+		this.sampler = sampler;
+	}
+
+	public Overhead getOverhead() {
+		return this.overhead;
+	}
+
+	public void setOverhead(Overhead overhead) {
+		this.overhead = overhead;
+	}
+
+	public Executor getExecutor() {
+		return this.executor;
+	}
+
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
 	public static class Span {
 
 		private String acceptedName = "counter.span.accepted";
 
 		private String droppedName = "counter.span.dropped";
 
+		private String overflowedName = "counter.span.overflowed";
+
+		private String blockedName = "counter.span.blocked";
+
 		public String getAcceptedName() {
 			return this.acceptedName;
 		}
@@ -41,5 +75,74 @@ public class SleuthMetricProperties {
 		public void setDroppedName(String droppedName) {
 			this.droppedName = droppedName;
 		}
+
+		public String getOverflowedName() {
+			return this.overflowedName;
+		}
+
+		public void setOverflowedName(String overflowedName) {
+			this.overflowedName = overflowedName;
+		}
+
+		public String getBlockedName() {
+			return this.blockedName;
+		}
+
+		public void setBlockedName(String blockedName) {
+			this.blockedName = blockedName;
+		}
+	}
+
+	public static class Sampler {
+
+		private String rateName = "gauge.sampler.rate";
+
+		public String getRateName() {
+			return this.rateName;
+		}
+
+		public void setRateName(String rateName) {
+			this.rateName = rateName;
+		}
+	}
+
+	public static class Overhead {
+
+		/**
+		 * Measure the time spent in the tracer, its listeners and the instrumentation.
+		 * Can be changed at runtime by refreshing the environment.
+		 */
+		private boolean enabled = false;
+
+		private String prefix = "gauge.sleuth.overhead";
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public String getPrefix() {
+			return this.prefix;
+		}
+
+		public void setPrefix(String prefix) {
+			this.prefix = prefix;
+		}
+	}
+
+	public static class Executor {
+
+		private String prefix = "gauge.sleuth.executor";
+
+		public String getPrefix() {
+			return this.prefix;
+		}
+
+		public void setPrefix(String prefix) {
+			this.prefix = prefix;
+		}
 	}
 }
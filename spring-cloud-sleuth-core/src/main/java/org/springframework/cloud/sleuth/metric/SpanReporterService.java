@@ -18,4 +18,20 @@ public interface SpanReporterService {
 	 * @param quantity the number of spans dropped.
 	 */
 	void incrementDroppedSpans(long quantity);
+
+	/**
+	 * Called when released spans are not exported because the buffer handing them to
+	 * the exporting thread is full.
+	 *
+	 * @param quantity the number of spans not exported.
+	 */
+	void incrementOverflowedSpans(long quantity);
+
+	/**
+	 * Called when a thread releasing a span has to wait for room in the buffer handing
+	 * them to the exporting thread.
+	 *
+	 * @param quantity the number of spans that had to wait.
+	 */
+	void incrementBlockedSpans(long quantity);
 }
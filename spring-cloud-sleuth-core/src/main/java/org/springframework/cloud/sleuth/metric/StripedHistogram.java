@@ -0,0 +1,154 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.metric;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of durations in nanoseconds with power of two buckets: bucket {@code i}
+ * counts the values in {@code [2^(i-1), 2^i)}. Recording threads are spread over
+ * stripes by thread id so that threads of different stripes don't write to the same
+ * cache lines; threads sharing a stripe still do. Reading sums the stripes up, so a
+ * snapshot taken while values are recorded is not atomic.
+ */
+public final class StripedHistogram {
+
+	static final int BUCKETS = 64;
+
+	// the stripes follow each other in a single array, so that the padding between them
+	// keeps them on separate (64 byte) cache lines; separate arrays could end up
+	// anywhere. Each stripe holds the bucket counts followed by the sum of the values
+	// and 7 unused slots, and 8 unused slots come before the first stripe.
+	private static final int PADDING = 8;
+
+	private static final int SUM = BUCKETS;
+
+	private static final int STRIPE_LENGTH = BUCKETS + PADDING;
+
+	private final AtomicLongArray stripes;
+
+	private final int stripeCount;
+
+	private final int mask;
+
+	public StripedHistogram() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	StripedHistogram(int concurrency) {
+		int stripes = Integer.highestOneBit(Math.max(1, Math.min(concurrency, 64)) * 2 - 1);
+		this.stripes = new AtomicLongArray(PADDING + stripes * STRIPE_LENGTH);
+		this.stripeCount = stripes;
+		this.mask = stripes - 1;
+	}
+
+	public void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		int stripe = offset((int) Thread.currentThread().getId() & this.mask);
+		this.stripes.incrementAndGet(stripe + bucket(nanos));
+		this.stripes.addAndGet(stripe + SUM, nanos);
+	}
+
+	public Snapshot snapshot() {
+		long[] counts = new long[BUCKETS];
+		long sum = 0;
+		for (int s = 0; s < this.stripeCount; s++) {
+			int stripe = offset(s);
+			for (int i = 0; i < BUCKETS; i++) {
+				counts[i] += this.stripes.get(stripe + i);
+			}
+			sum += this.stripes.get(stripe + SUM);
+		}
+		return new Snapshot(counts, sum);
+	}
+
+	private static int offset(int stripe) {
+		return PADDING + stripe * STRIPE_LENGTH;
+	}
+
+	static int bucket(long nanos) {
+		return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+	}
+
+	/**
+	 * Counts of a {@link StripedHistogram} at one point in time. Percentiles and the
+	 * maximum are upper bounds, i.e. the end of the bucket they fall into.
+	 */
+	public static final class Snapshot {
+
+		private final long[] counts;
+
+		private final long count;
+
+		private final long sum;
+
+		Snapshot(long[] counts, long sum) {
+			this.counts = counts;
+			long count = 0;
+			for (long c : counts) {
+				count += c;
+			}
+			this.count = count;
+			this.sum = sum;
+		}
+
+		public long getCount() {
+			return this.count;
+		}
+
+		public long getSum() {
+			return this.sum;
+		}
+
+		public double getMean() {
+			return this.count == 0 ? 0 : (double) this.sum / this.count;
+		}
+
+		/**
+		 * @param quantile between 0 and 1
+		 */
+		public long getPercentile(double quantile) {
+			if (this.count == 0) {
+				return 0;
+			}
+			long rank = (long) Math.ceil(quantile * this.count);
+			long seen = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				seen += this.counts[i];
+				if (seen >= rank && this.counts[i] > 0) {
+					return upperBound(i);
+				}
+			}
+			return getMax();
+		}
+
+		public long getMax() {
+			for (int i = BUCKETS - 1; i >= 0; i--) {
+				if (this.counts[i] > 0) {
+					return upperBound(i);
+				}
+			}
+			return 0;
+		}
+
+		private static long upperBound(int bucket) {
+			return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+		}
+	}
+}
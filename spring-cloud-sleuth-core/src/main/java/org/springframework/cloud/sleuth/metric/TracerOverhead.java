@@ -0,0 +1,135 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.metric;
+
+import org.springframework.util.Assert;
+
+/**
+ * Measures the time spent by Sleuth itself: the tracer operations, dispatching to the
+ * span listeners and the work the instrumentation does around the calls it traces.
+ * Instrumented code brackets its work with {@link #start()} and
+ * {@link #record(Operation, long)}:
+ *
+ * <pre>
+ * long start = overhead.start();
+ * // ...
+ * overhead.record(Operation.TRACER_CLOSE, start);
+ * </pre>
+ *
+ * While disabled {@link #start()} doesn't read the clock and {@link #record} returns
+ * right away, so the measurement costs a volatile read. It can be switched on and off
+ * at runtime. Operations nest, e.g. the time of {@link Operation#FILTER_BEFORE}
+ * includes starting the span.
+ */
+public class TracerOverhead {
+
+	/**
+	 * Never enabled, for components that are not given one.
+	 */
+	public static final TracerOverhead NONE = new TracerOverhead(false);
+
+	/**
+	 * What {@link #start()} returns while disabled. Any other value, including 0, is a
+	 * {@link System#nanoTime()} reading.
+	 */
+	public static final long DISABLED = Long.MIN_VALUE;
+
+	/**
+	 * The measured operations.
+	 */
+	public enum Operation {
+
+		TRACER_START("tracer.start"),
+
+		TRACER_JOIN("tracer.join"),
+
+		TRACER_CONTINUE("tracer.continue"),
+
+		TRACER_DETACH("tracer.detach"),
+
+		TRACER_CLOSE("tracer.close"),
+
+		LISTENER("listener"),
+
+		FILTER_BEFORE("filter.before"),
+
+		FILTER_AFTER("filter.after"),
+
+		CLIENT_SEND("client.send"),
+
+		CLIENT_RECEIVE("client.receive"),
+
+		MESSAGE_PRE_SEND("message.preSend"),
+
+		MESSAGE_POST_SEND("message.postSend");
+
+		private final String metricName;
+
+		Operation(String metricName) {
+			this.metricName = metricName;
+		}
+
+		public String getMetricName() {
+			return this.metricName;
+		}
+	}
+
+	private final StripedHistogram[] histograms = new StripedHistogram[Operation
+			.values().length];
+
+	private volatile boolean enabled;
+
+	public TracerOverhead(boolean enabled) {
+		this.enabled = enabled;
+		for (int i = 0; i < this.histograms.length; i++) {
+			this.histograms[i] = new StripedHistogram();
+		}
+	}
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	/**
+	 * Values recorded before switching the measurement off are kept.
+	 */
+	public void setEnabled(boolean enabled) {
+		Assert.state(this != NONE, "The shared instance can't be enabled");
+		this.enabled = enabled;
+	}
+
+	/**
+	 * @return the start time to pass to {@link #record}, or {@link #DISABLED}
+	 */
+	public long start() {
+		return this.enabled ? System.nanoTime() : DISABLED;
+	}
+
+	/**
+	 * Records the time elapsed since {@code start}. Does nothing if the measurement was
+	 * off when it started.
+	 */
+	public void record(Operation operation, long start) {
+		if (start != DISABLED) {
+			this.histograms[operation.ordinal()].record(System.nanoTime() - start);
+		}
+	}
+
+	public StripedHistogram.Snapshot snapshot(Operation operation) {
+		return this.histograms[operation.ordinal()].snapshot();
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.sampler;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.cloud.sleuth.Clock;
+import org.springframework.cloud.sleuth.TraceIdSampler;
+import org.springframework.util.Assert;
+
+/**
+ * Sampler that adjusts its rate so that the spans handed to the reporters stay within an
+ * export budget, instead of the reporters dropping random spans once they are saturated.
+ * <p>
+ * It is told how many spans the reporters accepted and whether they were saturated
+ * (spans dropped, overflowed or blocked) by an {@link AdaptiveSamplingSpanReporterService}.
+ * Once per interval it looks at what happened in the previous one:
+ * <ul>
+ * <li>if the reporters were saturated, the rate is halved</li>
+ * <li>if more spans than the budget were reported, the rate is scaled down to the
+ * budget</li>
+ * <li>if fewer than {@link #LOW_WATERMARK} of the budget were reported, the rate is
+ * raised towards the budget, by at most half, but not right after it was lowered</li>
+ * </ul>
+ * In between the rate is left alone, so it doesn't oscillate around the budget.
+ * <p>
+ * Traces are sampled on their trace id as with the {@link PercentageBasedSampler}.
+ */
+public class AdaptiveSampler implements TraceIdSampler {
+
+	static final double LOW_WATERMARK = 0.75;
+
+	static final double MIN_RATE = 0.00001;
+
+	private static final double RANGE = Math.pow(2, 63);
+
+	private final Clock clock;
+
+	private final long interval;
+
+	private final double spansPerSecond;
+
+	private final double maxRate;
+
+	private final AtomicLong accepted = new AtomicLong();
+
+	private final AtomicLong saturated = new AtomicLong();
+
+	private final AtomicLong nextAdjustment;
+
+	private volatile boolean lowered;
+
+	private volatile double rate;
+
+	private volatile long threshold;
+
+	/**
+	 * @param initialRate the rate to start with, also the highest rate ever used
+	 * @param spansPerSecond the export budget
+	 * @param interval how often the rate is adjusted
+	 */
+	public AdaptiveSampler(double initialRate, int spansPerSecond, long interval,
+			TimeUnit unit, Clock clock) {
+		Assert.isTrue(initialRate > 0.0 && initialRate <= 1.0,
+				"The initial rate must be above 0.0 and at most 1.0, was " + initialRate);
+		Assert.isTrue(spansPerSecond > 0,
+				"The export budget must be positive, was " + spansPerSecond);
+		this.clock = clock;
+		this.interval = unit.toNanos(interval);
+		this.spansPerSecond = spansPerSecond;
+		this.maxRate = initialRate;
+		this.nextAdjustment = new AtomicLong(clock.nanoTime() + this.interval);
+		setRate(initialRate);
+	}
+
+	@Override
+	public boolean isSampled() {
+		return isSampled(ThreadLocalRandom.current().nextLong());
+	}
+
+	@Override
+	public boolean isSampled(long traceId) {
+		adjustIfDue();
+		return (traceId & Long.MAX_VALUE) < this.threshold;
+	}
+
+	/**
+	 * The reporters accepted the given number of spans.
+	 */
+	public void spansAccepted(long quantity) {
+		this.accepted.addAndGet(quantity);
+	}
+
+	/**
+	 * The reporters were saturated for the given number of spans.
+	 */
+	public void spansSaturated(long quantity) {
+		this.saturated.addAndGet(quantity);
+	}
+
+	/**
+	 * The rate traces are currently sampled at, between 0.0 and 1.0.
+	 */
+	public double getRate() {
+		return this.rate;
+	}
+
+	private void adjustIfDue() {
+		long next = this.nextAdjustment.get();
+		long now = this.clock.nanoTime();
+		if (now - next < 0
+				|| !this.nextAdjustment.compareAndSet(next, now + this.interval)) {
+			return;
+		}
+		// only the thread that moved the next adjustment gets here
+		long accepted = this.accepted.getAndSet(0);
+		long saturated = this.saturated.getAndSet(0);
+		double elapsedSeconds = (now - (next - this.interval)) / 1e9;
+		double acceptedPerSecond = accepted / elapsedSeconds;
+		double rate = this.rate;
+		if (saturated > 0) {
+			rate = rate / 2;
+		}
+		else if (acceptedPerSecond > this.spansPerSecond) {
+			rate = rate * this.spansPerSecond / acceptedPerSecond;
+		}
+		else if (acceptedPerSecond < this.spansPerSecond * LOW_WATERMARK
+				&& !this.lowered) {
+			rate = rate * Math.min(1.5, this.spansPerSecond / acceptedPerSecond);
+		}
+		rate = Math.max(MIN_RATE, Math.min(this.maxRate, rate));
+		this.lowered = rate < this.rate;
+		setRate(rate);
+	}
+
+	private void setRate(double rate) {
+		this.rate = rate;
+		this.threshold = rate >= 1.0 ? Long.MAX_VALUE : (long) (rate * RANGE);
+	}
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.sampler;
+
+import org.springframework.cloud.sleuth.metric.SpanReporterService;
+
+/**
+ * {@link SpanReporterService} that passes on what the reporters tell it and also lets an
+ * {@link AdaptiveSampler} know how many spans they accepted and whether they were
+ * saturated. The sampler can be set after the service is created, until then only the
+ * delegate is told.
+ */
+public class AdaptiveSamplingSpanReporterService implements SpanReporterService {
+
+	private final SpanReporterService delegate;
+
+	private volatile AdaptiveSampler sampler;
+
+	public AdaptiveSamplingSpanReporterService(SpanReporterService delegate) {
+		this(delegate, null);
+	}
+
+	public AdaptiveSamplingSpanReporterService(SpanReporterService delegate,
+			AdaptiveSampler sampler) {
+		this.delegate = delegate;
+		this.sampler = sampler;
+	}
+
+	public void setSampler(AdaptiveSampler sampler) {
+		this.sampler = sampler;
+	}
+
+	@Override
+	public void incrementAcceptedSpans(long quantity) {
+		AdaptiveSampler sampler = this.sampler;
+		if (sampler != null) {
+			sampler.spansAccepted(quantity);
+		}
+		this.delegate.incrementAcceptedSpans(quantity);
+	}
+
+	@Override
+	public void incrementDroppedSpans(long quantity) {
+		saturated(quantity);
+		this.delegate.incrementDroppedSpans(quantity);
+	}
+
+	@Override
+	public void incrementOverflowedSpans(long quantity) {
+		saturated(quantity);
+		this.delegate.incrementOverflowedSpans(quantity);
+	}
+
+	@Override
+	public void incrementBlockedSpans(long quantity) {
+		saturated(quantity);
+		this.delegate.incrementBlockedSpans(quantity);
+	}
+
+	private void saturated(long quantity) {
+		AdaptiveSampler sampler = this.sampler;
+		if (sampler != null) {
+			sampler.spansSaturated(quantity);
+		}
+	}
+}
@@ -17,17 +17,35 @@
 package org.springframework.cloud.sleuth.sampler;
 
 import org.springframework.cloud.sleuth.Sampler;
-import org.springframework.cloud.sleuth.trace.SpanContextHolder;
+import org.springframework.cloud.sleuth.SpanAccessor;
+import org.springframework.cloud.sleuth.trace.ThreadLocalCurrentTraceContext;
 
 /**
+ * Samples when there is a span in scope, as seen by the given {@link SpanAccessor}, e.g.
+ * the {@link org.springframework.cloud.sleuth.Tracer} or its
+ * {@link org.springframework.cloud.sleuth.trace.CurrentTraceContext}.
+ *
  * @author Spencer Gibb
  */
 public class IsTracingSampler implements Sampler {
 
+	/**
+	 * Looks at the default, thread-local scope.
+	 */
 	public static IsTracingSampler INSTANCE = new IsTracingSampler();
 
+	private final SpanAccessor spanAccessor;
+
+	public IsTracingSampler() {
+		this(ThreadLocalCurrentTraceContext.INSTANCE);
+	}
+
+	public IsTracingSampler(SpanAccessor spanAccessor) {
+		this.spanAccessor = spanAccessor;
+	}
+
 	@Override
 	public boolean isSampled() {
-		return SpanContextHolder.isTracing();
+		return this.spanAccessor.isTracing();
 	}
 }
@@ -1,8 +1,10 @@
 package org.springframework.cloud.sleuth.sampler;
 
-import org.springframework.cloud.sleuth.Sampler;
-import org.springframework.cloud.sleuth.Span;
+import java.util.concurrent.ThreadLocalRandom;
+
 import org.springframework.cloud.sleuth.SpanAccessor;
+import org.springframework.cloud.sleuth.TraceIdSampler;
+import org.springframework.util.Assert;
 
 /**
  * Sampler that based on the given percentage rate will allow sampling.
@@ -11,35 +13,52 @@ import org.springframework.cloud.sleuth.SpanAccessor;
  *
  * <ul>
  *     <li>We're taking the TraceID into consideration for sampling to be consistent</li>
- *     <li>We apply the Zipkin algorithm to define whether we should sample or not (we're comparing against thresholdg) - https://github.com/openzipkin/zipkin-java/blob/master/zipkin/src/main/java/zipkin/Sampler.java</li>
+ *     <li>We apply the Zipkin algorithm to define whether we should sample or not (we're comparing against threshold) - https://github.com/openzipkin/zipkin-java/blob/master/zipkin/src/main/java/zipkin/Sampler.java</li>
  * </ul>
  *
+ * The threshold is computed once, when the sampler is created, as the given fraction of
+ * the non-negative 64-bit range. A trace is sampled if the lower 63 bits of its trace id
+ * are below it, so rates down to 0.001% are honoured and every service sampling the same
+ * trace id agrees. Without a trace id a random one is drawn instead.
+ *
  * The value provided from SamplerConfiguration in terms of percentage is an estimation. It might occur that amount
  * of data sampled differs from the provided percentage.
  *
  * @author Marcin Grzejszczak
  * @author Adrian Cole
  */
-public class PercentageBasedSampler implements Sampler {
+public class PercentageBasedSampler implements TraceIdSampler {
+
+	private static final double RANGE = Math.pow(2, 63);
+
+	private final boolean always;
+	private final long threshold;
 
-	private final SamplerConfiguration configuration;
-	private final SpanAccessor spanAccessor;
+	public PercentageBasedSampler(SamplerConfiguration configuration) {
+		float percentage = configuration.getPercentage();
+		Assert.isTrue(percentage >= 0.0f && percentage <= 1.0f,
+				"The sampling percentage must be between 0.0 and 1.0, was " + percentage);
+		this.always = percentage == 1.0f;
+		this.threshold = (long) (percentage * RANGE);
+	}
 
+	/**
+	 * @deprecated the current span isn't used anymore, use
+	 * {@link #PercentageBasedSampler(SamplerConfiguration)}
+	 */
+	@Deprecated
 	public PercentageBasedSampler(SamplerConfiguration configuration, SpanAccessor spanAccessor) {
-		this.configuration = configuration;
-		this.spanAccessor = spanAccessor;
+		this(configuration);
 	}
 
 	@Override
 	public boolean isSampled() {
-		Span currentSpan = this.spanAccessor.getCurrentSpan();
-		long threshold = Math.abs(Long.MAX_VALUE * (int) (this.configuration.getPercentage() * 100)); // drops fractional percentage.
-		if (currentSpan == null || threshold == 0L) {
-			return false;
-		}
-		long traceId = currentSpan.getTraceId();
-		Long mod = Math.abs(traceId % 100);
-		return mod.compareTo(threshold) <= 0;
+		return isSampled(ThreadLocalRandom.current().nextLong());
+	}
+
+	@Override
+	public boolean isSampled(long traceId) {
+		return this.always || (traceId & Long.MAX_VALUE) < this.threshold;
 	}
 
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.sampler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.cloud.sleuth.Clock;
+import org.springframework.cloud.sleuth.Sampler;
+import org.springframework.cloud.sleuth.clock.SystemClock;
+import org.springframework.util.Assert;
+
+/**
+ * Sampler that samples at most a given number of new traces per second, whatever the
+ * traffic, so that the volume of exported spans stays bounded.
+ * <p>
+ * It is a token bucket holding one second worth of traces. Instead of a token count it
+ * keeps the time at which the next token will be free (the bucket is full when that
+ * time is in the past) in a single {@link AtomicLong}. Taking a token is one
+ * compare-and-set, and once the bucket is empty rejecting a trace only reads it, so it
+ * doesn't turn into a point of contention when many threads start traces.
+ */
+public class RateLimitingSampler implements Sampler {
+
+	private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private final Clock clock;
+
+	/**
+	 * Time between two traces at the steady rate
+	 */
+	private final long interval;
+
+	/**
+	 * How far ahead of now tokens may be taken, i.e. the size of a burst
+	 */
+	private final long tolerance;
+
+	private final AtomicLong nextFreeToken;
+
+	public RateLimitingSampler(SamplerConfiguration configuration) {
+		this(configuration.getTracesPerSecond(), SystemClock.INSTANCE);
+	}
+
+	public RateLimitingSampler(int tracesPerSecond, Clock clock) {
+		Assert.isTrue(tracesPerSecond >= 0,
+				"The number of traces per second must not be negative, was "
+						+ tracesPerSecond);
+		this.clock = clock;
+		this.interval = tracesPerSecond == 0 ? 0
+				: Math.max(1, ONE_SECOND / tracesPerSecond);
+		this.tolerance = ONE_SECOND - this.interval;
+		this.nextFreeToken = new AtomicLong(clock.nanoTime());
+	}
+
+	@Override
+	public boolean isSampled() {
+		if (this.interval == 0) {
+			return false;
+		}
+		long now = this.clock.nanoTime();
+		while (true) {
+			long next = this.nextFreeToken.get();
+			long token = next - now < 0 ? now : next;
+			if (token - now > this.tolerance) {
+				return false;
+			}
+			if (this.nextFreeToken.compareAndSet(next, token + this.interval)) {
+				return true;
+			}
+		}
+	}
+
+}
@@ -18,10 +18,24 @@ public class SamplerConfiguration {
 	 * <ul>
 	 * <li> 1.0 - 100% requests should be sampled </li>
 	 * <li> 0.8 - 80% of requests should be sampled </li>
+	 * <li> 0.0005 - 0.05% of requests should be sampled </li>
 	 * <li> 0.0 - 0% requests should be sampled </li>
 	 * </ul>
 	 *
-	 * The precision is whole-numbers only. We don't support 0.1% of the trace rate.
+	 * Fractional rates are supported down to 0.00001 (0.001% of the traces).
 	 */
 	private float percentage = 0.1f;
+
+	/**
+	 * Maximum number of new traces sampled per second. Unset by default, which means
+	 * that the default sampler doesn't start any trace.
+	 */
+	private Integer tracesPerSecond;
+
+	/**
+	 * Number of spans per second the reporters should be handed. When set, the default
+	 * sampler starts at the given percentage and lowers or raises it to stay within
+	 * this budget.
+	 */
+	private Integer exportBudget;
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.trace;
+
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.SpanAccessor;
+
+/**
+ * Stores the span that is currently in scope, and the spans that were in scope before
+ * it. {@link DefaultTracer} and the instrumentation it's handed to read and change the
+ * scope only through this interface, so the storage can be replaced, e.g. by one bound
+ * to something else than the current thread.
+ * <p>
+ * The default, {@link ThreadLocalCurrentTraceContext}, keeps the scope per thread and is
+ * the one {@link SpanContextHolder} gives static access to.
+ */
+public interface CurrentTraceContext extends SpanAccessor {
+
+	/**
+	 * @return the span in scope or {@code null} if there is none
+	 */
+	@Override
+	Span getCurrentSpan();
+
+	/**
+	 * @return whether there is a span in scope
+	 */
+	@Override
+	boolean isTracing();
+
+	/**
+	 * Replaces the span in scope without remembering the previous one. {@code null}
+	 * clears the scope.
+	 */
+	void setCurrentSpan(Span span);
+
+	/**
+	 * Puts the span in scope, remembering the previous one so that it can be restored
+	 * with {@link #popCurrentSpan()}.
+	 */
+	void pushCurrentSpan(Span span);
+
+	/**
+	 * Restores the span that was in scope before the last {@link #pushCurrentSpan(Span)}.
+	 *
+	 * @return the restored span or {@code null} if there was none
+	 */
+	Span popCurrentSpan();
+
+	/**
+	 * Clears the scope, including the remembered spans.
+	 */
+	void removeCurrentSpan();
+}
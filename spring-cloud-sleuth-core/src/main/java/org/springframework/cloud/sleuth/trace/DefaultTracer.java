@@ -20,47 +20,134 @@ import static org.springframework.cloud.sleuth.util.ExceptionUtils.warn;
 
 import java.util.Random;
 import java.util.concurrent.Callable;
+import java.util.function.Supplier;
 
+import org.springframework.cloud.sleuth.Clock;
+import org.springframework.cloud.sleuth.IdGenerator;
 import org.springframework.cloud.sleuth.Sampler;
 import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.TraceIdSampler;
 import org.springframework.cloud.sleuth.Tracer;
-import org.springframework.cloud.sleuth.event.SpanAcquiredEvent;
-import org.springframework.cloud.sleuth.event.SpanContinuedEvent;
-import org.springframework.cloud.sleuth.event.SpanReleasedEvent;
+import org.springframework.cloud.sleuth.clock.AnchoredClock;
+import org.springframework.cloud.sleuth.clock.SystemClock;
+import org.springframework.cloud.sleuth.event.ApplicationEventSpanListener;
+import org.springframework.cloud.sleuth.event.SpanListener;
+import org.springframework.cloud.sleuth.id.RandomIdGenerator;
 import org.springframework.cloud.sleuth.instrument.TraceCallable;
 import org.springframework.cloud.sleuth.instrument.TraceRunnable;
+import org.springframework.cloud.sleuth.metric.TracerOverhead;
+import org.springframework.cloud.sleuth.metric.TracerOverhead.Operation;
 import org.springframework.cloud.sleuth.util.ExceptionUtils;
 import org.springframework.context.ApplicationEventPublisher;
 
 /**
+ * Default {@link Tracer} implementation.
+ * <p>
+ * By default each continued span is a copy that links to the previously current span
+ * through {@link Span#getSavedSpan()}. With copy-free scoping the very same span
+ * instance is put in scope and the previously current span is kept on the stack of the
+ * {@link CurrentTraceContext} instead, so no copy is made per scope.
+ * <p>
+ * The span in scope is kept by a {@link CurrentTraceContext}, per thread unless another
+ * one is given. The static {@link SpanContextHolder} only sees the per-thread one.
+ * <p>
+ * Spans are stamped with an {@link AnchoredClock} that reads the wall time of the
+ * {@link Clock} once per trace and measures everything else with its monotonic time.
+ * <p>
+ * Ids come from an {@link IdGenerator}. The constructors taking a {@link Random} share
+ * it between all threads, which contend on its seed when many spans start at once.
+ * <p>
+ * The lifecycle of spans is reported to a {@link SpanListener}. The constructors taking
+ * an {@link ApplicationEventPublisher} publish Spring application events instead. Spans
+ * that are not exportable are reported too; a
+ * {@link org.springframework.cloud.sleuth.event.CompositeSpanListener} only passes them
+ * on to the listeners following the scope.
+ * <p>
+ * The time spent in the tracer and its listeners is measured by a
+ * {@link TracerOverhead} if one is set and enabled.
+ *
  * @author Spencer Gibb
  */
 public class DefaultTracer implements Tracer {
 
 	private final Sampler defaultSampler;
 
-	private final ApplicationEventPublisher publisher;
+	private final SpanListener spanListener;
+
+	private final IdGenerator idGenerator;
+
+	private final Clock clock;
+
+	private final boolean copyFreeScoping;
+
+	private final CurrentTraceContext currentTraceContext;
 
-	private final Random random;
+	private TracerOverhead overhead = TracerOverhead.NONE;
 
 	public DefaultTracer(Sampler defaultSampler, Random random,
 			ApplicationEventPublisher publisher) {
+		this(defaultSampler, random, publisher, false);
+	}
+
+	public DefaultTracer(Sampler defaultSampler, Random random,
+			ApplicationEventPublisher publisher, boolean copyFreeScoping) {
+		this(defaultSampler, random, publisher, SystemClock.INSTANCE, copyFreeScoping);
+	}
+
+	public DefaultTracer(Sampler defaultSampler, Random random,
+			ApplicationEventPublisher publisher, Clock clock, boolean copyFreeScoping) {
+		this(defaultSampler, new RandomIdGenerator(random), publisher, clock,
+				copyFreeScoping);
+	}
+
+	public DefaultTracer(Sampler defaultSampler, IdGenerator idGenerator,
+			ApplicationEventPublisher publisher, Clock clock, boolean copyFreeScoping) {
+		this(defaultSampler, idGenerator, new ApplicationEventSpanListener(publisher),
+				clock, copyFreeScoping);
+	}
+
+	public DefaultTracer(Sampler defaultSampler, IdGenerator idGenerator,
+			SpanListener spanListener, Clock clock, boolean copyFreeScoping) {
+		this(defaultSampler, idGenerator, spanListener, clock, copyFreeScoping,
+				ThreadLocalCurrentTraceContext.INSTANCE);
+	}
+
+	public DefaultTracer(Sampler defaultSampler, IdGenerator idGenerator,
+			SpanListener spanListener, Clock clock, boolean copyFreeScoping,
+			CurrentTraceContext currentTraceContext) {
 		this.defaultSampler = defaultSampler;
-		this.random = random;
-		this.publisher = publisher;
+		this.idGenerator = idGenerator;
+		this.spanListener = spanListener;
+		this.clock = clock;
+		this.copyFreeScoping = copyFreeScoping;
+		this.currentTraceContext = currentTraceContext;
+	}
+
+	public CurrentTraceContext getCurrentTraceContext() {
+		return this.currentTraceContext;
+	}
+
+	public void setTracerOverhead(TracerOverhead overhead) {
+		this.overhead = overhead;
 	}
 
 	@Override
 	public Span joinTrace(String name, Span parent) {
+		long start = this.overhead.start();
+		Span span;
 		if (parent == null) {
-			return startTrace(name);
+			span = doStartTrace(name, this.defaultSampler);
 		}
-		Span currentSpan = getCurrentSpan();
-		if (currentSpan != null && !parent.equals(currentSpan)) {
-			warn("Tried to start a new Span with parent " + parent
-					+ ", but there is already a " + "currentSpan " + currentSpan);
+		else {
+			Span currentSpan = getCurrentSpan();
+			if (currentSpan != null && !parent.equals(currentSpan)) {
+				warn("Tried to start a new Span with parent " + parent
+						+ ", but there is already a " + "currentSpan " + currentSpan);
+			}
+			span = doContinueSpan(createChild(parent, name));
 		}
-		return continueSpan(createChild(parent, name));
+		this.overhead.record(Operation.TRACER_JOIN, start);
+		return span;
 	}
 
 	@Override
@@ -70,18 +157,39 @@ public class DefaultTracer implements Tracer {
 
 	@Override
 	public Span startTrace(String name, Sampler sampler) {
+		long start = this.overhead.start();
+		Span span = doStartTrace(name, sampler);
+		this.overhead.record(Operation.TRACER_START, start);
+		return span;
+	}
+
+	private Span doStartTrace(String name, Sampler sampler) {
 		Span span;
-		if (isTracing() || sampler.isSampled()) {
-			span = createChild(getCurrentSpan(), name);
+		long id = createId();
+		if (isTracing() || isSampled(sampler, id)) {
+			span = createChild(getCurrentSpan(), name, id);
 		}
 		else {
-			// Non-exportable so we keep the trace but not other data
-			long id = createId();
-			span = Span.builder().begin(System.currentTimeMillis()).name(name).traceId(id)
+			// Non-exportable so we keep the trace ids but no other data. Nobody measures
+			// it, so it doesn't get a clock anchor of its own
+			span = Span.builder().clock(this.clock).name(name)
+					.traceId(id).traceIdHigh(this.idGenerator.nextTraceIdHigh())
 					.spanId(id).exportable(false).build();
-			this.publisher.publishEvent(new SpanAcquiredEvent(this, span));
+			long start = this.overhead.start();
+			this.spanListener.spanAcquired(null, span);
+			this.overhead.record(Operation.LISTENER, start);
+		}
+		return doContinueSpan(span);
+	}
+
+	/**
+	 * A {@link TraceIdSampler} decides on the id the new trace will get.
+	 */
+	private boolean isSampled(Sampler sampler, long traceId) {
+		if (sampler instanceof TraceIdSampler) {
+			return ((TraceIdSampler) sampler).isSampled(traceId);
 		}
-		return continueSpan(span);
+		return sampler.isSampled();
 	}
 
 	@Override
@@ -89,18 +197,31 @@ public class DefaultTracer implements Tracer {
 		if (span == null) {
 			return null;
 		}
-		Span cur = SpanContextHolder.getCurrentSpan();
+		long start = this.overhead.start();
+		try {
+			return doDetach(span);
+		}
+		finally {
+			this.overhead.record(Operation.TRACER_DETACH, start);
+		}
+	}
+
+	private Span doDetach(Span span) {
+		Span cur = this.currentTraceContext.getCurrentSpan();
 		if (!span.equals(cur)) {
 			ExceptionUtils.warn("Tried to detach trace span but "
 					+ "it is not the current span: " + span
 					+ ". You may have forgotten to close or detach " + cur);
 		}
+		else if (this.copyFreeScoping) {
+			return this.currentTraceContext.popCurrentSpan();
+		}
 		else {
 			if (span.hasSavedSpan()) {
-				SpanContextHolder.setCurrentSpan(span.getSavedSpan());
+				this.currentTraceContext.setCurrentSpan(span.getSavedSpan());
 			}
 			else {
-				SpanContextHolder.removeCurrentSpan();
+				this.currentTraceContext.removeCurrentSpan();
 			}
 		}
 		return span.getSavedSpan();
@@ -111,7 +232,17 @@ public class DefaultTracer implements Tracer {
 		if (span == null) {
 			return null;
 		}
-		Span cur = SpanContextHolder.getCurrentSpan();
+		long start = this.overhead.start();
+		try {
+			return doClose(span);
+		}
+		finally {
+			this.overhead.record(Operation.TRACER_CLOSE, start);
+		}
+	}
+
+	private Span doClose(Span span) {
+		Span cur = this.currentTraceContext.getCurrentSpan();
 		Span savedSpan = span.getSavedSpan();
 		if (!span.equals(cur)) {
 			ExceptionUtils.warn(
@@ -120,53 +251,101 @@ public class DefaultTracer implements Tracer {
 		}
 		else {
 			span.stop();
-			if (savedSpan != null && span.getParents().contains(savedSpan.getSpanId())) {
-				this.publisher.publishEvent(new SpanReleasedEvent(this, savedSpan, span));
-				SpanContextHolder.setCurrentSpan(savedSpan);
+			if (this.copyFreeScoping) {
+				savedSpan = this.currentTraceContext.popCurrentSpan();
+			}
+			if (savedSpan != null && span.hasParent(savedSpan.getSpanId())) {
+				long start = this.overhead.start();
+				this.spanListener.spanReleased(savedSpan, span);
+				this.overhead.record(Operation.LISTENER, start);
+				if (!this.copyFreeScoping) {
+					this.currentTraceContext.setCurrentSpan(savedSpan);
+				}
 			}
 			else {
 				if (!span.isRemote()) {
-					this.publisher.publishEvent(new SpanReleasedEvent(this, span));
+					long start = this.overhead.start();
+					this.spanListener.spanReleased(null, span);
+					this.overhead.record(Operation.LISTENER, start);
+				}
+				// the pop above already took only this span out of scope
+				if (!this.copyFreeScoping) {
+					this.currentTraceContext.removeCurrentSpan();
 				}
-				SpanContextHolder.removeCurrentSpan();
 			}
 		}
 		return savedSpan;
 	}
 
 	protected Span createChild(Span parent, String name) {
-		long id = createId();
+		return createChild(parent, name, createId());
+	}
+
+	private Span createChild(Span parent, String name, long id) {
 		if (parent == null) {
-			Span span = Span.builder().begin(System.currentTimeMillis()).name(name)
-					.traceId(id).spanId(id).build();
-			this.publisher.publishEvent(new SpanAcquiredEvent(this, span));
+			Span span = Span.builder().clock(new AnchoredClock(this.clock)).name(name)
+					.traceId(id).traceIdHigh(this.idGenerator.nextTraceIdHigh())
+					.spanId(id).build();
+			long start = this.overhead.start();
+			this.spanListener.spanAcquired(null, span);
+			this.overhead.record(Operation.LISTENER, start);
 			return span;
 		}
 		else {
-			if (SpanContextHolder.getCurrentSpan() == null) {
-				Span span = createSpan(parent, null);
-				SpanContextHolder.setCurrentSpan(span);
+			if (this.currentTraceContext.getCurrentSpan() == null) {
+				if (this.copyFreeScoping) {
+					this.currentTraceContext.pushCurrentSpan(parent);
+				}
+				else {
+					this.currentTraceContext.setCurrentSpan(createSpan(parent, null));
+				}
 			}
-			Span span = Span.builder().begin(System.currentTimeMillis()).name(name)
-					.traceId(parent.getTraceId()).parent(parent.getSpanId()).spanId(id)
+			Span span = Span.builder().clock(clockFor(parent)).name(name)
+					.traceId(parent.getTraceId()).traceIdHigh(parent.getTraceIdHigh())
+					.parent(parent.getSpanId()).spanId(id)
 					.processId(parent.getProcessId()).exportable(parent.isExportable())
 					.build();
-			this.publisher.publishEvent(new SpanAcquiredEvent(this, parent, span));
+			long start = this.overhead.start();
+			this.spanListener.spanAcquired(parent, span);
+			this.overhead.record(Operation.LISTENER, start);
 			return span;
 		}
 	}
 
+	/**
+	 * Children of a local span share its clock, spans continuing a remote one get a new
+	 * anchor.
+	 */
+	private Clock clockFor(Span parent) {
+		return parent.isRemote() ? new AnchoredClock(this.clock) : parent.clock();
+	}
+
 	private long createId() {
-		return this.random.nextLong();
+		return this.idGenerator.nextId();
 	}
 
 	@Override
 	public Span continueSpan(Span span) {
+		long start = this.overhead.start();
+		Span continued = doContinueSpan(span);
+		this.overhead.record(Operation.TRACER_CONTINUE, start);
+		return continued;
+	}
+
+	private Span doContinueSpan(Span span) {
 		if (span != null) {
-			this.publisher.publishEvent(new SpanContinuedEvent(this, span));
+			long start = this.overhead.start();
+			this.spanListener.spanContinued(span);
+			this.overhead.record(Operation.LISTENER, start);
+		}
+		if (this.copyFreeScoping) {
+			if (span != null) {
+				this.currentTraceContext.pushCurrentSpan(span);
+			}
+			return span;
 		}
-		Span newSpan = createSpan(span, SpanContextHolder.getCurrentSpan());
-		SpanContextHolder.setCurrentSpan(newSpan);
+		Span newSpan = createSpan(span, this.currentTraceContext.getCurrentSpan());
+		this.currentTraceContext.setCurrentSpan(newSpan);
 		return newSpan;
 	}
 
@@ -179,12 +358,12 @@ public class DefaultTracer implements Tracer {
 
 	@Override
 	public Span getCurrentSpan() {
-		return SpanContextHolder.getCurrentSpan();
+		return this.currentTraceContext.getCurrentSpan();
 	}
 
 	@Override
 	public boolean isTracing() {
-		return SpanContextHolder.isTracing();
+		return this.currentTraceContext.isTracing();
 	}
 
 	@Override
@@ -195,6 +374,14 @@ public class DefaultTracer implements Tracer {
 		}
 	}
 
+	@Override
+	public void addTag(String key, Supplier<String> value) {
+		Span s = getCurrentSpan();
+		if (s != null && s.isExportable()) {
+			s.tag(key, value);
+		}
+	}
+
 	/**
 	 * Wrap the callable in a TraceCallable, if tracing.
 	 *
@@ -16,39 +16,49 @@
 
 package org.springframework.cloud.sleuth.trace;
 
-import lombok.extern.apachecommons.CommonsLog;
 import org.springframework.cloud.sleuth.Span;
-import org.springframework.core.NamedThreadLocal;
 
 /**
+ * Static access to the current span of the thread, as kept by
+ * {@link ThreadLocalCurrentTraceContext#INSTANCE}. Components that are given a
+ * {@link CurrentTraceContext} should use it instead.
+ *
  * @author Spencer Gibb
  */
-@CommonsLog
 public class SpanContextHolder {
 
-	private static final ThreadLocal<Span> CURRENT_SPAN = new NamedThreadLocal<>("Trace Context");
+	private static final CurrentTraceContext CONTEXT = ThreadLocalCurrentTraceContext.INSTANCE;
 
 	public static Span getCurrentSpan() {
-		return isTracing() ? CURRENT_SPAN.get() : null;
+		return CONTEXT.getCurrentSpan();
 	}
 
 	public static void setCurrentSpan(Span span) {
-		// backwards compatibility
-		if (span == null) {
-			CURRENT_SPAN.remove();
-			return;
-		}
-		if (log.isTraceEnabled()) {
-			log.trace("Setting current span " + span);
-		}
-		CURRENT_SPAN.set(span);
+		CONTEXT.setCurrentSpan(span);
+	}
+
+	/**
+	 * Makes the given span the current one, remembering the previously current span (if
+	 * any) so that it can be restored with {@link #popCurrentSpan()}.
+	 */
+	static void pushCurrentSpan(Span span) {
+		CONTEXT.pushCurrentSpan(span);
+	}
+
+	/**
+	 * Restores the span that was current before the last {@link #pushCurrentSpan(Span)}.
+	 *
+	 * @return the restored span or {@code null} if there was none
+	 */
+	static Span popCurrentSpan() {
+		return CONTEXT.popCurrentSpan();
 	}
 
 	public static void removeCurrentSpan() {
-		CURRENT_SPAN.remove();
+		CONTEXT.removeCurrentSpan();
 	}
 
 	public static boolean isTracing() {
-		return CURRENT_SPAN.get() != null;
+		return CONTEXT.isTracing();
 	}
 }
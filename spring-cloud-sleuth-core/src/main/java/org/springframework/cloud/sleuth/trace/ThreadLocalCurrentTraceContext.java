@@ -0,0 +1,141 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.trace;
+
+import java.util.Arrays;
+
+import lombok.extern.apachecommons.CommonsLog;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.core.NamedThreadLocal;
+
+/**
+ * Keeps the scope per thread. Besides the current span it keeps a small, array-backed
+ * stack of the spans that were current before it, so that a span can be put in scope
+ * and taken out of it again without being copied. Each operation looks the thread's
+ * state up once. The state is only allocated while there is a span in scope and removed
+ * from the thread once the scope is empty, so that pooled threads don't keep it (and
+ * the class loader) alive.
+ * <p>
+ * There is a single store per class loader, {@link #INSTANCE}, which is also the one
+ * behind {@link SpanContextHolder}.
+ */
+@CommonsLog
+public final class ThreadLocalCurrentTraceContext implements CurrentTraceContext {
+
+	public static final ThreadLocalCurrentTraceContext INSTANCE = new ThreadLocalCurrentTraceContext();
+
+	private static final ThreadLocal<SpanContext> CURRENT_SPAN = new NamedThreadLocal<>(
+			"Trace Context");
+
+	private ThreadLocalCurrentTraceContext() {
+	}
+
+	@Override
+	public Span getCurrentSpan() {
+		SpanContext context = CURRENT_SPAN.get();
+		return context != null ? context.current : null;
+	}
+
+	@Override
+	public boolean isTracing() {
+		return getCurrentSpan() != null;
+	}
+
+	@Override
+	public void setCurrentSpan(Span span) {
+		// backwards compatibility
+		if (span == null) {
+			removeCurrentSpan();
+			return;
+		}
+		if (log.isTraceEnabled()) {
+			log.trace("Setting current span " + span);
+		}
+		context().current = span;
+	}
+
+	@Override
+	public void pushCurrentSpan(Span span) {
+		if (log.isTraceEnabled()) {
+			log.trace("Pushing current span " + span);
+		}
+		context().push(span);
+	}
+
+	@Override
+	public Span popCurrentSpan() {
+		SpanContext context = CURRENT_SPAN.get();
+		if (context == null) {
+			return null;
+		}
+		Span previous = context.pop();
+		if (previous == null) {
+			CURRENT_SPAN.remove();
+		}
+		return previous;
+	}
+
+	@Override
+	public void removeCurrentSpan() {
+		CURRENT_SPAN.remove();
+	}
+
+	private static SpanContext context() {
+		SpanContext context = CURRENT_SPAN.get();
+		if (context == null) {
+			context = new SpanContext();
+			CURRENT_SPAN.set(context);
+		}
+		return context;
+	}
+
+	static final class SpanContext {
+
+		private static final int INITIAL_CAPACITY = 4;
+
+		private static final Span[] NONE = new Span[0];
+
+		private Span current;
+
+		// allocated on the first nested span, so that threads running a single task (e.g.
+		// one per task) only pay for the current span
+		private Span[] saved = NONE;
+
+		private int depth;
+
+		void push(Span span) {
+			if (this.current != null) {
+				if (this.depth == this.saved.length) {
+					this.saved = Arrays.copyOf(this.saved,
+							Math.max(INITIAL_CAPACITY, this.depth << 1));
+				}
+				this.saved[this.depth++] = this.current;
+			}
+			this.current = span;
+		}
+
+		Span pop() {
+			Span previous = null;
+			if (this.depth > 0) {
+				previous = this.saved[--this.depth];
+				this.saved[this.depth] = null;
+			}
+			this.current = previous;
+			return previous;
+		}
+	}
+}
@@ -17,25 +17,43 @@
 package org.springframework.cloud.sleuth;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.isA;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.cloud.sleuth.clock.SystemClock;
+import org.springframework.cloud.sleuth.clock.VirtualClock;
+import org.springframework.cloud.sleuth.event.ApplicationEventSpanListener;
+import org.springframework.cloud.sleuth.event.CompositeSpanListener;
+import org.springframework.cloud.sleuth.event.ScopeSpanListener;
 import org.springframework.cloud.sleuth.event.SpanAcquiredEvent;
+import org.springframework.cloud.sleuth.event.SpanListener;
 import org.springframework.cloud.sleuth.event.SpanReleasedEvent;
+import org.springframework.cloud.sleuth.id.ThreadLocalRandomIdGenerator;
+import org.springframework.cloud.sleuth.instrument.TraceRunnable;
+import org.springframework.cloud.sleuth.metric.TracerOverhead;
+import org.springframework.cloud.sleuth.metric.TracerOverhead.Operation;
 import org.springframework.cloud.sleuth.sampler.AlwaysSampler;
 import org.springframework.cloud.sleuth.sampler.IsTracingSampler;
+import org.springframework.cloud.sleuth.trace.CurrentTraceContext;
 import org.springframework.cloud.sleuth.trace.DefaultTracer;
 import org.springframework.cloud.sleuth.trace.SpanContextHolder;
 import org.springframework.context.ApplicationEvent;
@@ -65,9 +83,103 @@ public class DefaultTraceManagerTests {
 
 	@Test
 	public void tracingWorks() {
+		assertTracingWorks(new DefaultTracer(new IsTracingSampler(), new Random(), this.publisher));
+	}
 
-		DefaultTracer tracer = new DefaultTracer(new IsTracingSampler(), new Random(), this.publisher);
+	@Test
+	public void tracingWorksWithCopyFreeScoping() {
+		assertTracingWorks(new DefaultTracer(new IsTracingSampler(), new Random(), this.publisher, true));
+	}
+
+	@Test
+	public void copyFreeScopingDoesNotCopySpans() {
+		DefaultTracer tracer = new DefaultTracer(new AlwaysSampler(), new Random(), this.publisher, true);
+		Span parent = tracer.startTrace(CREATE_SIMPLE_TRACE);
+		Span child = tracer.startTrace(IMPORTANT_WORK_1);
+
+		assertThat(tracer.getCurrentSpan(), sameInstance(child));
+		assertThat(child.hasSavedSpan(), is(false));
+		assertThat(tracer.close(child), sameInstance(parent));
+		assertThat(tracer.getCurrentSpan(), sameInstance(parent));
+		assertThat(tracer.close(parent), nullValue());
+		assertThat(tracer.isTracing(), is(false));
+	}
+
+	@Test
+	public void copyFreeScopingRestoresDeeplyNestedSpans() {
+		DefaultTracer tracer = new DefaultTracer(new AlwaysSampler(), new Random(), this.publisher, true);
+		Deque<Span> spans = new ArrayDeque<>();
+		for (int i = 0; i < 20; i++) {
+			spans.push(tracer.startTrace("span" + i));
+		}
+		while (!spans.isEmpty()) {
+			Span span = spans.pop();
+			assertThat(tracer.getCurrentSpan(), sameInstance(span));
+			tracer.close(span);
+		}
+		assertThat(tracer.isTracing(), is(false));
+	}
+
+	@Test
+	public void copyFreeScopingKeepsRemoteParentInScope() {
+		DefaultTracer tracer = new DefaultTracer(new AlwaysSampler(), new Random(), this.publisher, true);
+		Span remote = Span.builder().traceId(1L).spanId(2L).remote(true).build();
+
+		Span child = tracer.joinTrace(CREATE_SIMPLE_TRACE, remote);
+
+		assertThat(child.getParents().get(0), is(2L));
+		assertThat(tracer.close(child), sameInstance(remote));
+		assertThat(tracer.close(remote), nullValue());
+		assertThat(tracer.isTracing(), is(false));
+		verify(this.publisher, times(1)).publishEvent(isA(SpanReleasedEvent.class));
+	}
 
+	@Test
+	public void copyFreeScopingOnlyTakesTheClosedSpanOutOfScope() {
+		DefaultTracer tracer = new DefaultTracer(new AlwaysSampler(), new Random(), this.publisher, true);
+		Span outer = tracer.startTrace(CREATE_SIMPLE_TRACE);
+		Span unrelated = tracer.continueSpan(Span.builder().traceId(5L).spanId(6L).build());
+
+		assertThat(tracer.close(unrelated), sameInstance(outer));
+		assertThat(tracer.getCurrentSpan(), sameInstance(outer));
+		assertThat(tracer.close(outer), nullValue());
+		assertThat(tracer.isTracing(), is(false));
+	}
+
+	@Test
+	public void spansOfATraceShareTheClockAnchor() {
+		VirtualClock clock = new VirtualClock(1000000L);
+		DefaultTracer tracer = new DefaultTracer(new AlwaysSampler(), new Random(), this.publisher, clock, false);
+		Span parent = tracer.startTrace(CREATE_SIMPLE_TRACE);
+		clock.advance(100, TimeUnit.MICROSECONDS);
+		Span child = tracer.startTrace(IMPORTANT_WORK_1);
+		clock.advance(300, TimeUnit.MICROSECONDS);
+		tracer.close(child);
+		tracer.close(parent);
+
+		assertThat(child.clock(), sameInstance(parent.clock()));
+		assertThat(child.getBeginMicros(), is(1000100L));
+		assertThat(child.getAccumulatedMicros(), is(300L));
+		assertThat(parent.getAccumulatedMicros(), is(400L));
+	}
+
+	@Test
+	public void spansOfATraceShareThe128BitTraceId() {
+		DefaultTracer tracer = new DefaultTracer(new AlwaysSampler(),
+				new ThreadLocalRandomIdGenerator(true), this.publisher,
+				SystemClock.INSTANCE, false);
+		Span parent = tracer.startTrace(CREATE_SIMPLE_TRACE);
+		Span child = tracer.startTrace(IMPORTANT_WORK_1);
+		tracer.close(child);
+		tracer.close(parent);
+
+		assertThat(parent.getTraceIdHigh(), not(0L));
+		assertThat(child.getTraceIdHigh(), is(parent.getTraceIdHigh()));
+		assertThat(child.getTraceId(), is(parent.getTraceId()));
+		assertThat(child.traceIdHex().length(), is(32));
+	}
+
+	private void assertTracingWorks(DefaultTracer tracer) {
 		Span span = tracer.startTrace(CREATE_SIMPLE_TRACE, new AlwaysSampler());
 		try {
 			importantWork1(tracer);
@@ -107,6 +219,101 @@ public class DefaultTraceManagerTests {
 		assertThat(span.isExportable(), is(false));
 	}
 
+	@Test
+	public void nonExportableSpansAreOnlyReportedToScopeListeners() {
+		SpanListener exporter = mock(SpanListener.class);
+		ScopeSpanListener scope = mock(ScopeSpanListener.class);
+		DefaultTracer tracer = new DefaultTracer(new IsTracingSampler(),
+				new ThreadLocalRandomIdGenerator(),
+				new CompositeSpanListener(exporter, scope), SystemClock.INSTANCE, false);
+		Span span = tracer.startTrace(CREATE_SIMPLE_TRACE);
+		Span child = tracer.startTrace(IMPORTANT_WORK_1);
+		tracer.addTag("key", "value");
+		child.logEvent("event");
+		tracer.close(child);
+		tracer.close(span);
+
+		verifyZeroInteractions(exporter);
+		verify(scope).spanAcquired(null, span);
+		verify(scope).spanReleased(null, span);
+		assertThat(child.tags().isEmpty(), is(true));
+		assertThat(child.logs().isEmpty(), is(true));
+	}
+
+	@Test
+	public void traceIdSamplerDecidesOnTheNewTraceId() {
+		final List<Long> sampledIds = new ArrayList<>();
+		DefaultTracer tracer = new DefaultTracer(new AlwaysSampler(), new Random(), this.publisher);
+		Span span = tracer.startTrace(CREATE_SIMPLE_TRACE, new TraceIdSampler() {
+			@Override
+			public boolean isSampled(long traceId) {
+				sampledIds.add(traceId);
+				return traceId % 2 == 0;
+			}
+
+			@Override
+			public boolean isSampled() {
+				throw new AssertionError("the trace id should be used");
+			}
+		});
+		assertThat(sampledIds.size(), is(1));
+		assertThat(span.getTraceId(), is(sampledIds.get(0)));
+		assertThat(span.isExportable(), is(span.getTraceId() % 2 == 0));
+	}
+
+	@Test
+	public void overheadIsMeasuredOnlyWhileEnabled() {
+		TracerOverhead overhead = new TracerOverhead(false);
+		DefaultTracer tracer = new DefaultTracer(new AlwaysSampler(), new Random(), this.publisher);
+		tracer.setTracerOverhead(overhead);
+		tracer.close(tracer.startTrace(CREATE_SIMPLE_TRACE));
+		overhead.setEnabled(true);
+		tracer.close(tracer.startTrace(CREATE_SIMPLE_TRACE));
+
+		assertThat(overhead.snapshot(Operation.TRACER_START).getCount(), is(1L));
+		assertThat(overhead.snapshot(Operation.TRACER_CLOSE).getCount(), is(1L));
+		// acquired, continued and released
+		assertThat(overhead.snapshot(Operation.LISTENER).getCount(), is(3L));
+		// the start of a trace is not also measured as continuing a span
+		assertThat(overhead.snapshot(Operation.TRACER_CONTINUE).getCount(), is(0L));
+	}
+
+	@Test
+	public void spansAreKeptInTheGivenContext() {
+		ExplicitTraceContext context = new ExplicitTraceContext();
+		DefaultTracer tracer = new DefaultTracer(new AlwaysSampler(),
+				new ThreadLocalRandomIdGenerator(),
+				new ApplicationEventSpanListener(this.publisher), SystemClock.INSTANCE,
+				true, context);
+		Span parent = tracer.startTrace(CREATE_SIMPLE_TRACE);
+		Span child = tracer.startTrace(IMPORTANT_WORK_1);
+
+		assertThat(context.current, sameInstance(child));
+		assertThat(SpanContextHolder.isTracing(), is(false));
+		assertThat(tracer.close(child), sameInstance(parent));
+		assertThat(tracer.close(parent), nullValue());
+		assertThat(context.isTracing(), is(false));
+	}
+
+	@Test
+	public void instrumentationClearsAndReadsTheGivenContext() {
+		ExplicitTraceContext context = new ExplicitTraceContext();
+		DefaultTracer tracer = new DefaultTracer(new AlwaysSampler(),
+				new ThreadLocalRandomIdGenerator(),
+				new ApplicationEventSpanListener(this.publisher), SystemClock.INSTANCE,
+				true, context);
+		final List<Span> spans = new ArrayList<>();
+		Runnable task = new TraceRunnable(tracer, () -> spans.add(tracer.getCurrentSpan()));
+		Span stale = tracer.startTrace(CREATE_SIMPLE_TRACE);
+
+		assertThat(new IsTracingSampler(context).isSampled(), is(true));
+		task.run();
+
+		assertThat(spans.get(0).getTraceId(), not(stale.getTraceId()));
+		assertThat(context.isTracing(), is(false));
+		assertThat(new IsTracingSampler(context).isSampled(), is(false));
+	}
+
 	@Test
 	public void exportableInheritedFromParent() {
 		DefaultTracer tracer = new DefaultTracer(new AlwaysSampler(), new Random(), this.publisher);
@@ -165,4 +372,49 @@ public class DefaultTraceManagerTests {
 		}
 	}
 
+	private static class ExplicitTraceContext implements CurrentTraceContext {
+
+		private final Deque<Span> saved = new ArrayDeque<>();
+
+		private Span current;
+
+		@Override
+		public Span getCurrentSpan() {
+			return this.current;
+		}
+
+		@Override
+		public boolean isTracing() {
+			return this.current != null;
+		}
+
+		@Override
+		public void setCurrentSpan(Span span) {
+			if (span == null) {
+				removeCurrentSpan();
+			}
+			this.current = span;
+		}
+
+		@Override
+		public void pushCurrentSpan(Span span) {
+			if (this.current != null) {
+				this.saved.push(this.current);
+			}
+			this.current = span;
+		}
+
+		@Override
+		public Span popCurrentSpan() {
+			this.current = this.saved.poll();
+			return this.current;
+		}
+
+		@Override
+		public void removeCurrentSpan() {
+			this.saved.clear();
+			this.current = null;
+		}
+	}
+
 }
@@ -2,7 +2,23 @@ package org.springframework.cloud.sleuth;
 
 import org.junit.Test;
 
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.cloud.sleuth.clock.AnchoredClock;
+import org.springframework.cloud.sleuth.clock.VirtualClock;
 
 import static org.assertj.core.api.BDDAssertions.then;
 
@@ -36,6 +52,65 @@ public class SpanTest {
 		Span.fromHex(null);
 	}
 
+	@Test
+	public void should_convert_hex_strings_like_big_integer() throws Exception {
+		for (String hex : new String[] { "0", "1e0f3", "1E0F3", "7fffffffffffffff",
+				"ffffffffffffffff", "8000000000000000", "00000000000000001",
+				"123456789abcdef0123", "-1", "+1e0f3", "-123456789abcdef0123" }) {
+			then(Span.fromHex(hex)).as(hex)
+					.isEqualTo(new BigInteger(hex, 16).longValue());
+		}
+	}
+
+	@Test
+	public void should_round_trip_ids_through_hex() throws Exception {
+		for (long id : new long[] { 0L, 1L, -1L, Long.MIN_VALUE, Long.MAX_VALUE,
+				-7995239461817367212L }) {
+			then(Span.fromHex(Span.toHex(id))).isEqualTo(id);
+		}
+	}
+
+	@Test
+	public void should_convert_128_bit_ids_to_and_from_hex() throws Exception {
+		String hex = Span.toHex(0x463ac35c9f6413adL, 0x0000000000000a1bL);
+
+		then(hex).isEqualTo("463ac35c9f6413ad0000000000000a1b");
+		then(Span.highBitsFromHex(hex)).isEqualTo(0x463ac35c9f6413adL);
+		then(Span.fromHex(hex)).isEqualTo(0xa1bL);
+		then(Span.highBitsFromHex("a1b")).isEqualTo(0L);
+	}
+
+	@Test
+	public void should_format_128_bit_trace_ids_with_32_characters() throws Exception {
+		Span span = Span.builder().traceIdHigh(1L).traceId(2L).spanId(2L).build();
+
+		then(span.traceIdHex()).isEqualTo("00000000000000010000000000000002");
+		then(span.toBuilder().build()).isEqualTo(span);
+		then(span).isNotEqualTo(Span.builder().traceId(2L).spanId(2L).build());
+	}
+
+	@Test(expected = NumberFormatException.class)
+	public void should_throw_exception_when_string_is_not_hex() throws Exception {
+		Span.fromHex("1e0g3");
+	}
+
+	@Test(expected = NumberFormatException.class)
+	public void should_throw_exception_when_string_is_only_a_sign() throws Exception {
+		Span.fromHex("-");
+	}
+
+	@Test
+	public void should_format_ids_as_hex_once() throws Exception {
+		Span span = Span.builder().traceId(1L).spanId(0x1e0f3L).parent(-1L).build();
+
+		then(span.spanIdHex()).isEqualTo("1e0f3").isSameAs(span.spanIdHex());
+		then(span.traceIdHex()).isEqualTo("1").isSameAs(span.traceIdHex());
+		then(span.parentIdHex()).isEqualTo("ffffffffffffffff")
+				.isSameAs(span.parentIdHex());
+		then(new Span(span, null).spanIdHex()).isSameAs(span.spanIdHex());
+		then(Span.builder().traceId(1L).spanId(1L).build().parentIdHex()).isNull();
+	}
+
 	@Test(expected = UnsupportedOperationException.class) public void getAnnotationsReadOnly() {
 		Span span = new Span(1, 2, "name", 1L, Collections.<Long>emptyList(), 2L, true,
 				true, "process");
@@ -49,4 +124,226 @@ public class SpanTest {
 
 		span.logs().add(new Log(1, "1"));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void should_measure_sub_millisecond_durations() throws Exception {
+		VirtualClock clock = new VirtualClock(1000000L);
+		Span span = Span.builder().traceId(1L).spanId(2L).clock(clock).build();
+
+		clock.advance(250, TimeUnit.MICROSECONDS);
+		span.logEvent("event");
+		clock.advance(500, TimeUnit.MICROSECONDS);
+		span.stop();
+
+		then(span.getBeginMicros()).isEqualTo(1000000L);
+		then(span.getEndMicros()).isEqualTo(1000750L);
+		then(span.getAccumulatedMicros()).isEqualTo(750L);
+		then(span.getAccumulatedMillis()).isEqualTo(0L);
+		then(span.getBegin()).isEqualTo(1000L);
+		then(span.logs().get(0).getTimestampMicros()).isEqualTo(1000250L);
+		then(span.logs().get(0).getTimestamp()).isEqualTo(1000L);
+	}
+
+	@Test
+	public void should_take_wall_time_only_once_per_anchor() throws Exception {
+		VirtualClock virtualClock = new VirtualClock(1000000L);
+		AnchoredClock clock = new AnchoredClock(virtualClock);
+
+		virtualClock.advance(1500, TimeUnit.NANOSECONDS);
+
+		then(clock.currentTimeMicros()).isEqualTo(1000001L);
+	}
+
+	@Test
+	public void should_keep_the_first_end_time_when_stopped_twice() throws Exception {
+		VirtualClock clock = new VirtualClock(1000000L);
+		Span span = Span.builder().traceId(1L).spanId(2L).clock(clock).build();
+
+		clock.advance(10, TimeUnit.MICROSECONDS);
+		span.stop();
+		clock.advance(10, TimeUnit.MICROSECONDS);
+		span.stop();
+
+		then(span.isRunning()).isFalse();
+		then(span.getEndMicros()).isEqualTo(1000010L);
+	}
+
+	@Test
+	public void should_stop_once_when_stopped_concurrently() throws Exception {
+		final VirtualClock clock = new VirtualClock(1000000L);
+		final Span span = Span.builder().traceId(1L).spanId(2L).clock(clock).build();
+		int threads = 8;
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<Long>> ends = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			ends.add(executor.submit(new Callable<Long>() {
+				@Override
+				public Long call() throws Exception {
+					start.await();
+					clock.advance(1, TimeUnit.MICROSECONDS);
+					span.stop();
+					return span.getEndMicros();
+				}
+			}));
+		}
+		start.countDown();
+
+		Set<Long> seen = new HashSet<>();
+		for (Future<Long> end : ends) {
+			seen.add(end.get(5, TimeUnit.SECONDS));
+		}
+		executor.shutdown();
+
+		then(seen).containsExactly(span.getEndMicros());
+	}
+
+	@Test
+	public void should_keep_all_tags_and_logs_added_concurrently() throws Exception {
+		final Span span = Span.builder().traceId(1L).spanId(2L).build();
+		int threads = 8;
+		final int perThread = 100;
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<Void>> done = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			final int thread = i;
+			done.add(executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					start.await();
+					for (int j = 0; j < perThread; j++) {
+						span.tag("tag-" + thread + "-" + j, "value");
+						span.logEvent("event-" + thread + "-" + j);
+					}
+					return null;
+				}
+			}));
+		}
+		start.countDown();
+
+		for (Future<Void> future : done) {
+			future.get(5, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+		span.stop();
+
+		then(span.tags()).hasSize(threads * perThread)
+				.containsEntry("tag-7-99", "value");
+		then(span.logs()).hasSize(threads * perThread);
+	}
+
+	@Test
+	public void should_keep_tags_in_insertion_order_and_overwrite_existing_keys() throws Exception {
+		Span span = Span.builder().traceId(1L).spanId(2L).build();
+
+		for (int i = 0; i < 10; i++) {
+			span.tag("key" + i, "value" + i);
+		}
+		span.tag(new String("key3"), "overwritten");
+
+		then(span.tags()).hasSize(10).containsEntry("key3", "overwritten")
+				.containsEntry("key9", "value9").doesNotContainKey("key10");
+		then(span.tags().keySet()).startsWith("key0", "key1", "key2", "key3");
+	}
+
+	@Test
+	public void should_resolve_deferred_tags_once_when_stopped() throws Exception {
+		VirtualClock clock = new VirtualClock(1000000L);
+		Span span = Span.builder().traceId(1L).spanId(2L).clock(clock).build();
+		final AtomicInteger calls = new AtomicInteger();
+		span.tag("key", () -> "value" + calls.incrementAndGet());
+
+		then(calls.get()).isZero();
+		span.stop();
+		then(calls.get()).isEqualTo(1);
+		then(span.tags()).containsEntry("key", "value1");
+		then(new Span(span, null).tags()).containsEntry("key", "value1");
+		then(calls.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void should_not_call_deferred_tags_of_spans_that_are_not_exportable() throws Exception {
+		Span span = Span.builder().traceId(1L).spanId(2L).exportable(false).build();
+		span.tag("key", () -> {
+			throw new AssertionError("should not be called");
+		});
+		span.stop();
+
+		then(span.tags()).isEmpty();
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void should_not_allow_modifying_tags_through_the_view() throws Exception {
+		Span span = Span.builder().traceId(1L).spanId(2L).build();
+		span.tag("a", "b");
+
+		span.tags().entrySet().iterator().remove();
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void should_not_allow_modifying_logs_through_the_view() throws Exception {
+		Span span = Span.builder().traceId(1L).spanId(2L).build();
+		span.logEvent("event");
+
+		span.logs().remove(0);
+	}
+
+	@Test
+	public void should_not_share_tags_and_logs_with_a_copy() throws Exception {
+		Span span = Span.builder().traceId(1L).spanId(2L).build();
+		span.tag("a", "b");
+		span.logEvent("event");
+
+		Span copy = new Span(span, null);
+		copy.tag("c", "d");
+		copy.logEvent("other");
+
+		then(span.tags()).containsOnlyKeys("a");
+		then(span.logs()).hasSize(1);
+		then(copy.tags()).containsOnlyKeys("a", "c");
+		then(copy.logs()).extracting("event").containsExactly("event", "other");
+	}
+
+	@Test
+	public void should_keep_a_single_parent_as_the_parent_id() throws Exception {
+		Span span = Span.builder().traceId(1L).spanId(3L).parent(2L).build();
+
+		then(span.hasParent()).isTrue();
+		then(span.hasParent(2L)).isTrue();
+		then(span.hasParent(1L)).isFalse();
+		then(span.hasMultipleParents()).isFalse();
+		then(span.getParentId()).isEqualTo(2L);
+		then(span.getParents()).containsExactly(2L);
+	}
+
+	@Test
+	public void should_treat_a_zero_parent_id_as_a_parent() throws Exception {
+		Span span = Span.builder().traceId(1L).spanId(3L).parent(0L).build();
+
+		then(span.hasParent()).isTrue();
+		then(span.hasParent(0L)).isTrue();
+		then(span.getParents()).containsExactly(0L);
+	}
+
+	@Test
+	public void should_have_no_parents_for_a_root_span() throws Exception {
+		Span span = Span.builder().traceId(1L).spanId(1L).build();
+
+		then(span.hasParent()).isFalse();
+		then(span.hasParent(0L)).isFalse();
+		then(span.getParents()).isEmpty();
+	}
+
+	@Test
+	public void should_keep_all_parents_of_a_span_with_multiple_parents() throws Exception {
+		Span span = new Span(1, 2, "name", 1L, Arrays.asList(2L, 3L, 4L), 5L, false,
+				true, "process");
+
+		then(span.hasMultipleParents()).isTrue();
+		then(span.getParentId()).isEqualTo(2L);
+		then(span.hasParent(4L)).isTrue();
+		then(span.getParents()).containsExactly(2L, 3L, 4L);
+		then(span.toBuilder().build().getParents()).containsExactly(2L, 3L, 4L);
+	}
+}
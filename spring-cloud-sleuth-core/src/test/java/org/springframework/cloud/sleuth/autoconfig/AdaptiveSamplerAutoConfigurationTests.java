@@ -0,0 +1,57 @@
+package org.springframework.cloud.sleuth.autoconfig;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.cloud.sleuth.Clock;
+import org.springframework.cloud.sleuth.Sampler;
+import org.springframework.cloud.sleuth.clock.VirtualClock;
+import org.springframework.cloud.sleuth.instrument.DefaultTestAutoConfiguration;
+import org.springframework.cloud.sleuth.metric.SpanReporterService;
+import org.springframework.cloud.sleuth.sampler.AdaptiveSampler;
+import org.springframework.cloud.sleuth.sampler.AdaptiveSamplingSpanReporterService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = {
+		AdaptiveSamplerAutoConfigurationTests.TestConfiguration.class })
+@IntegrationTest("spring.sleuth.sampler.exportBudget=100")
+public class AdaptiveSamplerAutoConfigurationTests {
+
+	@Autowired Sampler sampler;
+	@Autowired SpanReporterService spanReporterService;
+	@Autowired VirtualClock clock;
+
+	@Test
+	public void should_tell_the_sampler_about_saturated_reporters() {
+		then(this.sampler).isInstanceOf(AdaptiveSampler.class);
+		then(this.spanReporterService)
+				.isInstanceOf(AdaptiveSamplingSpanReporterService.class);
+		AdaptiveSampler sampler = (AdaptiveSampler) this.sampler;
+		double rate = sampler.getRate();
+
+		this.spanReporterService.incrementOverflowedSpans(1);
+		this.clock.advance(2, TimeUnit.SECONDS);
+		sampler.isSampled();
+
+		then(sampler.getRate()).isEqualTo(rate / 2);
+	}
+
+	@DefaultTestAutoConfiguration
+	@Configuration
+	static class TestConfiguration {
+
+		@Bean
+		Clock traceClock() {
+			return new VirtualClock();
+		}
+	}
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.event;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.clock.VirtualClock;
+import org.springframework.cloud.sleuth.metric.NoOpSpanReporterService;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class AsyncSpanListenerTests {
+
+	RecordingListener exporter = new RecordingListener();
+	CountingReporterService reporterService = new CountingReporterService();
+	AsyncSpanListener listener;
+
+	@After
+	public void close() {
+		this.exporter.unblock.countDown();
+		this.listener.close();
+	}
+
+	@Test
+	public void should_export_released_spans_on_another_thread() {
+		this.listener = listener(16, AsyncSpanListener.OverflowPolicy.DROP);
+		this.exporter.unblock.countDown();
+
+		this.listener.spanReleased(null, span(1L));
+		this.listener.spanReleased(null, span(2L));
+		this.listener.close();
+
+		then(this.exporter.released).extracting("spanId").containsExactly(1L, 2L);
+		then(this.exporter.threads).doesNotContain(Thread.currentThread().getName());
+	}
+
+	@Test
+	public void should_only_annotate_sent_responses_on_the_calling_thread() {
+		this.listener = listener(16, AsyncSpanListener.OverflowPolicy.DROP);
+		this.exporter.unblock.countDown();
+
+		this.listener.serverSent(span(1L), span(2L));
+		this.listener.close();
+
+		then(this.exporter.beforeServerSent).containsExactly(Thread.currentThread().getName());
+		then(this.exporter.exportedServerSent).hasSize(1)
+				.doesNotContain(Thread.currentThread().getName());
+	}
+
+	@Test
+	public void should_export_sent_responses_as_they_were_when_sent() {
+		this.listener = listener(16, AsyncSpanListener.OverflowPolicy.DROP);
+		VirtualClock clock = new VirtualClock(1000);
+		Span parent = Span.builder().traceId(1L).spanId(1L).remote(true).clock(clock)
+				.build();
+		parent.tag("tag", "value");
+		clock.advance(150, TimeUnit.MICROSECONDS);
+
+		this.listener.serverSent(parent, span(2L));
+		clock.advance(1, TimeUnit.SECONDS);
+		parent.tag("late", "value");
+		parent.stop();
+		this.exporter.unblock.countDown();
+		this.listener.close();
+
+		then(this.exporter.exportedParents).hasSize(1);
+		Span exported = this.exporter.exportedParents.get(0);
+		then(exported).isNotSameAs(parent);
+		then(exported.getAccumulatedMicros()).isEqualTo(150);
+		then(exported.tags()).containsOnlyKeys("tag");
+	}
+
+	@Test
+	public void should_pass_on_other_callbacks_on_the_calling_thread() {
+		this.listener = listener(16, AsyncSpanListener.OverflowPolicy.DROP);
+
+		this.listener.clientSent(span(1L));
+
+		then(this.exporter.threads).containsExactly(Thread.currentThread().getName());
+	}
+
+	@Test
+	public void should_count_spans_dropped_when_the_buffer_is_full() throws Exception {
+		this.listener = listener(2, AsyncSpanListener.OverflowPolicy.DROP);
+		this.listener.spanReleased(null, span(1L));
+		then(this.exporter.exporting.await(5, TimeUnit.SECONDS)).isTrue();
+
+		this.listener.spanReleased(null, span(2L));
+		this.listener.spanReleased(null, span(3L));
+		this.listener.spanReleased(null, span(4L));
+		this.exporter.unblock.countDown();
+		this.listener.close();
+
+		then(this.exporter.released).extracting("spanId").containsExactly(1L, 2L, 3L);
+		then(this.reporterService.overflowed.get()).isEqualTo(1);
+	}
+
+	private AsyncSpanListener listener(int bufferSize,
+			AsyncSpanListener.OverflowPolicy policy) {
+		return new AsyncSpanListener(
+				Collections.<ExportingSpanListener>singletonList(this.exporter),
+				bufferSize, policy, this.reporterService);
+	}
+
+	private Span span(long id) {
+		return Span.builder().traceId(id).spanId(id).build();
+	}
+
+	static class RecordingListener extends SpanListenerAdapter
+			implements ExportingSpanListener {
+
+		final List<Span> released = new CopyOnWriteArrayList<>();
+		final List<String> threads = new CopyOnWriteArrayList<>();
+		final CountDownLatch exporting = new CountDownLatch(1);
+		final CountDownLatch unblock = new CountDownLatch(1);
+		final List<String> beforeServerSent = new CopyOnWriteArrayList<>();
+		final List<String> exportedServerSent = new CopyOnWriteArrayList<>();
+		final List<Span> exportedParents = new CopyOnWriteArrayList<>();
+
+		@Override
+		public void spanReleased(Span parent, Span span) {
+			this.threads.add(Thread.currentThread().getName());
+			this.exporting.countDown();
+			try {
+				this.unblock.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			this.released.add(span);
+		}
+
+		@Override
+		public void clientSent(Span span) {
+			this.threads.add(Thread.currentThread().getName());
+		}
+
+		@Override
+		public void beforeServerSent(Span parent, Span span) {
+			this.beforeServerSent.add(Thread.currentThread().getName());
+		}
+
+		@Override
+		public void exportServerSent(Span parent, Span span) {
+			this.exportedServerSent.add(Thread.currentThread().getName());
+			this.exportedParents.add(parent);
+		}
+	}
+
+	static class CountingReporterService extends NoOpSpanReporterService {
+
+		final AtomicLong overflowed = new AtomicLong();
+
+		@Override
+		public void incrementOverflowedSpans(long quantity) {
+			this.overflowed.addAndGet(quantity);
+		}
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.annotation.Order;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class CompositeSpanListenerTests {
+
+	List<String> calls = new ArrayList<>();
+	Span parent = Span.builder().traceId(1L).spanId(1L).build();
+	Span span = Span.builder().traceId(1L).spanId(2L).parent(1L).build();
+
+	@Test
+	public void should_call_listeners_in_their_order() {
+		CompositeSpanListener listener = new CompositeSpanListener(new Last(), new First());
+
+		listener.spanAcquired(this.parent, this.span);
+		listener.spanReleased(this.parent, this.span);
+
+		then(this.calls).containsExactly("first acquired", "last acquired",
+				"first released", "last released");
+	}
+
+	@Test
+	public void should_pass_on_events_published_by_other_code() {
+		CompositeSpanListener listener = new CompositeSpanListener(new First());
+		SpanListenerEventBridge bridge = new SpanListenerEventBridge(listener);
+
+		bridge.onApplicationEvent(new SpanAcquiredEvent(this, this.parent, this.span));
+		bridge.onApplicationEvent(new SpanReleasedEvent(this, this.parent, this.span));
+
+		then(this.calls).containsExactly("first acquired", "first released");
+	}
+
+	@Test
+	public void should_not_pass_on_events_it_published_itself() {
+		final List<Object> published = new ArrayList<>();
+		ApplicationEventSpanListener publishing = new ApplicationEventSpanListener(
+				new ApplicationEventPublisher() {
+					@Override
+					public void publishEvent(ApplicationEvent event) {
+						published.add(event);
+					}
+
+					@Override
+					public void publishEvent(Object event) {
+						published.add(event);
+					}
+				});
+		CompositeSpanListener listener = new CompositeSpanListener(new First(), publishing);
+		SpanListenerEventBridge bridge = new SpanListenerEventBridge(listener, publishing);
+
+		listener.spanAcquired(this.parent, this.span);
+		bridge.onApplicationEvent((SpanAcquiredEvent) published.get(0));
+
+		then(this.calls).containsExactly("first acquired");
+		then(published).hasSize(1);
+	}
+
+	@Order(1)
+	class First extends SpanListenerAdapter {
+		@Override
+		public void spanAcquired(Span parent, Span span) {
+			CompositeSpanListenerTests.this.calls.add("first acquired");
+		}
+
+		@Override
+		public void spanReleased(Span parent, Span span) {
+			CompositeSpanListenerTests.this.calls.add("first released");
+		}
+	}
+
+	@Order(2)
+	class Last extends SpanListenerAdapter {
+		@Override
+		public void spanAcquired(Span parent, Span span) {
+			CompositeSpanListenerTests.this.calls.add("last acquired");
+		}
+
+		@Override
+		public void spanReleased(Span parent, Span span) {
+			CompositeSpanListenerTests.this.calls.add("last released");
+		}
+	}
+}
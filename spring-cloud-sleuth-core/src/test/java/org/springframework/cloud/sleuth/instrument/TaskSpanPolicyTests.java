@@ -0,0 +1,71 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.sampler.AlwaysSampler;
+import org.springframework.cloud.sleuth.trace.DefaultTracer;
+import org.springframework.cloud.sleuth.trace.ThreadLocalCurrentTraceContext;
+import org.springframework.context.ApplicationEventPublisher;
+
+public class TaskSpanPolicyTests {
+
+	Tracer tracer = new DefaultTracer(new AlwaysSampler(),
+			new Random(), Mockito.mock(ApplicationEventPublisher.class));
+
+	@Test
+	public void should_start_a_span_per_task_by_default() {
+		then(TaskSpanPolicy.SPAN_PER_TASK.wrap(this.tracer,
+				ThreadLocalCurrentTraceContext.INSTANCE, new CacheRefresh()))
+						.isInstanceOf(TraceRunnable.class);
+	}
+
+	@Test
+	public void should_only_propagate_the_context_when_spans_per_task_are_off() {
+		then(TaskSpanPolicy.CONTEXT_ONLY.wrap(this.tracer,
+				ThreadLocalCurrentTraceContext.INSTANCE, new CacheRefresh()))
+						.isInstanceOf(TraceContextRunnable.class);
+		then(TaskSpanPolicy.CONTEXT_ONLY.wrap(this.tracer,
+				ThreadLocalCurrentTraceContext.INSTANCE, (Callable<String>) () -> "done"))
+						.isInstanceOf(TraceContextCallable.class);
+	}
+
+	@Test
+	public void should_only_propagate_the_context_for_tasks_matching_the_pattern() {
+		TaskSpanPolicy policy = new TaskSpanPolicy(true, Pattern.compile(".*CacheRefresh"));
+
+		then(policy.startsSpan(new CacheRefresh())).isFalse();
+		then(policy.startsSpan(new CacheRefresh())).isFalse();
+		then(policy.startsSpan((Runnable) () -> {
+		})).isTrue();
+	}
+
+	static class CacheRefresh implements Runnable {
+
+		@Override
+		public void run() {
+		}
+	}
+}
@@ -12,7 +12,9 @@ import org.springframework.cloud.sleuth.trace.DefaultTracer;
 import org.springframework.cloud.sleuth.trace.SpanContextHolder;
 import org.springframework.context.ApplicationEventPublisher;
 
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -69,6 +71,32 @@ public class TraceRunnableTests {
 		then(secondSpan).as("unexpected span").isNull();
 	}
 
+	@Test
+	public void should_call_deferred_tags_of_the_parent_only_on_the_thread_owning_it()
+			throws Exception {
+		// given
+		List<Thread> calls = new CopyOnWriteArrayList<>();
+		Span parent = this.tracer.startTrace("parent");
+		parent.tag("deferred", () -> {
+			calls.add(Thread.currentThread());
+			return "value";
+		});
+		TraceKeepingRunnable traceKeepingRunnable = runnableThatRetrievesTraceFromThreadLocal();
+
+		// when
+		whenRunnableGetsSubmitted(() -> {
+			traceKeepingRunnable.run();
+			// the copy of the parent put in scope on the worker
+			then(traceKeepingRunnable.span.getSavedSpan().tags())
+					.containsEntry("deferred", null);
+		});
+		this.tracer.close(parent);
+
+		// then
+		then(calls).containsExactly(Thread.currentThread());
+		then(parent.tags()).containsEntry("deferred", "value");
+	}
+
 	private TraceKeepingRunnable runnableThatRetrievesTraceFromThreadLocal() {
 		return new TraceKeepingRunnable();
 	}
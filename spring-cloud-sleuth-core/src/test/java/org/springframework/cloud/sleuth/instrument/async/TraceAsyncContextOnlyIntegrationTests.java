@@ -0,0 +1,81 @@
+package org.springframework.cloud.sleuth.instrument.async;
+
+import com.jayway.awaitility.Awaitility;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.instrument.DefaultTestAutoConfiguration;
+import org.springframework.cloud.sleuth.trace.SpanContextHolder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = {
+		TraceAsyncContextOnlyIntegrationTests.TraceAsyncITestConfiguration.class })
+@IntegrationTest("spring.sleuth.async.spanPerTask=false")
+public class TraceAsyncContextOnlyIntegrationTests {
+
+	@Autowired ClassPerformingAsyncLogic classPerformingAsyncLogic;
+	@Autowired Tracer tracer;
+
+	@Test
+	public void should_run_async_annotated_methods_in_the_span_of_the_caller() {
+		final Span span = this.tracer.startTrace("existing");
+
+		this.classPerformingAsyncLogic.invokeAsynchronousLogic();
+
+		Awaitility.await().until(new Runnable() {
+			@Override
+			public void run() {
+				Span asyncSpan = TraceAsyncContextOnlyIntegrationTests.this.classPerformingAsyncLogic.span.get();
+				then(asyncSpan).isNotNull();
+				then(asyncSpan.getSpanId()).isEqualTo(span.getSpanId());
+				then(asyncSpan.getName()).isEqualTo("existing");
+			}
+		});
+		then(this.classPerformingAsyncLogic.thread.get())
+				.isNotEqualTo(Thread.currentThread().getName());
+		this.tracer.close(span);
+	}
+
+	@After
+	public void cleanTrace() {
+		SpanContextHolder.removeCurrentSpan();
+	}
+
+	@DefaultTestAutoConfiguration
+	@EnableAsync
+	@Configuration
+	static class TraceAsyncITestConfiguration {
+
+		@Bean
+		ClassPerformingAsyncLogic asyncClass() {
+			return new ClassPerformingAsyncLogic();
+		}
+
+	}
+
+	static class ClassPerformingAsyncLogic {
+
+		AtomicReference<Span> span = new AtomicReference<>();
+		AtomicReference<String> thread = new AtomicReference<>();
+
+		@Async
+		public void invokeAsynchronousLogic() {
+			this.thread.set(Thread.currentThread().getName());
+			this.span.set(SpanContextHolder.getCurrentSpan());
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.executor;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.Matchers.isA;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.event.SpanAcquiredEvent;
+import org.springframework.cloud.sleuth.sampler.AlwaysSampler;
+import org.springframework.cloud.sleuth.trace.DefaultTracer;
+import org.springframework.cloud.sleuth.trace.SpanContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TraceContextExecutorServiceTests {
+
+	private static final int TASKS = 5000;
+
+	@Mock ApplicationEventPublisher publisher;
+	DefaultTracer tracer;
+	ExecutorService executorService = Executors.newCachedThreadPool();
+	TraceContextExecutorService traceContextExecutorService;
+
+	@Before
+	public void setup() {
+		this.tracer = new DefaultTracer(new AlwaysSampler(), new Random(), this.publisher, true);
+		this.traceContextExecutorService = new TraceContextExecutorService(
+				this.executorService, this.tracer, this.tracer.getCurrentTraceContext());
+		SpanContextHolder.removeCurrentSpan();
+	}
+
+	@After
+	public void tearDown() {
+		this.executorService.shutdown();
+		SpanContextHolder.removeCurrentSpan();
+	}
+
+	@Test
+	public void should_propagate_the_span_to_thousands_of_tasks_without_starting_spans() throws Exception {
+		Span span = this.tracer.startTrace("PARENT");
+		List<Future<Span>> futures = new ArrayList<>();
+		for (int i = 0; i < TASKS; i++) {
+			futures.add(this.traceContextExecutorService.submit(currentSpan()));
+		}
+		this.tracer.close(span);
+
+		for (Future<Span> future : futures) {
+			then(future.get()).isSameAs(span);
+		}
+		verify(this.publisher, times(1)).publishEvent(isA(SpanAcquiredEvent.class));
+	}
+
+	@Test
+	public void should_leave_no_span_in_scope_on_the_worker_threads() throws Exception {
+		Span span = this.tracer.startTrace("PARENT");
+		List<Callable<Span>> tasks = new ArrayList<>();
+		for (int i = 0; i < TASKS; i++) {
+			tasks.add(currentSpan());
+		}
+		this.traceContextExecutorService.invokeAll(tasks);
+		this.tracer.close(span);
+
+		for (Future<Span> future : this.traceContextExecutorService.invokeAll(tasks)) {
+			then(future.get()).isNull();
+		}
+	}
+
+	@Test
+	public void should_start_a_span_per_task_when_a_span_name_is_set() throws Exception {
+		this.traceContextExecutorService.setSpanName("task");
+		Span span = this.tracer.startTrace("PARENT");
+		Span taskSpan = this.traceContextExecutorService.submit(currentSpan()).get();
+		this.tracer.close(span);
+
+		then(taskSpan.getName()).isEqualTo("task");
+		then(taskSpan.getTraceId()).isEqualTo(span.getTraceId());
+		then(taskSpan.getParents()).containsExactly(span.getSpanId());
+	}
+
+	private Callable<Span> currentSpan() {
+		return SpanContextHolder::getCurrentSpan;
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.executor;
+
+import static java.util.stream.Collectors.toSet;
+import static org.assertj.core.api.BDDAssertions.then;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.clock.SystemClock;
+import org.springframework.cloud.sleuth.event.SpanListenerAdapter;
+import org.springframework.cloud.sleuth.id.ThreadLocalRandomIdGenerator;
+import org.springframework.cloud.sleuth.sampler.AlwaysSampler;
+import org.springframework.cloud.sleuth.trace.DefaultTracer;
+import org.springframework.cloud.sleuth.trace.SpanContextHolder;
+
+public class TraceForkJoinPoolTests {
+
+	List<Span> released = new CopyOnWriteArrayList<>();
+	DefaultTracer tracer = new DefaultTracer(new AlwaysSampler(),
+			new ThreadLocalRandomIdGenerator(), new SpanListenerAdapter() {
+				@Override
+				public void spanReleased(Span parent, Span span) {
+					TraceForkJoinPoolTests.this.released.add(span);
+				}
+			}, SystemClock.INSTANCE, true);
+	TraceForkJoinPool pool = new TraceForkJoinPool(4, this.tracer,
+			this.tracer.getCurrentTraceContext());
+	Queue<Span> spansInTasks = new ConcurrentLinkedQueue<>();
+	AtomicInteger computed = new AtomicInteger();
+
+	@Before
+	public void setup() {
+		SpanContextHolder.removeCurrentSpan();
+	}
+
+	@After
+	public void cleanup() {
+		this.pool.shutdown();
+		SpanContextHolder.removeCurrentSpan();
+	}
+
+	@Test
+	public void should_run_all_subtasks_in_a_single_span_of_the_parallel_section() {
+		Span parent = this.tracer.startTrace("parent");
+
+		long sum = this.pool.invoke(new Sum(0, 10000));
+		this.tracer.close(parent);
+
+		then(sum).isEqualTo(49995000L);
+		then(this.released).hasSize(2);
+		Span section = this.released.get(0);
+		then(section.getName()).isEqualTo("fork-join");
+		then(section.getParents()).containsExactly(parent.getSpanId());
+		then(this.spansInTasks.stream().collect(toSet())).containsExactly(section);
+		then(section.tags().get(TraceForkJoinPool.TASKS_TAG))
+				.isEqualTo(String.valueOf(this.computed.get()));
+		then(section.tags()).containsKey(TraceForkJoinPool.STEALS_TAG);
+	}
+
+	@Test
+	public void should_pass_the_span_of_the_parallel_section_to_a_parallel_stream() {
+		Span parent = this.tracer.startTrace("parent");
+
+		Set<Span> spans = this.pool.invoke(ForkJoinTask.adapt(() -> IntStream.range(0, 1000)
+				.parallel().boxed()
+				.map(this.pool.inScope(i -> SpanContextHolder.getCurrentSpan()))
+				.collect(toSet())));
+		this.tracer.close(parent);
+
+		then(spans).containsExactly(this.released.get(0));
+	}
+
+	class Sum extends TraceRecursiveTask<Long> {
+
+		final int from;
+		final int to;
+
+		Sum(int from, int to) {
+			super(TraceForkJoinPoolTests.this.tracer.getCurrentTraceContext());
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Long doCompute() {
+			TraceForkJoinPoolTests.this.computed.incrementAndGet();
+			TraceForkJoinPoolTests.this.spansInTasks.add(SpanContextHolder.getCurrentSpan());
+			if (this.to - this.from <= 100) {
+				long sum = 0;
+				for (int i = this.from; i < this.to; i++) {
+					sum += i;
+				}
+				return sum;
+			}
+			int middle = (this.from + this.to) >>> 1;
+			Sum left = new Sum(this.from, middle);
+			left.fork();
+			return new Sum(middle, this.to).compute() + left.join();
+		}
+	}
+}
@@ -9,6 +9,10 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.event.SpanAcquiredEvent;
+import org.springframework.cloud.sleuth.instrument.TaskSpanPolicy;
+import org.springframework.cloud.sleuth.instrument.TraceDelegate;
+import org.springframework.cloud.sleuth.metric.StripedHistogram;
 import org.springframework.cloud.sleuth.sampler.AlwaysSampler;
 import org.springframework.cloud.sleuth.trace.DefaultTracer;
 import org.springframework.cloud.sleuth.trace.SpanContextHolder;
@@ -18,13 +22,20 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
 import java.util.Random;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.Matchers.isA;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @RunWith(MockitoJUnitRunner.class)
 public class TraceableExecutorServiceTests {
@@ -62,6 +73,122 @@ public class TraceableExecutorServiceTests {
 		then(this.spanVerifyingRunnable.spanIds.stream().distinct().collect(toList())).hasSize(TOTAL_THREADS);
 	}
 
+	@Test
+	@SneakyThrows
+	public void should_start_a_span_per_task_of_invoke_all() {
+		Span span = this.tracer.startTrace("PARENT");
+		List<Span> spans = spansOf(this.traceManagerableExecutorService.invokeAll(currentSpans()));
+		this.tracer.close(span);
+
+		then(spans.stream().map(Span::getTraceId).distinct().collect(toList())).containsOnly(span.getTraceId());
+		then(spans.stream().map(Span::getSpanId).distinct().collect(toList())).hasSize(TOTAL_THREADS);
+	}
+
+	@Test
+	@SneakyThrows
+	public void should_start_a_single_span_for_invoke_all_when_span_per_batch_is_set() {
+		((TraceableExecutorService) this.traceManagerableExecutorService).setSpanPerBatch(true);
+		Span span = this.tracer.startTrace("PARENT");
+		List<Span> spans = spansOf(this.traceManagerableExecutorService.invokeAll(currentSpans()));
+		then(this.tracer.getCurrentSpan()).isEqualTo(span);
+		this.tracer.close(span);
+
+		then(spans.stream().distinct().collect(toList())).hasSize(1);
+		then(spans.get(0).getName()).isEqualTo("invokeAll");
+		then(spans.get(0).getParents()).containsExactly(span.getSpanId());
+	}
+
+	@Test
+	@SneakyThrows
+	public void should_only_pass_the_span_to_tasks_when_spans_per_task_are_off() {
+		((TraceableExecutorService) this.traceManagerableExecutorService)
+				.setTaskSpanPolicy(TaskSpanPolicy.CONTEXT_ONLY);
+		Span span = this.tracer.startTrace("PARENT");
+		CompletableFuture.allOf(runnablesExecutedViaTraceManagerableExecutorService()).get();
+		this.tracer.close(span);
+
+		then(this.spanVerifyingRunnable.spanIds.stream().distinct().collect(toList())).containsOnly(span.getSpanId());
+		verify(this.publisher, times(1)).publishEvent(isA(SpanAcquiredEvent.class));
+	}
+
+	@Test
+	@SneakyThrows
+	public void should_pass_the_span_of_a_stage_to_dependent_stages_without_new_spans() {
+		TraceableExecutorService executor = (TraceableExecutorService) this.traceManagerableExecutorService;
+		CountDownLatch dependentStageRegistered = new CountDownLatch(1);
+		Span span = this.tracer.startTrace("PARENT");
+		CompletableFuture<Span> first = CompletableFuture.supplyAsync(() -> {
+			await(dependentStageRegistered);
+			return SpanContextHolder.getCurrentSpan();
+		}, executor);
+		CompletableFuture<Span> second = first.thenApplyAsync(previous -> SpanContextHolder.getCurrentSpan(),
+				executor.stageExecutor());
+		dependentStageRegistered.countDown();
+		this.tracer.close(span);
+
+		then(first.get().getParents()).containsExactly(span.getSpanId());
+		then(second.get().getSpanId()).isEqualTo(first.get().getSpanId());
+	}
+
+	@Test
+	@SneakyThrows
+	public void should_tag_the_span_of_a_task_with_its_wait_and_run_time() {
+		StripedHistogram waitTimes = new StripedHistogram();
+		CountDownLatch poolBusy = new CountDownLatch(1);
+		for (int i = 0; i < 3; i++) {
+			this.traceManagerableExecutorService.submit(() -> await(poolBusy));
+		}
+		((TraceableExecutorService) this.traceManagerableExecutorService).setWaitTimes(waitTimes);
+		Span span = this.tracer.startTrace("PARENT");
+		Future<Span> queued = this.traceManagerableExecutorService.submit(() -> {
+			Thread.sleep(5);
+			return SpanContextHolder.getCurrentSpan();
+		});
+		this.tracer.close(span);
+		Thread.sleep(20);
+		poolBusy.countDown();
+
+		then(Long.valueOf(queued.get().tags().get(TraceDelegate.WAIT_TAG)))
+				.isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toMicros(20));
+		then(Long.valueOf(queued.get().tags().get(TraceDelegate.RUN_TAG)))
+				.isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toMicros(5));
+		then(waitTimes.snapshot().getCount()).isEqualTo(1);
+	}
+
+	@Test
+	@SneakyThrows
+	public void should_tag_the_full_run_time_of_a_task_that_forks_a_child_task() {
+		Future<Span> task = this.traceManagerableExecutorService.submit(() -> {
+			this.traceManagerableExecutorService.submit(() -> { }).get();
+			Thread.sleep(20);
+			return SpanContextHolder.getCurrentSpan();
+		});
+
+		then(Long.valueOf(task.get().tags().get(TraceDelegate.RUN_TAG)))
+				.isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toMicros(20));
+	}
+
+	@SneakyThrows
+	private void await(CountDownLatch latch) {
+		latch.await();
+	}
+
+	private List<Callable<Span>> currentSpans() {
+		List<Callable<Span>> tasks = new ArrayList<>();
+		for (int i = 0; i < TOTAL_THREADS; i++) {
+			tasks.add(SpanContextHolder::getCurrentSpan);
+		}
+		return tasks;
+	}
+
+	private List<Span> spansOf(List<Future<Span>> futures) throws Exception {
+		List<Span> spans = new ArrayList<>();
+		for (Future<Span> future : futures) {
+			spans.add(future.get());
+		}
+		return spans;
+	}
+
 	private CompletableFuture<?>[] runnablesExecutedViaTraceManagerableExecutorService() {
 		List<CompletableFuture<?>> futures = new ArrayList<>();
 		for (int i = 0; i < TOTAL_THREADS; i++) {
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.hystrix;
+
+import static com.netflix.hystrix.HystrixCommandGroupKey.Factory.asKey;
+import static org.assertj.core.api.BDDAssertions.then;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.clock.SystemClock;
+import org.springframework.cloud.sleuth.event.SpanListenerAdapter;
+import org.springframework.cloud.sleuth.id.ThreadLocalRandomIdGenerator;
+import org.springframework.cloud.sleuth.sampler.AlwaysSampler;
+import org.springframework.cloud.sleuth.trace.DefaultTracer;
+import org.springframework.cloud.sleuth.trace.SpanContextHolder;
+
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixObservableCommand.Setter;
+
+import rx.Observable;
+import rx.subjects.PublishSubject;
+
+public class TraceObservableCommandTests {
+
+	List<Span> released = new CopyOnWriteArrayList<>();
+	DefaultTracer tracer = new DefaultTracer(new AlwaysSampler(),
+			new ThreadLocalRandomIdGenerator(), new SpanListenerAdapter() {
+				@Override
+				public void spanReleased(Span parent, Span span) {
+					TraceObservableCommandTests.this.released.add(span);
+				}
+			}, SystemClock.INSTANCE, false);
+
+	@Before
+	public void setup() {
+		SpanContextHolder.removeCurrentSpan();
+	}
+
+	@After
+	public void cleanup() {
+		SpanContextHolder.removeCurrentSpan();
+	}
+
+	@Test
+	public void should_subscribe_in_a_child_span_of_the_creating_thread() {
+		Span parent = this.tracer.startTrace("parent");
+
+		Span spanFromCommand = command(Observable
+				.defer(() -> Observable.just(SpanContextHolder.getCurrentSpan())))
+						.observe().toBlocking().single();
+
+		then(spanFromCommand.getName()).isEqualTo("observable");
+		then(spanFromCommand.getTraceId()).isEqualTo(parent.getTraceId());
+		then(spanFromCommand.getParents()).containsExactly(parent.getSpanId());
+		then(this.tracer.getCurrentSpan()).isEqualTo(parent);
+		this.tracer.close(parent);
+	}
+
+	@Test
+	public void should_close_the_span_once_when_terminating_on_another_thread() {
+		Span parent = this.tracer.startTrace("parent");
+
+		String result = command(Observable.just("done").delay(10, TimeUnit.MILLISECONDS))
+				.observe().toBlocking().single();
+
+		then(result).isEqualTo("done");
+		then(this.released).hasSize(1);
+		then(this.released.get(0).getName()).isEqualTo("observable");
+		then(this.tracer.getCurrentSpan()).isEqualTo(parent);
+		this.tracer.close(parent);
+	}
+
+	@Test
+	public void should_leave_no_span_behind_on_a_thread_that_had_none() {
+		Span parent = this.tracer.startTrace("parent");
+		TraceObservableCommand<String> command = command(Observable.just("done"));
+		this.tracer.detach(parent);
+
+		command.observe().toBlocking().single();
+
+		then(this.released).hasSize(1);
+		then(SpanContextHolder.isTracing()).isFalse();
+	}
+
+	@Test
+	public void should_keep_the_span_of_the_thread_terminating_the_observable() {
+		Span parent = this.tracer.startTrace("parent");
+		PublishSubject<String> subject = PublishSubject.create();
+		List<String> results = new CopyOnWriteArrayList<>();
+		command(subject).toObservable().subscribe(results::add);
+		this.tracer.close(parent);
+		Span other = this.tracer.startTrace("other");
+
+		subject.onNext("done");
+		subject.onCompleted();
+
+		then(results).containsExactly("done");
+		then(this.released).extracting("name").containsExactly("parent", "observable");
+		then(this.tracer.getCurrentSpan()).isEqualTo(other);
+		this.tracer.close(other);
+	}
+
+	private <T> TraceObservableCommand<T> command(Observable<T> observable) {
+		return new TraceObservableCommand<T>(this.tracer, Setter.withGroupKey(asKey(""))
+				.andCommandKey(HystrixCommandKey.Factory.asKey("observable"))) {
+			@Override
+			public Observable<T> doConstruct() {
+				return observable;
+			}
+		};
+	}
+}
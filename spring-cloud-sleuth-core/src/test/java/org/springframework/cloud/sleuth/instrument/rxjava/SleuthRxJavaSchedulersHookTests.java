@@ -0,0 +1,74 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.rxjava;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.trace.SpanContextHolder;
+import org.springframework.cloud.sleuth.trace.ThreadLocalCurrentTraceContext;
+
+import rx.functions.Action0;
+
+public class SleuthRxJavaSchedulersHookTests {
+
+	SleuthRxJavaSchedulersHook hook = new SleuthRxJavaSchedulersHook(
+			ThreadLocalCurrentTraceContext.INSTANCE);
+
+	@Before
+	public void setup() {
+		SpanContextHolder.removeCurrentSpan();
+	}
+
+	@After
+	public void cleanup() {
+		SpanContextHolder.removeCurrentSpan();
+	}
+
+	@Test
+	public void should_run_the_scheduled_action_with_the_span_of_the_scheduling_thread() throws Exception {
+		Span span = Span.builder().traceId(1L).spanId(2L).build();
+		SpanContextHolder.setCurrentSpan(span);
+		AtomicReference<Span> spanInAction = new AtomicReference<>();
+		AtomicReference<Boolean> tracingAfterAction = new AtomicReference<>();
+		Action0 action = this.hook
+				.onSchedule(() -> spanInAction.set(SpanContextHolder.getCurrentSpan()));
+
+		Thread thread = new Thread(() -> {
+			action.call();
+			tracingAfterAction.set(SpanContextHolder.isTracing());
+		});
+		thread.start();
+		thread.join();
+
+		then(spanInAction.get()).isSameAs(span);
+		then(tracingAfterAction.get()).isFalse();
+	}
+
+	@Test
+	public void should_not_wrap_an_action_twice() {
+		Action0 action = this.hook.onSchedule(() -> {
+		});
+
+		then(this.hook.onSchedule(action)).isSameAs(action);
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.web;
+
+import java.util.Collections;
+
+import org.junit.Test;
+import org.springframework.cloud.sleuth.instrument.web.TraceWebAutoConfiguration.HttpSamplingRulesRefreshConfiguration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class HttpSamplingRulesRefreshTests {
+
+	TraceFilter traceFilter = mock(TraceFilter.class);
+	StandardEnvironment environment = new StandardEnvironment();
+
+	@Test
+	public void should_replace_the_rules_when_they_can_be_bound() {
+		withProperty("spring.sleuth.web.sampling.rules[0].percentage", "0.5");
+
+		HttpSamplingRulesRefreshConfiguration.refresh(this.traceFilter, this.environment);
+
+		verify(this.traceFilter).setSamplingRules(any(HttpSamplingRules.class));
+	}
+
+	@Test
+	public void should_keep_the_previous_rules_when_they_cannot_be_bound() {
+		withProperty("spring.sleuth.web.sampling.rules[0].percentage", "half");
+
+		HttpSamplingRulesRefreshConfiguration.refresh(this.traceFilter, this.environment);
+
+		verify(this.traceFilter, never()).setSamplingRules(any(HttpSamplingRules.class));
+	}
+
+	private void withProperty(String key, String value) {
+		this.environment.getPropertySources().addFirst(new MapPropertySource("test",
+				Collections.<String, Object>singletonMap(key, value)));
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.web;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.springframework.cloud.sleuth.sampler.RateLimitingSampler;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class HttpSamplingRulesTests {
+
+	@Test
+	public void should_match_no_rule_when_there_are_none() throws Exception {
+		then(HttpSamplingRules.NONE.indexOf("GET", "/foo")).isEqualTo(-1);
+		then(HttpSamplingRules.NONE.samplerFor("GET", "/foo")).isNull();
+	}
+
+	@Test
+	public void should_match_literal_paths() throws Exception {
+		HttpSamplingRules rules = rules(rule(null, "/checkout/cart"));
+
+		then(rules.indexOf("GET", "/checkout/cart")).isEqualTo(0);
+		then(rules.indexOf("GET", "/checkout")).isEqualTo(-1);
+		then(rules.indexOf("GET", "/checkout/cart/items")).isEqualTo(-1);
+	}
+
+	@Test
+	public void should_match_any_number_of_segments() throws Exception {
+		HttpSamplingRules rules = rules(rule(null, "/health/**"));
+
+		then(rules.indexOf("GET", "/health")).isEqualTo(0);
+		then(rules.indexOf("GET", "/health/db/ping")).isEqualTo(0);
+		then(rules.indexOf("GET", "/healthy")).isEqualTo(-1);
+	}
+
+	@Test
+	public void should_match_wildcards_within_segments() throws Exception {
+		HttpSamplingRules rules = rules(rule(null, "/**/*.png"),
+				rule(null, "/api/v?/poll"), rule(null, "/orders/{id}/status"));
+
+		then(rules.indexOf("GET", "/img/logo.png")).isEqualTo(0);
+		then(rules.indexOf("GET", "/logo.png")).isEqualTo(0);
+		then(rules.indexOf("GET", "/api/v1/poll")).isEqualTo(1);
+		then(rules.indexOf("GET", "/api/v12/poll")).isEqualTo(-1);
+		then(rules.indexOf("GET", "/orders/123/status")).isEqualTo(2);
+	}
+
+	@Test
+	public void should_match_the_method() throws Exception {
+		HttpSamplingRules rules = rules(rule("POST", "/checkout/**"),
+				rule(null, "/**"));
+
+		then(rules.indexOf("POST", "/checkout/pay")).isEqualTo(0);
+		then(rules.indexOf("post", "/checkout")).isEqualTo(0);
+		then(rules.indexOf("GET", "/checkout/pay")).isEqualTo(1);
+	}
+
+	@Test
+	public void should_use_the_first_matching_rule() throws Exception {
+		HttpSamplingRules rules = rules(rule(null, "/**"), rule(null, "/checkout"));
+
+		then(rules.indexOf("GET", "/checkout")).isEqualTo(0);
+	}
+
+	@Test
+	public void should_rate_limit_when_traces_per_second_are_set() throws Exception {
+		HttpSamplingProperties.Rule rule = rule(null, "/poll");
+		rule.setTracesPerSecond(10);
+
+		then(rules(rule).samplerFor("GET", "/poll"))
+				.isInstanceOf(RateLimitingSampler.class);
+	}
+
+	private HttpSamplingProperties.Rule rule(String method, String path) {
+		HttpSamplingProperties.Rule rule = new HttpSamplingProperties.Rule();
+		rule.setMethod(method);
+		rule.setPath(path);
+		return rule;
+	}
+
+	private HttpSamplingRules rules(HttpSamplingProperties.Rule... rules) {
+		return new HttpSamplingRules(Arrays.asList(rules));
+	}
+}
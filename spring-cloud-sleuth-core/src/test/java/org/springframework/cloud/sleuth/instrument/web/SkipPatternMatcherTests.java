@@ -0,0 +1,80 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.instrument.web;
+
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class SkipPatternMatcherTests {
+
+	static final String[] PATHS = { "/", "/info", "/info/more", "/infos", "/metrics",
+			"/metrics/counter.foo", "/api-docs", "/api-docsx/1", "/swagger-ui.html",
+			"/img/logo.png", "/logo.png.bak", "/style.css", "/app.js", "/app.json",
+			"/favicon.ico", "/faviconXico", "/hystrix.stream", "/trace", "/traces",
+			"/greeting", "/a/b/c", "/x.PNG", "" };
+
+	@Test
+	public void should_match_like_the_default_skip_pattern() throws Exception {
+		thenMatchesLikeRegex(TraceFilter.DEFAULT_SKIP_PATTERN);
+	}
+
+	@Test
+	public void should_match_like_patterns_it_only_partly_understands() throws Exception {
+		thenMatchesLikeRegex(Pattern.compile("/info|/a/[bc]/c|.*\\.(png|css)|/tr.ce|/metrics\\d*"));
+	}
+
+	@Test
+	public void should_match_like_patterns_it_does_not_understand() throws Exception {
+		thenMatchesLikeRegex(Pattern.compile("/INFO|.*\\.png", Pattern.CASE_INSENSITIVE));
+		thenMatchesLikeRegex(Pattern.compile("^/info$|(/trace)"));
+	}
+
+	@Test
+	public void should_match_like_case_insensitive_patterns() throws Exception {
+		Pattern pattern = Pattern.compile("(?i)/health|/info|.*\\.png");
+
+		thenMatchesLikeRegex(pattern);
+		then(new SkipPatternMatcher(pattern).matches("/HEALTH")).isTrue();
+		then(new SkipPatternMatcher(pattern).matches("/Info")).isTrue();
+	}
+
+	@Test
+	public void should_read_literals() throws Exception {
+		then(SkipPatternMatcher.literal("/favicon\\.ico")).isEqualTo("/favicon.ico");
+		then(SkipPatternMatcher.literal("/favicon.ico")).isNull();
+		then(SkipPatternMatcher.literal("/metrics\\d")).isNull();
+		then(SkipPatternMatcher.literal("/metrics\\")).isNull();
+	}
+
+	@Test
+	public void should_split_top_level_alternatives() throws Exception {
+		then(SkipPatternMatcher.alternatives("/a|.*\\.(png|css)|/[|]"))
+				.containsExactly("/a", ".*\\.(png|css)", "/[|]");
+		then(SkipPatternMatcher.alternatives("/a|(/b")).isNull();
+	}
+
+	private void thenMatchesLikeRegex(Pattern pattern) {
+		SkipPatternMatcher matcher = new SkipPatternMatcher(pattern);
+		for (String path : PATHS) {
+			then(matcher.matches(path)).as(path)
+					.isEqualTo(pattern.matcher(path).matches());
+		}
+	}
+}
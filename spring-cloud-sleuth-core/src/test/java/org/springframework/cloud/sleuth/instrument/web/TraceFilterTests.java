@@ -37,6 +37,7 @@ import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockServletContext;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import java.util.Arrays;
 import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -102,6 +103,18 @@ public class TraceFilterTests {
 		assertNull(SpanContextHolder.getCurrentSpan());
 	}
 
+	@Test
+	public void samplesWithMatchingRule() throws Exception {
+		TraceFilter filter = new TraceFilter(this.tracer, this.traceKeys);
+		filter.setSamplingRules(new HttpSamplingRules(
+				Arrays.asList(rule("POST", "/**", 1.0f), rule("GET", "/", 0.0f))));
+
+		filter.doFilter(this.request, this.response, this.filterChain);
+
+		assertFalse(this.span.isExportable());
+		assertNull(SpanContextHolder.getCurrentSpan());
+	}
+
 	@Test
 	public void startsNewTrace() throws Exception {
 		TraceFilter filter = new TraceFilter(this.tracer, this.traceKeys);
@@ -137,6 +150,22 @@ public class TraceFilterTests {
 		assertNull(SpanContextHolder.getCurrentSpan());
 	}
 
+	@Test
+	public void continuesTraceWith128BitTraceId() throws Exception {
+		this.request = builder().header(Span.SPAN_ID_NAME, "a")
+				.header(Span.TRACE_ID_NAME, "463ac35c9f6413ad48485a3953bb6124")
+				.buildRequest(new MockServletContext());
+
+		TraceFilter filter = new TraceFilter(this.tracer, this.traceKeys);
+		filter.doFilter(this.request, this.response, this.filterChain);
+
+		assertEquals(0x463ac35c9f6413adL, this.span.getTraceIdHigh());
+		assertEquals(0x48485a3953bb6124L, this.span.getTraceId());
+		assertEquals("463ac35c9f6413ad48485a3953bb6124",
+				this.response.getHeader(Span.TRACE_ID_NAME));
+		assertNull(SpanContextHolder.getCurrentSpan());
+	}
+
 	@Test
 	public void addsAdditionalHeaders() throws Exception {
 		this.request = builder().header(Span.SPAN_ID_NAME, 10L)
@@ -214,6 +243,15 @@ public class TraceFilterTests {
 		}
 	}
 
+	private HttpSamplingProperties.Rule rule(String method, String path,
+			float percentage) {
+		HttpSamplingProperties.Rule rule = new HttpSamplingProperties.Rule();
+		rule.setMethod(method);
+		rule.setPath(path);
+		rule.setPercentage(percentage);
+		return rule;
+	}
+
 	private class DelegateSampler implements Sampler {
 		@Override
 		public boolean isSampled() {
@@ -45,7 +45,8 @@ import com.netflix.loadbalancer.Server;
 
 @RunWith(SpringJUnit4ClassRunner.class)
 @SpringApplicationConfiguration(classes = { FeignTraceTests.TestConfiguration.class })
-@WebIntegrationTest(value = { "spring.application.name=fooservice" }, randomPort = true)
+@WebIntegrationTest(value = { "spring.application.name=fooservice",
+		"spring.sleuth.events.enabled=true" }, randomPort = true)
 @DirtiesContext
 public class FeignTraceTests {
 
@@ -20,10 +20,12 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.springframework.boot.test.OutputCapture;
 import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.clock.VirtualClock;
 import org.springframework.cloud.sleuth.event.SpanReleasedEvent;
 import org.springframework.util.StringUtils;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -65,4 +67,67 @@ public class JsonLogSpanListenerTests {
 		Span read = listener.getObjectMapper().readValue(json, Span.class);
 		assertEquals("span not equals", read, span);
 	}
+
+	@Test
+	public void jsonSpanKeepsMicrosecondTimestamps() throws IOException {
+		JsonLogSpanListener listener = new JsonLogSpanListener();
+		VirtualClock clock = new VirtualClock(1000000L);
+		Span span = Span.builder().name("testSpan").spanId(1L).traceId(3L).clock(clock)
+				.build();
+		clock.advance(10, TimeUnit.MICROSECONDS);
+		span.logEvent("myTimelineAnnotation");
+		clock.advance(10, TimeUnit.MICROSECONDS);
+		span.stop();
+
+		String json = listener.getObjectMapper().writeValueAsString(span);
+		Span read = listener.getObjectMapper().readValue(json, Span.class);
+
+		assertEquals(1000000L, read.getBeginMicros());
+		assertEquals(1000020L, read.getEndMicros());
+		assertEquals(1000010L, read.logs().get(0).getTimestampMicros());
+	}
+
+	@Test
+	public void jsonSpanWithMillisecondTimestampsIsRead() throws IOException {
+		JsonLogSpanListener listener = new JsonLogSpanListener();
+		String json = "{\"begin\":1,\"end\":10,\"name\":\"testSpan\",\"traceId\":3,"
+				+ "\"spanId\":1,\"logs\":[{\"timestamp\":5,\"event\":\"ev\"}]}";
+
+		Span read = listener.getObjectMapper().readValue(json, Span.class);
+
+		assertEquals(1000L, read.getBeginMicros());
+		assertEquals(10000L, read.getEndMicros());
+		assertEquals(9L, read.getAccumulatedMillis());
+		assertEquals(5000L, read.logs().get(0).getTimestampMicros());
+	}
+
+	@Test
+	public void jsonSpanKeepsParentsAsAList() throws IOException {
+		JsonLogSpanListener listener = new JsonLogSpanListener();
+		Span span = Span.builder().name("testSpan").spanId(1L).parent(2L).parent(4L)
+				.traceId(3L).build();
+
+		String json = listener.getObjectMapper().writeValueAsString(span);
+		Span read = listener.getObjectMapper().readValue(json, Span.class);
+
+		assertTrue("json doesn't contain parents", json.contains("\"parents\":[2,4]"));
+		assertFalse("json contains parentId", json.contains("parentId"));
+		assertEquals(2L, read.getParentId());
+		assertEquals(span.getParents(), read.getParents());
+	}
+
+	@Test
+	public void jsonSpanOnlyContainsHighTraceIdBitsFor128BitTraceIds() throws IOException {
+		JsonLogSpanListener listener = new JsonLogSpanListener();
+		Span span = Span.builder().name("testSpan").spanId(1L).traceId(3L).build();
+		Span span128 = Span.builder().name("testSpan").spanId(1L).traceId(3L)
+				.traceIdHigh(4L).build();
+
+		String json = listener.getObjectMapper().writeValueAsString(span);
+		String json128 = listener.getObjectMapper().writeValueAsString(span128);
+
+		assertFalse("json contains traceIdHigh", json.contains("traceIdHigh"));
+		assertEquals(4L, listener.getObjectMapper().readValue(json128, Span.class)
+				.getTraceIdHigh());
+	}
 }
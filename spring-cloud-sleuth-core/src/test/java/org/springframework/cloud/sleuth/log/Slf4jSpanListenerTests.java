@@ -0,0 +1,64 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.log;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.MDC;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.clock.SystemClock;
+import org.springframework.cloud.sleuth.event.CompositeSpanListener;
+import org.springframework.cloud.sleuth.event.SpanListener;
+import org.springframework.cloud.sleuth.id.ThreadLocalRandomIdGenerator;
+import org.springframework.cloud.sleuth.sampler.IsTracingSampler;
+import org.springframework.cloud.sleuth.trace.DefaultTracer;
+import org.springframework.cloud.sleuth.trace.SpanContextHolder;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class Slf4jSpanListenerTests {
+
+	SpanListener exporter = mock(SpanListener.class);
+	Tracer tracer = new DefaultTracer(new IsTracingSampler(),
+			new ThreadLocalRandomIdGenerator(),
+			new CompositeSpanListener(new Slf4jSpanListener(), this.exporter),
+			SystemClock.INSTANCE, false);
+
+	@After
+	public void cleanup() {
+		SpanContextHolder.removeCurrentSpan();
+		MDC.clear();
+	}
+
+	@Test
+	public void should_put_the_ids_of_spans_that_are_not_exported_in_the_mdc() {
+		Span span = this.tracer.startTrace("unsampled");
+
+		then(span.isExportable()).isFalse();
+		then(MDC.get(Span.TRACE_ID_NAME)).isEqualTo(span.traceIdHex());
+		then(MDC.get(Span.SPAN_ID_NAME)).isEqualTo(span.spanIdHex());
+		then(MDC.get(Span.SPAN_EXPORT_NAME)).isEqualTo("false");
+
+		this.tracer.close(span);
+
+		then(MDC.get(Span.TRACE_ID_NAME)).isNull();
+		verifyZeroInteractions(this.exporter);
+	}
+}
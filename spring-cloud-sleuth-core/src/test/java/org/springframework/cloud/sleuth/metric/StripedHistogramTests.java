@@ -0,0 +1,87 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.metric;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class StripedHistogramTests {
+
+	@Test
+	public void should_report_percentiles_as_bucket_upper_bounds() {
+		StripedHistogram histogram = new StripedHistogram(4);
+		for (int i = 0; i < 99; i++) {
+			histogram.record(100);
+		}
+		histogram.record(5000);
+
+		StripedHistogram.Snapshot snapshot = histogram.snapshot();
+
+		then(snapshot.getCount()).isEqualTo(100);
+		then(snapshot.getSum()).isEqualTo(99 * 100 + 5000);
+		then(snapshot.getMean()).isEqualTo(149.0);
+		then(snapshot.getPercentile(0.5)).isEqualTo(127);
+		then(snapshot.getPercentile(0.99)).isEqualTo(127);
+		then(snapshot.getPercentile(1.0)).isEqualTo(8191);
+		then(snapshot.getMax()).isEqualTo(8191);
+	}
+
+	@Test
+	public void should_report_zeros_when_empty() {
+		StripedHistogram.Snapshot snapshot = new StripedHistogram().snapshot();
+
+		then(snapshot.getCount()).isZero();
+		then(snapshot.getMean()).isZero();
+		then(snapshot.getPercentile(0.99)).isZero();
+		then(snapshot.getMax()).isZero();
+	}
+
+	@Test
+	public void should_not_lose_values_recorded_concurrently() throws Exception {
+		final StripedHistogram histogram = new StripedHistogram(2);
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<Void>> done = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			done.add(executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					for (int j = 0; j < 10000; j++) {
+						histogram.record(j);
+					}
+					return null;
+				}
+			}));
+		}
+		for (Future<Void> future : done) {
+			future.get(5, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+
+		then(histogram.snapshot().getCount()).isEqualTo(threads * 10000);
+		then(histogram.snapshot().getSum()).isEqualTo(threads * (9999L * 10000 / 2));
+	}
+}
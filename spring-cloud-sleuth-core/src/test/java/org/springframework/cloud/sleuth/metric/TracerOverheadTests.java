@@ -0,0 +1,46 @@
+/*
+ * Copyright 2013-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.sleuth.metric;
+
+import org.junit.Test;
+import org.springframework.cloud.sleuth.metric.TracerOverhead.Operation;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class TracerOverheadTests {
+
+	TracerOverhead overhead = new TracerOverhead(true);
+
+	@Test
+	public void should_record_measurements_started_at_a_zero_nano_time() {
+		this.overhead.record(Operation.LISTENER, 0L);
+
+		then(this.overhead.snapshot(Operation.LISTENER).getCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void should_not_record_measurements_started_while_disabled() {
+		this.overhead.setEnabled(false);
+		long start = this.overhead.start();
+		this.overhead.setEnabled(true);
+
+		this.overhead.record(Operation.LISTENER, start);
+
+		then(start).isEqualTo(TracerOverhead.DISABLED);
+		then(this.overhead.snapshot(Operation.LISTENER).getCount()).isZero();
+	}
+}
@@ -0,0 +1,129 @@
+package org.springframework.cloud.sleuth.sampler;
+
+import org.junit.Test;
+import org.springframework.cloud.sleuth.clock.VirtualClock;
+import org.springframework.cloud.sleuth.metric.NoOpSpanReporterService;
+import org.springframework.cloud.sleuth.metric.SpanReporterService;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+/**
+ * Simulates traffic going through the sampler into a reporter that can only take so
+ * many spans per second.
+ */
+public class AdaptiveSamplerTests {
+
+	static final int SPANS_PER_TRACE = 5;
+	static final int BUDGET = 1000;
+	static final int REPORTER_CAPACITY = 1500;
+
+	VirtualClock clock = new VirtualClock();
+	AdaptiveSampler sampler = new AdaptiveSampler(1.0, BUDGET, 1, TimeUnit.SECONDS, this.clock);
+	SpanReporterService reporterService = new AdaptiveSamplingSpanReporterService(
+			new NoOpSpanReporterService(), this.sampler);
+	Random random = new Random(42);
+	long accepted;
+	long dropped;
+
+	@Test
+	public void should_lower_the_rate_to_the_budget_when_the_reporter_is_saturated() throws Exception {
+		simulate(10000, 30);
+
+		simulate(10000, 10);
+
+		then(this.dropped).isZero();
+		then(this.accepted / 10).isBetween(700L, 1100L);
+		then(this.sampler.getRate()).isBetween(0.01, 0.03);
+	}
+
+	@Test
+	public void should_raise_the_rate_again_when_traffic_goes_down() throws Exception {
+		simulate(10000, 30);
+
+		simulate(1000, 30);
+		simulate(1000, 10);
+
+		then(this.dropped).isZero();
+		then(this.accepted / 10).isBetween(700L, 1100L);
+		then(this.sampler.getRate()).isBetween(0.1, 0.3);
+	}
+
+	@Test
+	public void should_not_go_above_the_initial_rate() throws Exception {
+		simulate(10000, 30);
+
+		simulate(100, 30);
+
+		then(this.sampler.getRate()).isEqualTo(1.0);
+	}
+
+	@Test
+	public void should_keep_the_rate_within_the_band_below_the_budget() throws Exception {
+		simulate(10000, 30);
+		double rate = this.sampler.getRate();
+
+		simulate(10000, 1);
+		double min = rate;
+		double max = rate;
+		for (int i = 0; i < 30; i++) {
+			simulate(10000, 1);
+			min = Math.min(min, this.sampler.getRate());
+			max = Math.max(max, this.sampler.getRate());
+		}
+
+		then(max / min).isLessThan(2.0);
+	}
+
+	@Test
+	public void should_report_the_sampled_spans_to_the_delegate() throws Exception {
+		final long[] counts = new long[2];
+		SpanReporterService reporterService = new AdaptiveSamplingSpanReporterService(
+				new NoOpSpanReporterService() {
+					@Override
+					public void incrementAcceptedSpans(long quantity) {
+						counts[0] += quantity;
+					}
+
+					@Override
+					public void incrementDroppedSpans(long quantity) {
+						counts[1] += quantity;
+					}
+				}, this.sampler);
+
+		reporterService.incrementAcceptedSpans(3);
+		reporterService.incrementDroppedSpans(2);
+
+		then(counts).containsExactly(3, 2);
+	}
+
+	/**
+	 * Starts the given number of traces per second for the given number of seconds and
+	 * counts what the reporter accepted and dropped in that time. Like the HTTP reporter
+	 * flushing its queue every second, the reporter drops whatever is above its capacity
+	 * at the end of each second.
+	 */
+	private void simulate(int tracesPerSecond, int seconds) {
+		this.accepted = 0;
+		this.dropped = 0;
+		for (int second = 0; second < seconds; second++) {
+			int spans = 0;
+			for (int step = 0; step < 10; step++) {
+				for (int i = 0; i < tracesPerSecond / 10; i++) {
+					if (this.sampler.isSampled(this.random.nextLong())) {
+						spans += SPANS_PER_TRACE;
+					}
+				}
+				this.clock.advance(100, TimeUnit.MILLISECONDS);
+			}
+			int lost = Math.max(0, spans - REPORTER_CAPACITY);
+			this.reporterService.incrementAcceptedSpans(spans);
+			this.reporterService.incrementDroppedSpans(lost);
+			this.accepted += spans - lost;
+			this.dropped += lost;
+		}
+	}
+
+}
@@ -1,8 +1,6 @@
 package org.springframework.cloud.sleuth.sampler;
 
 import org.junit.Test;
-import org.springframework.cloud.sleuth.Span;
-import org.springframework.cloud.sleuth.SpanAccessor;
 
 import java.util.Random;
 
@@ -12,7 +10,6 @@ import static org.assertj.core.data.Percentage.withPercentage;
 public class PercentageBasedSamplerTests {
 
 	SamplerConfiguration samplerConfiguration = new SamplerConfiguration();
-	SpanAccessor spanAccessor = traceReturningSpanWithUuid();
 	private static Random RANDOM = new Random();
 
 	@Test
@@ -20,9 +17,10 @@ public class PercentageBasedSamplerTests {
 		this.samplerConfiguration.setPercentage(1f);
 
 		for (int i = 0; i < 10; i++) {
-			then(new PercentageBasedSampler(this.samplerConfiguration, this.spanAccessor).isSampled()).isTrue();
+			then(new PercentageBasedSampler(this.samplerConfiguration).isSampled(RANDOM.nextLong())).isTrue();
 		}
-
+		then(new PercentageBasedSampler(this.samplerConfiguration).isSampled(Long.MAX_VALUE)).isTrue();
+		then(new PercentageBasedSampler(this.samplerConfiguration).isSampled(Long.MIN_VALUE)).isTrue();
 	}
 
 	@Test
@@ -30,42 +28,61 @@ public class PercentageBasedSamplerTests {
 		this.samplerConfiguration.setPercentage(0f);
 
 		for (int i = 0; i < 10; i++) {
-			then(new PercentageBasedSampler(this.samplerConfiguration, this.spanAccessor).isSampled()).isFalse();
+			then(new PercentageBasedSampler(this.samplerConfiguration).isSampled(RANDOM.nextLong())).isFalse();
 		}
+		then(new PercentageBasedSampler(this.samplerConfiguration).isSampled(0L)).isFalse();
+		then(new PercentageBasedSampler(this.samplerConfiguration).isSampled()).isFalse();
 	}
 
 	@Test
 	public void should_pass_given_percent_of_samples() throws Exception {
 		int numberOfIterations = 10000;
-		float percentage = 1f;
+		float percentage = 0.2f;
 		this.samplerConfiguration.setPercentage(percentage);
 
 		int numberOfSampledElements = countNumberOfSampledElements(numberOfIterations);
 
-		then(numberOfSampledElements).isCloseTo((int) (numberOfIterations * percentage), withPercentage(3));
+		then(numberOfSampledElements).isCloseTo((int) (numberOfIterations * percentage), withPercentage(10));
+	}
+
+	@Test
+	public void should_pass_fractional_percent_of_samples() throws Exception {
+		int numberOfIterations = 10000000;
+		float percentage = 0.0005f;
+		this.samplerConfiguration.setPercentage(percentage);
+
+		int numberOfSampledElements = countNumberOfSampledElements(numberOfIterations);
+
+		then(numberOfSampledElements).isCloseTo((int) (numberOfIterations * percentage), withPercentage(10));
+	}
+
+	@Test
+	public void should_make_the_same_decision_for_the_same_trace_id() throws Exception {
+		this.samplerConfiguration.setPercentage(0.5f);
+		PercentageBasedSampler sampler = new PercentageBasedSampler(this.samplerConfiguration);
+		PercentageBasedSampler other = new PercentageBasedSampler(this.samplerConfiguration);
+
+		for (int i = 0; i < 100; i++) {
+			long traceId = RANDOM.nextLong();
+			then(other.isSampled(traceId)).isEqualTo(sampler.isSampled(traceId));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void should_reject_percentage_above_1() throws Exception {
+		this.samplerConfiguration.setPercentage(1.5f);
+
+		new PercentageBasedSampler(this.samplerConfiguration);
 	}
 
 	private int countNumberOfSampledElements(int numberOfIterations) {
+		PercentageBasedSampler sampler = new PercentageBasedSampler(this.samplerConfiguration);
 		int passedCounter = 0;
 		for (int i = 0; i < numberOfIterations; i++) {
-			boolean passed = new PercentageBasedSampler(this.samplerConfiguration, traceReturningSpanWithUuid()).isSampled();
+			boolean passed = sampler.isSampled(RANDOM.nextLong());
 			passedCounter = passedCounter + (passed ? 1 : 0);
 		}
 		return passedCounter;
 	}
 
-	private SpanAccessor traceReturningSpanWithUuid() {
-		return new SpanAccessor() {
-			@Override
-			public Span getCurrentSpan() {
-				return Span.builder().traceId(RANDOM.nextLong()).build();
-			}
-
-			@Override
-			public boolean isTracing() {
-				return true;
-			}
-		};
-	}
-
-}
\ No newline at end of file
+}
@@ -0,0 +1,83 @@
+package org.springframework.cloud.sleuth.sampler;
+
+import org.junit.Test;
+import org.springframework.cloud.sleuth.clock.VirtualClock;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class RateLimitingSamplerTests {
+
+	VirtualClock clock = new VirtualClock();
+
+	@Test
+	public void should_pass_at_most_the_given_number_of_traces_per_second() throws Exception {
+		RateLimitingSampler sampler = new RateLimitingSampler(10, this.clock);
+
+		then(countSampled(sampler, 100)).isEqualTo(10);
+		then(sampler.isSampled()).isFalse();
+	}
+
+	@Test
+	public void should_refill_as_time_passes() throws Exception {
+		RateLimitingSampler sampler = new RateLimitingSampler(10, this.clock);
+		countSampled(sampler, 100);
+
+		this.clock.advance(100, TimeUnit.MILLISECONDS);
+		then(countSampled(sampler, 100)).isEqualTo(1);
+
+		this.clock.advance(1, TimeUnit.SECONDS);
+		then(countSampled(sampler, 100)).isEqualTo(10);
+	}
+
+	@Test
+	public void should_not_save_up_more_than_one_second_of_traces() throws Exception {
+		RateLimitingSampler sampler = new RateLimitingSampler(10, this.clock);
+
+		this.clock.advance(1, TimeUnit.MINUTES);
+
+		then(countSampled(sampler, 100)).isEqualTo(10);
+	}
+
+	@Test
+	public void should_reject_all_samples_when_rate_is_0() throws Exception {
+		RateLimitingSampler sampler = new RateLimitingSampler(0, this.clock);
+
+		then(countSampled(sampler, 10)).isEqualTo(0);
+	}
+
+	@Test
+	public void should_pass_at_most_the_given_number_of_traces_from_many_threads() throws Exception {
+		final RateLimitingSampler sampler = new RateLimitingSampler(1000, this.clock);
+		final AtomicInteger sampled = new AtomicInteger();
+		final CountDownLatch done = new CountDownLatch(8);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < 8; i++) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					sampled.addAndGet(countSampled(sampler, 1000));
+					done.countDown();
+				}
+			});
+		}
+		done.await(10, TimeUnit.SECONDS);
+		executor.shutdown();
+
+		then(sampled.get()).isEqualTo(1000);
+	}
+
+	private int countSampled(RateLimitingSampler sampler, int numberOfIterations) {
+		int passedCounter = 0;
+		for (int i = 0; i < numberOfIterations; i++) {
+			passedCounter = passedCounter + (sampler.isSampled() ? 1 : 0);
+		}
+		return passedCounter;
+	}
+
+}
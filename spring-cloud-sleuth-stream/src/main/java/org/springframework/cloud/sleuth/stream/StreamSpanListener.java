@@ -28,9 +28,9 @@ import org.springframework.cloud.sleuth.event.ClientSentEvent;
 import org.springframework.cloud.sleuth.event.ServerReceivedEvent;
 import org.springframework.cloud.sleuth.event.ServerSentEvent;
 import org.springframework.cloud.sleuth.event.SpanAcquiredEvent;
+import org.springframework.cloud.sleuth.event.SpanListenerAdapter;
 import org.springframework.cloud.sleuth.event.SpanReleasedEvent;
 import org.springframework.cloud.sleuth.metric.SpanReporterService;
-import org.springframework.context.event.EventListener;
 import org.springframework.core.annotation.Order;
 import org.springframework.integration.annotation.InboundChannelAdapter;
 import org.springframework.integration.annotation.MessageEndpoint;
@@ -42,7 +42,8 @@ import org.springframework.integration.annotation.MessageEndpoint;
  * @author Dave Syer
  */
 @MessageEndpoint
-public class StreamSpanListener {
+@Order(0)
+public class StreamSpanListener extends SpanListenerAdapter {
 
 	public static final String CLIENT_RECV = "cr";
 	public static final String CLIENT_SEND = "cs";
@@ -62,47 +63,65 @@ public class StreamSpanListener {
 		this.queue = queue;
 	}
 
-	@EventListener
-	@Order(0)
 	public void start(SpanAcquiredEvent event) {
-		event.getSpan().logEvent("acquire");
+		spanAcquired(event.getParent(), event.getSpan());
 	}
 
-	@EventListener
-	@Order(0)
 	public void serverReceived(ServerReceivedEvent event) {
-		if (event.getParent() != null && event.getParent().isRemote()) {
-			event.getParent().logEvent(SERVER_RECV);
-		}
+		serverReceived(event.getParent(), event.getSpan());
 	}
 
-	@EventListener
-	@Order(0)
 	public void clientSend(ClientSentEvent event) {
-		event.getSpan().logEvent(CLIENT_SEND);
+		clientSent(event.getSpan());
 	}
 
-	@EventListener
-	@Order(0)
 	public void clientReceive(ClientReceivedEvent event) {
-		event.getSpan().logEvent(CLIENT_RECV);
+		clientReceived(event.getSpan());
 	}
 
-	@EventListener
-	@Order(0)
 	public void serverSend(ServerSentEvent event) {
-		if (event.getParent() != null && event.getParent().isRemote()) {
-			event.getParent().logEvent(SERVER_SEND);
-			this.queue.add(event.getParent());
-		}
+		serverSent(event.getParent(), event.getSpan());
 	}
 
-	@EventListener
-	@Order(0)
 	public void release(SpanReleasedEvent event) {
-		event.getSpan().logEvent("release");
-		if (event.getSpan().isExportable()) {
-			this.queue.add(event.getSpan());
+		spanReleased(event.getParent(), event.getSpan());
+	}
+
+	@Override
+	public void spanAcquired(Span parent, Span span) {
+		span.logEvent("acquire");
+	}
+
+	@Override
+	public void serverReceived(Span parent, Span span) {
+		if (parent != null && parent.isRemote()) {
+			parent.logEvent(SERVER_RECV);
+		}
+	}
+
+	@Override
+	public void clientSent(Span span) {
+		span.logEvent(CLIENT_SEND);
+	}
+
+	@Override
+	public void clientReceived(Span span) {
+		span.logEvent(CLIENT_RECV);
+	}
+
+	@Override
+	public void serverSent(Span parent, Span span) {
+		if (parent != null && parent.isRemote()) {
+			parent.logEvent(SERVER_SEND);
+			this.queue.add(parent);
+		}
+	}
+
+	@Override
+	public void spanReleased(Span parent, Span span) {
+		span.logEvent("release");
+		if (span.isExportable()) {
+			this.queue.add(span);
 		}
 	}
 
@@ -116,16 +116,17 @@ final class SamplingZipkinSpanIterator implements Iterator<zipkin.Span> {
 			ZipkinMessageListener.addZipkinBinaryAnnotations(zipkinSpan, span, ep);
 		}
 
-		zipkinSpan.timestamp(span.getBegin() * 1000);
-		zipkinSpan.duration(span.getAccumulatedMillis() * 1000);
+		zipkinSpan.timestamp(span.getBeginMicros());
+		zipkinSpan.duration(span.getAccumulatedMicros());
+		// this zipkin version has no 128-bit trace ids, the high bits are dropped
 		zipkinSpan.traceId(span.getTraceId());
-		if (span.getParents().size() > 0) {
-			if (span.getParents().size() > 1) {
+		if (span.hasParent()) {
+			if (span.hasMultipleParents()) {
 				SamplingZipkinSpanIterator.log
 						.debug("zipkin doesn't support spans with multiple parents.  Omitting "
 								+ "other parents for " + span);
 			}
-			zipkinSpan.parentId(span.getParents().get(0));
+			zipkinSpan.parentId(span.getParentId());
 		}
 		zipkinSpan.id(span.getSpanId());
 		if (StringUtils.hasText(span.getName())) {
@@ -60,7 +60,7 @@ public class ZipkinMessageListener {
 		for (Log ta : span.logs()) {
 			Annotation zipkinAnnotation = new Annotation.Builder()
 					.endpoint(endpoint)
-					.timestamp(ta.getTimestamp() * 1000) // Zipkin is in microseconds
+					.timestamp(ta.getTimestampMicros()) // Zipkin is in microseconds
 					.value(ta.getEvent())
 					.build();
 			zipkinSpan.addAnnotation(zipkinAnnotation);
@@ -75,6 +75,10 @@ public class ZipkinMessageListener {
 	static void addZipkinBinaryAnnotations(Builder zipkinSpan, Span span,
 			Endpoint endpoint) {
 		for (Map.Entry<String, String> e : span.tags().entrySet()) {
+			// e.g. a deferred tag that was not resolved
+			if (e.getValue() == null) {
+				continue;
+			}
 			BinaryAnnotation.Builder binaryAnn = new BinaryAnnotation.Builder();
 			binaryAnn.type(Type.STRING);
 			binaryAnn.key(e.getKey());
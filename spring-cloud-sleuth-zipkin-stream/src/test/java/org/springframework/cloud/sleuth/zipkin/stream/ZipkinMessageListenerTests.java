@@ -17,11 +17,14 @@
 package org.springframework.cloud.sleuth.zipkin.stream;
 
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
 import zipkin.BinaryAnnotation;
 import zipkin.Endpoint;
 
 import org.junit.Test;
 import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.clock.VirtualClock;
 import org.springframework.cloud.sleuth.stream.Host;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -32,21 +35,31 @@ public class ZipkinMessageListenerTests {
 	Host host = new Host("myservice", "1.2.3.4", 8080);
 	Endpoint endpoint = Endpoint.create("myservice", 1 << 24 | 2 << 16 | 3 << 8 | 4, 8080);
 
-	/** Sleuth timestamps are millisecond granularity while zipkin is microsecond. */
+	/** Sleuth and zipkin timestamps are both microsecond granularity. */
 	@Test
 	public void convertsTimestampAndDurationToMicroseconds() {
-		long start = System.currentTimeMillis();
-		this.span.logEvent("hystrix/retry"); // System.currentTimeMillis
+		VirtualClock clock = new VirtualClock(1000000L);
+		Span span = Span.builder().traceId(1L).spanId(2L).name("name").remote(true)
+				.processId("process").clock(clock).build();
+		clock.advance(150, TimeUnit.MICROSECONDS);
+		span.logEvent("hystrix/retry");
+		clock.advance(200, TimeUnit.MICROSECONDS);
+		span.stop();
+
+		zipkin.Span result = SamplingZipkinSpanIterator.convert(span, this.host);
+
+		assertThat(result.timestamp).isEqualTo(1000000L);
+		assertThat(result.duration).isEqualTo(350L);
+		assertThat(result.annotations.get(0).timestamp).isEqualTo(1000150L);
+	}
 
+	/** Spans from producers that only send milliseconds are still converted. */
+	@Test
+	public void convertsMillisecondTimestampsToMicroseconds() {
 		zipkin.Span result = SamplingZipkinSpanIterator.convert(this.span, this.host);
 
-		assertThat(result.timestamp)
-				.isEqualTo(this.span.getBegin() * 1000);
-		assertThat(result.duration)
-				.isEqualTo((this.span.getEnd() - this.span.getBegin()) * 1000);
-		assertThat(result.annotations.get(0).timestamp)
-				.isGreaterThanOrEqualTo(start * 1000)
-				.isLessThanOrEqualTo(System.currentTimeMillis() * 1000);
+		assertThat(result.timestamp).isEqualTo(1000L);
+		assertThat(result.duration).isEqualTo(2000L);
 	}
 
 	/** Sleuth host corresponds to annotation/binaryAnnotation.host in zipkin. */
@@ -63,6 +76,17 @@ public class ZipkinMessageListenerTests {
 				.isEqualTo(result.annotations.get(0).endpoint);
 	}
 
+	@Test
+	public void tagsWithoutValueAreSkipped() {
+		this.span.tag("spring-boot/version", "1.3.1.RELEASE");
+		this.span.tag("deferred", () -> null);
+
+		zipkin.Span result = SamplingZipkinSpanIterator.convert(this.span, this.host);
+
+		assertThat(result.binaryAnnotations).extracting("key")
+				.containsExactly("spring-boot/version");
+	}
+
 	/**
 	 * In zipkin, the service context is attached to annotations. Sleuth spans
 	 * that have no annotations will get an "lc" one, which allows them to be
@@ -26,8 +26,9 @@ import org.springframework.cloud.sleuth.event.ClientSentEvent;
 import org.springframework.cloud.sleuth.event.ServerReceivedEvent;
 import org.springframework.cloud.sleuth.event.ServerSentEvent;
 import org.springframework.cloud.sleuth.event.SpanAcquiredEvent;
+import org.springframework.cloud.sleuth.event.ExportingSpanListener;
+import org.springframework.cloud.sleuth.event.SpanListenerAdapter;
 import org.springframework.cloud.sleuth.event.SpanReleasedEvent;
-import org.springframework.context.event.EventListener;
 import org.springframework.core.annotation.Order;
 import org.springframework.util.StringUtils;
 
@@ -41,7 +42,9 @@ import zipkin.Endpoint;
  * @author Spencer Gibb
  */
 @CommonsLog
-public class ZipkinSpanListener {
+@Order(0)
+public class ZipkinSpanListener extends SpanListenerAdapter
+		implements ExportingSpanListener {
 	private static final Charset UTF_8 = Charset.forName("UTF-8");
 	private static final byte[] UNKNOWN_BYTES = "unknown".getBytes(UTF_8);
 
@@ -58,56 +61,86 @@ public class ZipkinSpanListener {
 		this.localEndpoint = localEndpoint;
 	}
 
-	@EventListener
-	@Order(0)
 	public void start(SpanAcquiredEvent event) {
-		// Zipkin Span.timestamp corresponds with Sleuth's Span.begin
-		assert event.getSpan().getBegin() != 0;
+		spanAcquired(event.getParent(), event.getSpan());
 	}
 
-	@EventListener
-	@Order(0)
 	public void serverReceived(ServerReceivedEvent event) {
-		if (event.getParent() != null && event.getParent().isRemote()) {
+		serverReceived(event.getParent(), event.getSpan());
+	}
+
+	public void clientSend(ClientSentEvent event) {
+		clientSent(event.getSpan());
+	}
+
+	public void clientReceive(ClientReceivedEvent event) {
+		clientReceived(event.getSpan());
+	}
+
+	public void serverSend(ServerSentEvent event) {
+		serverSent(event.getParent(), event.getSpan());
+	}
+
+	public void release(SpanReleasedEvent event) {
+		spanReleased(event.getParent(), event.getSpan());
+	}
+
+	@Override
+	public void spanAcquired(Span parent, Span span) {
+		// Zipkin Span.timestamp corresponds with Sleuth's Span.begin
+		assert span.getBegin() != 0;
+	}
+
+	@Override
+	public void serverReceived(Span parent, Span span) {
+		if (parent != null && parent.isRemote()) {
 			// If an inbound RPC call, it should log a "sr" annotation.
 			// If possible, it should log a binary annotation of "ca", indicating the
 			// caller's address (ex X-Forwarded-For header)
-			event.getParent().logEvent(Constants.SERVER_RECV);
+			parent.logEvent(Constants.SERVER_RECV);
 		}
 	}
 
-	@EventListener
-	@Order(0)
-	public void clientSend(ClientSentEvent event) {
+	@Override
+	public void clientSent(Span span) {
 		// For an outbound RPC call, it should log a "cs" annotation.
 		// If possible, it should log a binary annotation of "sa", indicating the
 		// destination address.
-		event.getSpan().logEvent(Constants.CLIENT_SEND);
+		span.logEvent(Constants.CLIENT_SEND);
 	}
 
-	@EventListener
-	@Order(0)
-	public void clientReceive(ClientReceivedEvent event) {
-		event.getSpan().logEvent(Constants.CLIENT_RECV);
+	@Override
+	public void clientReceived(Span span) {
+		span.logEvent(Constants.CLIENT_RECV);
 	}
 
-	@EventListener
-	@Order(0)
-	public void serverSend(ServerSentEvent event) {
-		if (event.getParent() != null && event.getParent().isRemote()) {
-			event.getParent().logEvent(Constants.SERVER_SEND);
-			this.reporter.report(convert(event.getParent()));
+	@Override
+	public void serverSent(Span parent, Span span) {
+		beforeServerSent(parent, span);
+		exportServerSent(parent, span);
+	}
+
+	@Override
+	public void beforeServerSent(Span parent, Span span) {
+		if (parent != null && parent.isRemote()) {
+			parent.logEvent(Constants.SERVER_SEND);
 		}
 	}
 
-	@EventListener
-	@Order(0)
-	public void release(SpanReleasedEvent event) {
+	@Override
+	public void exportServerSent(Span parent, Span span) {
+		if (parent != null && parent.isRemote()) {
+			this.reporter.report(convert(parent));
+		}
+	}
+
+	@Override
+	public void spanReleased(Span parent, Span span) {
 		// Ending a span in zipkin means adding duration and sending it out
 		// Zipkin Span.duration corresponds with Sleuth's Span.begin and end
-		assert event.getSpan().getEnd() != 0;
-		if (event.getSpan().isExportable()) {
-			this.reporter.report(convert(event.getSpan()));
+		assert span.getEnd() != 0;
+		if (span.isExportable()) {
+			this.reporter.report(convert(span));
 		}
 	}
 
@@ -139,15 +172,16 @@ public class ZipkinSpanListener {
 			addZipkinBinaryAnnotations(zipkinSpan, span, this.localEndpoint);
 		}
 
-		zipkinSpan.timestamp(span.getBegin() * 1000L);
-		zipkinSpan.duration(span.getAccumulatedMillis() * 1000L);
+		zipkinSpan.timestamp(span.getBeginMicros());
+		zipkinSpan.duration(span.getAccumulatedMicros());
+		// this zipkin version has no 128-bit trace ids, the high bits are dropped
 		zipkinSpan.traceId(span.getTraceId());
-		if (span.getParents().size() > 0) {
-			if (span.getParents().size() > 1) {
+		if (span.hasParent()) {
+			if (span.hasMultipleParents()) {
 				log.error("Zipkin doesn't support spans with multiple parents. Omitting "
 						+ "other parents for " + span);
 			}
-			zipkinSpan.parentId(span.getParents().get(0));
+			zipkinSpan.parentId(span.getParentId());
 		}
 		zipkinSpan.id(span.getSpanId());
 		if (StringUtils.hasText(span.getName())) {
@@ -164,7 +198,7 @@ public class ZipkinSpanListener {
 		for (Log ta : span.logs()) {
 			Annotation zipkinAnnotation = new Annotation.Builder()
 					.endpoint(endpoint)
-					.timestamp(ta.getTimestamp() * 1000) // Zipkin is in microseconds
+					.timestamp(ta.getTimestampMicros()) // Zipkin is in microseconds
 					.value(ta.getEvent()).build();
 			zipkinSpan.addAnnotation(zipkinAnnotation);
 		}
@@ -178,6 +212,10 @@ public class ZipkinSpanListener {
 	private void addZipkinBinaryAnnotations(zipkin.Span.Builder zipkinSpan,
 			Span span, Endpoint endpoint) {
 		for (Map.Entry<String, String> e : span.tags().entrySet()) {
+			// e.g. a deferred tag that was not resolved
+			if (e.getValue() == null) {
+				continue;
+			}
 			BinaryAnnotation binaryAnn = new BinaryAnnotation.Builder()
 					.type(BinaryAnnotation.Type.STRING)
 					.key(e.getKey())
@@ -21,6 +21,7 @@ import static org.junit.Assert.assertEquals;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
 
@@ -33,6 +34,7 @@ import org.springframework.cloud.sleuth.Sampler;
 import org.springframework.cloud.sleuth.Span;
 import org.springframework.cloud.sleuth.Tracer;
 import org.springframework.cloud.sleuth.autoconfig.TraceAutoConfiguration;
+import org.springframework.cloud.sleuth.clock.VirtualClock;
 import org.springframework.cloud.sleuth.event.ClientReceivedEvent;
 import org.springframework.cloud.sleuth.event.ClientSentEvent;
 import org.springframework.cloud.sleuth.event.ServerReceivedEvent;
@@ -72,22 +74,22 @@ public class ZipkinSpanListenerTests {
 
 	Span parent = Span.builder().traceId(1L).name("parent").remote(true).build();
 
-	/** Sleuth timestamps are millisecond granularity while zipkin is microsecond. */
+	/** Sleuth and zipkin timestamps are both microsecond granularity. */
 	@Test
 	public void convertsTimestampAndDurationToMicroseconds() {
-		long start = System.currentTimeMillis();
-		this.parent.logEvent("hystrix/retry"); // System.currentTimeMillis
-		this.parent.stop();
-
-		zipkin.Span result = this.listener.convert(this.parent);
-
-		assertThat(result.timestamp)
-				.isEqualTo(this.parent.getBegin() * 1000);
-		assertThat(result.duration)
-				.isEqualTo((this.parent.getEnd() - this.parent.getBegin()) * 1000);
-		assertThat(result.annotations.get(0).timestamp)
-				.isGreaterThanOrEqualTo(start * 1000)
-				.isLessThanOrEqualTo(System.currentTimeMillis() * 1000);
+		VirtualClock clock = new VirtualClock(1000000L);
+		Span span = Span.builder().traceId(1L).name("parent").remote(true).clock(clock)
+				.build();
+		clock.advance(150, TimeUnit.MICROSECONDS);
+		span.logEvent("hystrix/retry");
+		clock.advance(200, TimeUnit.MICROSECONDS);
+		span.stop();
+
+		zipkin.Span result = this.listener.convert(span);
+
+		assertThat(result.timestamp).isEqualTo(1000000L);
+		assertThat(result.duration).isEqualTo(350L);
+		assertThat(result.annotations.get(0).timestamp).isEqualTo(1000150L);
 	}
 
 	/** Sleuth host corresponds to annotation/binaryAnnotation.host in zipkin. */
@@ -104,6 +106,17 @@ public class ZipkinSpanListenerTests {
 				.isEqualTo(result.annotations.get(0).endpoint);
 	}
 
+	@Test
+	public void tagsWithoutValueAreSkipped() {
+		this.parent.tag("spring-boot/version", "1.3.1.RELEASE");
+		this.parent.tag("deferred", () -> null);
+
+		zipkin.Span result = this.listener.convert(this.parent);
+
+		assertThat(result.binaryAnnotations).extracting("key")
+				.containsExactly("spring-boot/version");
+	}
+
 	/** zipkin's Endpoint.serviceName should never be null. */
 	@Test
 	public void localEndpointIncludesServiceName() {